@@ -22,6 +22,7 @@ import javafx.stage.Stage;
 import org.hildan.fxlog.config.Config;
 import org.hildan.fxlog.controllers.MainController;
 import org.hildan.fxlog.errors.ErrorDialog;
+import org.hildan.fxlog.tailing.StreamTailer;
 import org.hildan.fxlog.themes.Theme;
 import org.hildan.fxlog.version.VersionChecker;
 import org.hildan.fxlog.view.UIUtils;
@@ -114,7 +115,10 @@ public class FXLog extends Application {
             return; // can't parse logs, better not open a file
         }
         List<String> params = getParameters().getRaw();
-        if (!params.isEmpty()) {
+        if (!params.isEmpty() && params.get(0).equals(StreamTailer.STDIN_NAME)) {
+            // e.g. kubectl logs -f my-pod | fx-log -
+            controller.startTailingStdin();
+        } else if (!params.isEmpty()) {
             String filename = params.get(0);
             try {
                 controller.startTailingFile(new File(filename));
@@ -7,8 +7,10 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.scene.control.Label;
@@ -31,6 +33,19 @@ public class ColumnDefinition {
 
     private final StringProperty description;
 
+    private final ObjectProperty<ColumnType> type;
+
+    private final StringProperty format;
+
+    /**
+     * Used when reading a config that doesn't define all the properties, so that the missing ones get their default
+     * value.
+     */
+    @SuppressWarnings("unused")
+    private ColumnDefinition() {
+        this(null, null, null, true, DEFAULT_WIDTH);
+    }
+
     /**
      * Creates a new ColumnDefinition for the given field.
      *
@@ -124,6 +139,8 @@ public class ColumnDefinition {
         this.visible = new SimpleBooleanProperty(visible);
         this.width = new SimpleDoubleProperty(initialWidth);
         this.description = new SimpleStringProperty(description);
+        this.type = new SimpleObjectProperty<>(ColumnType.TEXT);
+        this.format = new SimpleStringProperty(null);
     }
 
     Label createBoundHeaderLabel() {
@@ -213,4 +230,37 @@ public class ColumnDefinition {
     public void setDescription(String description) {
         this.description.set(description);
     }
+
+    /**
+     * @return the type of the values of this column, which are parsed once when the logs are columnized
+     */
+    public ColumnType getType() {
+        ColumnType columnType = type.get();
+        return columnType == null ? ColumnType.TEXT : columnType;
+    }
+
+    public ObjectProperty<ColumnType> typeProperty() {
+        return type;
+    }
+
+    public void setType(ColumnType type) {
+        this.type.set(type);
+    }
+
+    /**
+     * @return the format of the values of this column, which only makes sense for some types, or null for the default
+     * format of the type
+     */
+    public String getFormat() {
+        String valueFormat = format.get();
+        return valueFormat == null || valueFormat.isEmpty() ? null : valueFormat;
+    }
+
+    public StringProperty formatProperty() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format.set(format);
+    }
 }
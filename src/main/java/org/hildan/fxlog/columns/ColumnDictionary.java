@@ -0,0 +1,168 @@
+package org.hildan.fxlog.columns;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The distinct values of a column, each identified by a small integer code.
+ * <p>
+ * Columns such as the severity or the thread of a log only take a handful of distinct values, which are then stored
+ * once here, while the logs only keep their codes. The cardinality of a column is detected as the logs are parsed: as
+ * soon as a column has too many distinct values, its dictionary stops accepting new values, and the new values of
+ * this column are stored as is.
+ * <p>
+ * The values are looked up directly in the raw log lines, so that the known values don't need to be extracted from the
+ * lines at all.
+ * <p>
+ * This class is thread-safe, the codes are never reassigned.
+ */
+public class ColumnDictionary {
+
+    /**
+     * The maximum number of distinct values of a column to consider it a low-cardinality column.
+     */
+    public static final int MAX_SIZE = 255;
+
+    /**
+     * The code returned for the values that are not in the dictionary.
+     */
+    public static final int NOT_ENCODED = -1;
+
+    /**
+     * The values longer than this are not encoded, they don't belong to low-cardinality columns.
+     */
+    private static final int MAX_VALUE_LENGTH = StringPool.MAX_POOLED_LENGTH;
+
+    /**
+     * The size of the hash table of the codes, more than twice the max number of values to keep the probes short.
+     */
+    private static final int TABLE_SIZE = 512;
+
+    private volatile Entries entries = new Entries(new String[0], new short[TABLE_SIZE]);
+
+    private volatile boolean lowCardinality = true;
+
+    /**
+     * Gets the code of the given value, adding it to this dictionary if necessary.
+     *
+     * @param value
+     *         the value of the column in a log
+     * @return the code of the given value, or {@link #NOT_ENCODED} if this column has too many distinct values or the
+     * value is too long
+     */
+    public int encode(@NotNull String value) {
+        return encode(value, 0, value.length());
+    }
+
+    /**
+     * Gets the code of the given value, adding it to this dictionary if necessary.
+     *
+     * @param line
+     *         the raw log line containing the value
+     * @param start
+     *         the index of the first character of the value in the line
+     * @param end
+     *         the index after the last character of the value in the line
+     * @return the code of the given value, or {@link #NOT_ENCODED} if this column has too many distinct values or the
+     * value is too long
+     */
+    public int encode(@NotNull String line, int start, int end) {
+        if (!lowCardinality || end - start > MAX_VALUE_LENGTH) {
+            // the values would not be shared anyway, no need to hash them
+            return NOT_ENCODED;
+        }
+        int hash = StringPool.hash(line, start, end);
+        int code = entries.find(line, start, end, hash);
+        if (code != NOT_ENCODED) {
+            return code;
+        }
+        synchronized (this) {
+            Entries currentEntries = entries;
+            code = currentEntries.find(line, start, end, hash);
+            if (code != NOT_ENCODED) {
+                return code;
+            }
+            if (currentEntries.values.length >= MAX_SIZE) {
+                lowCardinality = false;
+                return NOT_ENCODED;
+            }
+            entries = currentEntries.with(line.substring(start, end), hash);
+            return currentEntries.values.length;
+        }
+    }
+
+    /**
+     * Gets the value of the given code.
+     *
+     * @param code
+     *         a code returned by {@link #encode(String)}
+     * @return the value corresponding to the given code
+     */
+    @NotNull
+    public String decode(int code) {
+        return entries.values[code];
+    }
+
+    /**
+     * @return the number of distinct values in this dictionary
+     */
+    public int size() {
+        return entries.values.length;
+    }
+
+    /**
+     * @return false if this column turned out to have too many distinct values to be encoded
+     */
+    public boolean isLowCardinality() {
+        return lowCardinality;
+    }
+
+    /**
+     * An immutable snapshot of the values, replaced when a value is added, so that lookups don't need any lock.
+     */
+    private static class Entries {
+
+        private final String[] values;
+
+        /**
+         * The codes of the values plus one, by hash, or 0 for the empty slots.
+         */
+        private final short[] slots;
+
+        Entries(String[] values, short[] slots) {
+            this.values = values;
+            this.slots = slots;
+        }
+
+        int find(String line, int start, int end, int hash) {
+            int length = end - start;
+            int slot = spread(hash);
+            while (slots[slot] != 0) {
+                int code = slots[slot] - 1;
+                String value = values[code];
+                if (value.length() == length && line.regionMatches(start, value, 0, length)) {
+                    return code;
+                }
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            return NOT_ENCODED;
+        }
+
+        Entries with(String value, int hash) {
+            String[] newValues = Arrays.copyOf(values, values.length + 1);
+            newValues[values.length] = value;
+            short[] newSlots = slots.clone();
+            int slot = spread(hash);
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            newSlots[slot] = (short) newValues.length;
+            return new Entries(newValues, newSlots);
+        }
+
+        private static int spread(int hash) {
+            return (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.hildan.fxlog.columns;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The columns of a columnizer at some point in time, and the dictionaries of their values.
+ * <p>
+ * The column values of all the logs parsed with the same layout share it, so that each log only needs to store its
+ * values in an array, instead of a map of its own.
+ * <p>
+ * The values of the low-cardinality columns are replaced by their codes in the dictionary of their column, the
+ * repeated values are deduplicated through the default {@link StringPool}, and the other values are only kept as
+ * offsets in the raw log line.
+ */
+class ColumnLayout {
+
+    private final List<String> groupNames;
+
+    private final Map<String, Integer> indexes;
+
+    private final ColumnDictionary[] dictionaries;
+
+    private final StringPool pool;
+
+    private final StringPool.Statistics[] poolStatistics;
+
+    /**
+     * Creates a layout for the given definitions.
+     *
+     * @param columnDefinitions
+     *         all the column definitions of a columnizer
+     */
+    ColumnLayout(@NotNull List<ColumnDefinition> columnDefinitions) {
+        this.groupNames = new ArrayList<>(columnDefinitions.size());
+        this.indexes = new HashMap<>(columnDefinitions.size() * 2);
+        for (ColumnDefinition definition : columnDefinitions) {
+            String groupName = definition.getCapturingGroupName();
+            // several columns may show the same group, the value is the same
+            if (!indexes.containsKey(groupName)) {
+                indexes.put(groupName, groupNames.size());
+                groupNames.add(groupName);
+            }
+        }
+        this.dictionaries = new ColumnDictionary[groupNames.size()];
+        this.pool = StringPool.getDefault();
+        this.poolStatistics = new StringPool.Statistics[groupNames.size()];
+        for (int i = 0; i < dictionaries.length; i++) {
+            dictionaries[i] = new ColumnDictionary();
+            poolStatistics[i] = pool.getStatistics(groupNames.get(i));
+        }
+    }
+
+    /**
+     * Tells whether this layout still corresponds to the given definitions.
+     *
+     * @param columnDefinitions
+     *         the current column definitions of the columnizer
+     * @return true if the capturing groups of the definitions didn't change since this layout was created
+     */
+    boolean isUpToDate(@NotNull List<ColumnDefinition> columnDefinitions) {
+        int nbKnownGroups = 0;
+        for (ColumnDefinition definition : columnDefinitions) {
+            Integer index = indexes.get(definition.getCapturingGroupName());
+            if (index == null || index > nbKnownGroups) {
+                return false;
+            }
+            if (index == nbKnownGroups) {
+                nbKnownGroups++;
+            }
+        }
+        return nbKnownGroups == groupNames.size();
+    }
+
+    int size() {
+        return groupNames.size();
+    }
+
+    @NotNull
+    String getGroupName(int index) {
+        return groupNames.get(index);
+    }
+
+    /**
+     * @param groupName
+     *         the capturing group name of a column
+     * @return the index of the given column in this layout, or -1 if there is no such column
+     */
+    int indexOf(@NotNull Object groupName) {
+        Integer index = indexes.get(groupName);
+        return index == null ? -1 : index;
+    }
+
+    @NotNull
+    ColumnDictionary getDictionary(int index) {
+        return dictionaries[index];
+    }
+
+    /**
+     * Offers a value of the given column, which was extracted from its line, to the pool, so that the next logs with
+     * the same value can share it.
+     *
+     * @param index
+     *         the index of the column in this layout
+     * @param value
+     *         the extracted value
+     */
+    void offerToPool(int index, @NotNull String value) {
+        pool.offer(value, poolStatistics[index]);
+    }
+
+    /**
+     * Stores the values of a log, given as parts of its raw line.
+     *
+     * @param line
+     *         the raw log line
+     * @param bounds
+     *         the start and end indexes in the line of the value of each column of this layout, in order, or -1 for
+     *         the columns without value
+     * @return the column values of the log
+     */
+    @NotNull
+    ColumnValues encode(@NotNull String line, @NotNull int[] bounds) {
+        String[] values = new String[groupNames.size()];
+        byte[] codes = new byte[values.length];
+        boolean hasOffsets = false;
+        for (int i = 0; i < values.length; i++) {
+            int start = bounds[2 * i];
+            int end = bounds[2 * i + 1];
+            if (start < 0 || start == end) {
+                codes[i] = (byte) ColumnValues.NO_CODE;
+                values[i] = "";
+                continue;
+            }
+            int code = dictionaries[i].encode(line, start, end);
+            if (code != ColumnDictionary.NOT_ENCODED) {
+                codes[i] = (byte) code;
+                continue;
+            }
+            codes[i] = (byte) ColumnValues.NO_CODE;
+            values[i] = pool.intern(line, start, end, poolStatistics[i]);
+            hasOffsets |= values[i] == null;
+        }
+        if (hasOffsets) {
+            // the shared values save nothing, the offsets are kept for the other values
+            return new ColumnValues(this, line, values, codes, bounds);
+        }
+        for (int i = 0; i < values.length; i++) {
+            // the missing values are empty, the other strings are shared
+            if (values[i] != null && !values[i].isEmpty()) {
+                poolStatistics[i].recordDroppedOffsets();
+            }
+        }
+        return new ColumnValues(this, line, values, codes, null);
+    }
+}
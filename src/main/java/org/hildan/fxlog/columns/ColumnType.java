@@ -0,0 +1,143 @@
+package org.hildan.fxlog.columns;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.hildan.fxlog.merging.TimestampParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The type of the values of a column. The values of the typed columns are parsed into numbers once, when the logs are
+ * columnized, so that they can be compared quickly.
+ */
+public enum ColumnType {
+
+    /**
+     * Plain text, not parsed.
+     */
+    TEXT {
+        @Override
+        ToLongFunction<String> createParser(@Nullable String format) {
+            return value -> MISSING;
+        }
+    },
+
+    /**
+     * A date and/or time, parsed into milliseconds since the epoch. The format is a {@link
+     * java.time.format.DateTimeFormatter} pattern, the common log date formats are detected if it is missing.
+     */
+    TIMESTAMP {
+        @Override
+        ToLongFunction<String> createParser(@Nullable String format) {
+            TimestampParser parser;
+            try {
+                parser = new TimestampParser(format);
+            } catch (IllegalArgumentException e) {
+                // the format is being edited or is wrong, the common formats are better than nothing
+                parser = new TimestampParser();
+            }
+            return parser::parse;
+        }
+    },
+
+    /**
+     * An integer number, such as a response size or a duration.
+     */
+    INTEGER {
+        @Override
+        ToLongFunction<String> createParser(@Nullable String format) {
+            return ColumnType::parseInteger;
+        }
+    },
+
+    /**
+     * A severity level, parsed into its rank, from 0 for TRACE to 8 for EMERGENCY, so that levels of different logging
+     * frameworks can be compared.
+     */
+    LEVEL {
+        @Override
+        ToLongFunction<String> createParser(@Nullable String format) {
+            return ColumnType::parseLevel;
+        }
+    };
+
+    /**
+     * The value of the typed columns that are empty or can't be parsed.
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final Map<String, Long> LEVEL_RANKS = new HashMap<>();
+
+    static {
+        putLevelRank(0, "TRACE", "FINEST", "FINER");
+        putLevelRank(1, "DEBUG", "FINE", "CONFIG");
+        putLevelRank(2, "INFO", "INFORMATION");
+        putLevelRank(3, "NOTICE");
+        putLevelRank(4, "WARN", "WARNING");
+        putLevelRank(5, "ERROR", "ERR", "SEVERE");
+        putLevelRank(6, "CRITICAL", "CRIT", "FATAL");
+        putLevelRank(7, "ALERT");
+        putLevelRank(8, "EMERGENCY", "EMERG");
+    }
+
+    private static void putLevelRank(long rank, String... names) {
+        for (String name : names) {
+            LEVEL_RANKS.put(name, rank);
+        }
+    }
+
+    /**
+     * Creates a function parsing the values of a column of this type. The returned function may keep state between
+     * calls, and therefore must not be shared between columns.
+     *
+     * @param format
+     *         the format of the values, which only makes sense for some types
+     * @return a function returning the parsed value, or {@link #MISSING} if the value can't be parsed
+     */
+    abstract ToLongFunction<String> createParser(@Nullable String format);
+
+    private static long parseInteger(@Nullable String value) {
+        if (value == null) {
+            return MISSING;
+        }
+        String trimmed = value.trim();
+        int start = trimmed.startsWith("-") || trimmed.startsWith("+") ? 1 : 0;
+        int nbDigits = trimmed.length() - start;
+        if (nbDigits == 0 || nbDigits > MAX_LONG_DIGITS) {
+            return MISSING;
+        }
+        for (int i = start; i < trimmed.length(); i++) {
+            if (!Character.isDigit(trimmed.charAt(i))) {
+                // avoids the cost of an exception for the common "-" placeholder
+                return MISSING;
+            }
+        }
+        return Long.parseLong(trimmed);
+    }
+
+    private static long parseLevel(@Nullable String value) {
+        if (value == null) {
+            return MISSING;
+        }
+        String level = value.trim().toUpperCase(Locale.ENGLISH);
+        // Apache 2.4 prefixes the level with the module, as in "core:error"
+        int moduleEnd = level.lastIndexOf(':');
+        if (moduleEnd >= 0) {
+            level = level.substring(moduleEnd + 1);
+        }
+        Long rank = LEVEL_RANKS.get(level);
+        return rank == null ? MISSING : rank;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        String name = name();
+        return name.charAt(0) + name.substring(1).toLowerCase(Locale.ENGLISH);
+    }
+}
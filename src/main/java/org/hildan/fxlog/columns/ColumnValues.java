@@ -0,0 +1,170 @@
+package org.hildan.fxlog.columns;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The column values of a log, indexed by capturing group name.
+ * <p>
+ * The values of the low-cardinality columns are stored as codes in the {@link ColumnDictionary} of their column, the
+ * repeated values as shared strings from the {@link StringPool}, and the other values as offsets in the raw log line.
+ * The latter only become strings when they are read from this map, the consumers that can work with a {@link
+ * CharSequence} should use {@link #getCharSequence(String)} instead. This map is read-only.
+ */
+public class ColumnValues extends AbstractMap<String, String> {
+
+    /**
+     * The code stored for the values that are not in the dictionary of their column.
+     */
+    static final int NO_CODE = ColumnDictionary.MAX_SIZE;
+
+    private final ColumnLayout layout;
+
+    private final String line;
+
+    /**
+     * The values stored as strings, or null for the values stored as codes or offsets.
+     */
+    private final String[] values;
+
+    private final byte[] codes;
+
+    /**
+     * The start and end of each value in the line, or null if no value is stored as offsets.
+     */
+    private final int[] bounds;
+
+    ColumnValues(@NotNull ColumnLayout layout, @NotNull String line, @NotNull String[] values, @NotNull byte[] codes,
+                 @Nullable int[] bounds) {
+        this.layout = layout;
+        this.line = line;
+        this.values = values;
+        this.codes = codes;
+        this.bounds = bounds;
+    }
+
+    private CharSequence getCharSequence(int index) {
+        int code = codes[index] & 0xFF;
+        if (code != NO_CODE) {
+            return layout.getDictionary(index).decode(code);
+        }
+        if (values[index] != null) {
+            return values[index];
+        }
+        return new LineSlice(line, bounds[2 * index], bounds[2 * index + 1]);
+    }
+
+    private String getValue(int index) {
+        CharSequence value = getCharSequence(index);
+        if (!(value instanceof LineSlice)) {
+            return value.toString();
+        }
+        // the value has to be extracted anyway, the next logs can share it
+        String extractedValue = value.toString();
+        layout.offerToPool(index, extractedValue);
+        return extractedValue;
+    }
+
+    /**
+     * Gets the value of the given column, without copying it out of the raw log line if it is only stored as offsets.
+     *
+     * @param groupName
+     *         the capturing group name of the column
+     * @return the value of the given column, or null if there is no such column
+     */
+    @Nullable
+    public CharSequence getCharSequence(@NotNull String groupName) {
+        int index = layout.indexOf(groupName);
+        return index < 0 ? null : getCharSequence(index);
+    }
+
+    /**
+     * Gets the code of the value of the given column in the dictionary of this column.
+     *
+     * @param groupName
+     *         the capturing group name of the column
+     * @return the code of the value of the given column, or {@link ColumnDictionary#NOT_ENCODED} if the value is not
+     * in the dictionary or there is no such column
+     */
+    public int getCode(@NotNull String groupName) {
+        int index = layout.indexOf(groupName);
+        if (index < 0) {
+            return ColumnDictionary.NOT_ENCODED;
+        }
+        int code = codes[index] & 0xFF;
+        return code == NO_CODE ? ColumnDictionary.NOT_ENCODED : code;
+    }
+
+    /**
+     * Gets the dictionary of the given column, which gives the meaning of the codes returned by {@link
+     * #getCode(String)}.
+     *
+     * @param groupName
+     *         the capturing group name of the column
+     * @return the dictionary of the given column, or null if there is no such column
+     */
+    @Nullable
+    public ColumnDictionary getDictionary(@NotNull String groupName) {
+        int index = layout.indexOf(groupName);
+        return index < 0 ? null : layout.getDictionary(index);
+    }
+
+    @Override
+    public String get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int index = layout.indexOf(key);
+        return index < 0 ? null : getValue(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && layout.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry =
+                                new SimpleImmutableEntry<>(layout.getGroupName(index), getValue(index));
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
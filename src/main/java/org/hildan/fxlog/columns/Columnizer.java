@@ -1,12 +1,11 @@
 package org.hildan.fxlog.columns;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -21,7 +20,10 @@ import javafx.scene.control.TableView;
 
 import org.hildan.fx.components.list.Named;
 import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.regex.RegexGuard;
+import org.hildan.fxlog.regex.RegexMatch;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Uses regexps to split log lines into columns.
@@ -34,6 +36,10 @@ public class Columnizer implements Named {
 
     private final ObservableList<ColumnDefinition> columnDefinitions;
 
+    private transient volatile TypedColumns typedColumns;
+
+    private transient volatile ColumnLayout layout;
+
     /**
      * Creates a new Columnizer with the no columns and no patterns.
      *
@@ -100,6 +106,20 @@ public class Columnizer implements Named {
         return columnDefinitions;
     }
 
+    /**
+     * @return the capturing group name of the first column of type {@link ColumnType#TIMESTAMP}, or null if this
+     * columnizer has none
+     */
+    @Nullable
+    public String getTimestampColumnName() {
+        for (ColumnDefinition columnDefinition : columnDefinitions) {
+            if (columnDefinition.getType() == ColumnType.TIMESTAMP) {
+                return columnDefinition.getCapturingGroupName();
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns the columns associated to this columnizer. They can directly be added to a {@link TableView}.
      * <p>
@@ -122,7 +142,7 @@ public class Columnizer implements Named {
             columnDefinition.widthProperty().bind(col.widthProperty());
             col.setCellValueFactory(data -> {
                 LogEntry log = data.getValue();
-                String cellValue = log.getColumnValues().get(columnDefinition.getCapturingGroupName());
+                String cellValue = log.getColumnValue(columnDefinition.getCapturingGroupName());
                 return new ReadOnlyStringWrapper(cellValue);
             });
             columns.add(col);
@@ -137,7 +157,11 @@ public class Columnizer implements Named {
      * column values are taken from the capturing groups of the first matched pattern. Missing capturing groups simply
      * yield empty strings.
      * <p>
+     * A regexp taking longer than the {@link RegexGuard} budget is considered not matched.
+     * <p>
      * If no regexp is matched, a LogEntry is still returned, containing the whole input string in the first column.
+     * <p>
+     * The values of the typed columns are parsed right away, and stored with the entry.
      *
      * @param inputLogLine
      *         the raw log string to parse
@@ -145,51 +169,108 @@ public class Columnizer implements Named {
      */
     @NotNull
     public LogEntry parse(@NotNull String inputLogLine) {
+        Map<String, String> columnValues = parseColumnValues(inputLogLine);
+        return new LogEntry(columnValues, inputLogLine, parseTypedValues(columnValues));
+    }
+
+    /**
+     * Parses the values of the typed columns of this Columnizer.
+     *
+     * @param columnValues
+     *         the values of all the columns, as returned by {@link #parseColumnValues(String)}
+     * @return the parsed values of the typed columns
+     */
+    @NotNull
+    public TypedValues parseTypedValues(@NotNull Map<String, String> columnValues) {
+        return getTypedColumns().parse(columnValues);
+    }
+
+    /**
+     * Tells whether the given typed values were parsed with the current column definitions of this Columnizer.
+     *
+     * @param typedValues
+     *         some values returned by {@link #parseTypedValues(Map)}
+     * @return true if the given values are up to date
+     */
+    public boolean isCurrent(@NotNull TypedValues typedValues) {
+        return typedValues.getColumns() == getTypedColumns();
+    }
+
+    private ColumnLayout getLayout() {
+        ColumnLayout currentLayout = layout;
+        if (currentLayout == null || !currentLayout.isUpToDate(columnDefinitions)) {
+            currentLayout = new ColumnLayout(columnDefinitions);
+            layout = currentLayout;
+        }
+        return currentLayout;
+    }
+
+    private TypedColumns getTypedColumns() {
+        TypedColumns columns = typedColumns;
+        if (columns == null || !columns.isUpToDate(columnDefinitions)) {
+            columns = new TypedColumns(this, columnDefinitions);
+            typedColumns = columns;
+        }
+        return columns;
+    }
+
+    /**
+     * Parses the given input line into column values following the rules of this Columnizer, as described in {@link
+     * #parse(String)}.
+     * <p>
+     * The values of the columns that have few distinct values are stored as codes in a dictionary shared by all the
+     * logs parsed with this Columnizer.
+     *
+     * @param inputLogLine
+     *         the raw log string to parse
+     * @return the values for each column, indexed by capturing group name
+     */
+    @NotNull
+    public ColumnValues parseColumnValues(@NotNull String inputLogLine) {
+        ColumnLayout currentLayout = getLayout();
+        int[] bounds = new int[2 * currentLayout.size()];
         for (Pattern pattern : patterns) {
-            Matcher matcher = pattern.matcher(inputLogLine);
-            if (matcher.matches()) {
-                Map<String, String> columnValues = new HashMap<>(columnDefinitions.size());
-                for (ColumnDefinition columnDefinition : columnDefinitions) {
-                    String groupName = columnDefinition.getCapturingGroupName();
+            RegexMatch match = RegexGuard.matches(pattern, inputLogLine);
+            if (match != null) {
+                for (int i = 0; i < currentLayout.size(); i++) {
                     // we take all the values we can from this pattern
-                    String value = getGroupValueOrEmptyString(matcher, groupName);
-                    columnValues.put(groupName, value);
+                    setGroupBounds(match, currentLayout.getGroupName(i), bounds, i);
                 }
-                return new LogEntry(columnValues, inputLogLine);
+                return currentLayout.encode(inputLogLine, bounds);
             }
         }
         // no pattern matched, put empty values in all columns
-        Map<String, String> columnValues = new HashMap<>(columnDefinitions.size());
-        for (ColumnDefinition columnDefinition : columnDefinitions) {
-            String groupName = columnDefinition.getCapturingGroupName();
-            columnValues.put(groupName, "");
-        }
+        Arrays.fill(bounds, -1);
         // put the whole line in the first column as a fallback, if possible
-        if (columnDefinitions.size() > 1) {
-            columnValues.put(columnDefinitions.get(0).getCapturingGroupName(), inputLogLine);
+        if (currentLayout.size() > 1) {
+            bounds[0] = 0;
+            bounds[1] = inputLogLine.length();
         }
-        return new LogEntry(columnValues, inputLogLine);
+        return currentLayout.encode(inputLogLine, bounds);
     }
 
     /**
-     * Safely tries to get the input subsequence captured by the given capturing group. If the group does not exist in
-     * the given matcher, this method simply returns the empty string for display purposes.
+     * Safely tries to get the bounds of the input subsequence captured by the given capturing group. If the group does
+     * not exist in the given match, the bounds are set to -1, so that the column is simply empty.
      *
-     * @param matcher
-     *         the matcher to get the group value from
+     * @param match
+     *         the match to get the group bounds from
      * @param groupName
-     *         the name of the capturing group for which to get the value
-     * @return the input subsequence captured by the given capturing group during the previous match, or the empty
-     * string if the group is missing
+     *         the name of the capturing group for which to get the bounds
+     * @param bounds
+     *         the array of the start and end indexes of each column
+     * @param index
+     *         the index of the column in the given array
      */
-    @NotNull
-    private static String getGroupValueOrEmptyString(@NotNull Matcher matcher, @NotNull String groupName) {
+    private static void setGroupBounds(@NotNull RegexMatch match, @NotNull String groupName, @NotNull int[] bounds,
+                                       int index) {
         try {
-            String capturedValue = matcher.group(groupName);
-            return capturedValue != null ? capturedValue : "";
+            bounds[2 * index] = match.start(groupName);
+            bounds[2 * index + 1] = match.end(groupName);
         } catch (IllegalArgumentException e) {
             // case where the group name does not exist in the parent pattern
-            return "";
+            bounds[2 * index] = -1;
+            bounds[2 * index + 1] = -1;
         }
     }
 
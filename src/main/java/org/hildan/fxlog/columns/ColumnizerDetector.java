@@ -0,0 +1,225 @@
+package org.hildan.fxlog.columns;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javafx.concurrent.Task;
+
+import org.hildan.fxlog.io.ReverseLineReader;
+import org.hildan.fxlog.regex.RegexGuard;
+import org.hildan.fxlog.regex.RegexMatch;
+import org.hildan.fxlog.regex.RegexTimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Guesses the best columnizer for a file, based on a sample of its first and last lines.
+ * <p>
+ * Most columnizers end with a catch-all pattern that puts the whole line in the message column, so the raw match rate
+ * doesn't tell them apart. Instead, each line of the sample is parsed like {@link Columnizer#parseColumnValues(String)}
+ * does, and a columnizer is credited with the proportion of its columns that received a non-empty value. The
+ * columnizers with the best rate are then ranked by the time they spent parsing the sample.
+ * <p>
+ * All the columnizers are scored in parallel. The detection can be run in the background with
+ * {@link #detectInBackground(List, Path, Charset)}, so that the UI is not blocked while the sample is read.
+ */
+public class ColumnizerDetector {
+
+    /**
+     * The number of lines taken from the beginning of the file, and from the end of the file.
+     */
+    public static final int NB_SAMPLE_LINES = 2000;
+
+    /**
+     * The columnizers whose fill rate is this close to the best one are considered as good, the fastest wins.
+     */
+    private static final double FILL_RATE_TOLERANCE = 0.01;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Columnizer Detector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ColumnizerDetector() {
+    }
+
+    /**
+     * Starts finding the columnizer that extracts the most information from the given file, on a background thread.
+     * Must be called on the UI thread, and the handlers of the returned task are called on the UI thread as usual.
+     *
+     * @param columnizers
+     *         the candidate columnizers
+     * @param file
+     *         the file to take the sample from
+     * @param charset
+     *         the charset of the file
+     * @return the running detection, whose value is the best columnizer, or null if none of them matches the sample
+     */
+    @NotNull
+    public static Task<Columnizer> detectInBackground(@NotNull List<Columnizer> columnizers, @NotNull Path file,
+                                                      @NotNull Charset charset) {
+        // the columnizers may only be read on the UI thread
+        List<Candidate> candidates = createCandidates(columnizers);
+        Task<Columnizer> task = new Task<Columnizer>() {
+            @Override
+            protected Columnizer call() throws IOException {
+                return findBest(candidates, readSample(file, charset));
+            }
+        };
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Finds the columnizer that extracts the most information from the given file. Must be called on the UI thread,
+     * which is blocked while the sample is read and scored.
+     *
+     * @param columnizers
+     *         the candidate columnizers
+     * @param file
+     *         the file to take the sample from
+     * @param charset
+     *         the charset of the file
+     * @return the best columnizer, or null if none of them matches the sample
+     * @throws IOException
+     *         if the sample can't be read
+     */
+    @Nullable
+    public static Columnizer detect(@NotNull List<Columnizer> columnizers, @NotNull Path file,
+                                    @NotNull Charset charset) throws IOException {
+        return findBest(createCandidates(columnizers), readSample(file, charset));
+    }
+
+    private static List<Candidate> createCandidates(List<Columnizer> columnizers) {
+        return columnizers.stream().map(Candidate::new).collect(Collectors.toList());
+    }
+
+    @Nullable
+    private static Columnizer findBest(List<Candidate> candidates, List<String> sample) {
+        if (sample.isEmpty()) {
+            return null;
+        }
+        candidates.parallelStream().forEach(c -> c.score(sample));
+
+        double bestFillRate = 0;
+        for (Candidate candidate : candidates) {
+            bestFillRate = Math.max(bestFillRate, candidate.fillRate);
+        }
+        if (bestFillRate == 0) {
+            return null;
+        }
+        Candidate best = null;
+        for (Candidate candidate : candidates) {
+            if (candidate.fillRate < bestFillRate - FILL_RATE_TOLERANCE) {
+                continue;
+            }
+            if (best == null || candidate.totalNanos < best.totalNanos) {
+                best = candidate;
+            }
+        }
+        return best.columnizer;
+    }
+
+    /**
+     * Reads the first and last lines of the given file. On small files, both parts may contain the same lines, which
+     * doesn't change the rates.
+     */
+    private static List<String> readSample(Path file, Charset charset) throws IOException {
+        List<String> sample = new ArrayList<>(2 * NB_SAMPLE_LINES);
+        // unlike Files.newBufferedReader(), this replaces malformed input instead of failing
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), charset))) {
+            String line;
+            while (sample.size() < NB_SAMPLE_LINES && (line = reader.readLine()) != null) {
+                sample.add(line);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ReverseLineReader reader = new ReverseLineReader(channel, channel.size(), charset);
+            int nbTailLines = 0;
+            while (nbTailLines < NB_SAMPLE_LINES && reader.hasPreviousLine()) {
+                sample.add(reader.readPreviousLine());
+                nbTailLines++;
+            }
+        }
+        return sample;
+    }
+
+    private static class Candidate {
+
+        private final Columnizer columnizer;
+
+        private final List<Pattern> patterns;
+
+        private final List<String> groupNames;
+
+        private double fillRate;
+
+        private long totalNanos;
+
+        Candidate(Columnizer columnizer) {
+            this.columnizer = columnizer;
+            this.patterns = new ArrayList<>(columnizer.getPatterns());
+            this.groupNames = columnizer.getColumnDefinitions()
+                                        .stream()
+                                        .map(ColumnDefinition::getCapturingGroupName)
+                                        .collect(Collectors.toList());
+        }
+
+        void score(List<String> sample) {
+            if (groupNames.isEmpty()) {
+                return;
+            }
+            long nbFilledValues = 0;
+            long start = System.nanoTime();
+            for (String line : sample) {
+                nbFilledValues += countFilledValues(line);
+            }
+            totalNanos = System.nanoTime() - start;
+            fillRate = (double) nbFilledValues / ((long) sample.size() * groupNames.size());
+        }
+
+        private int countFilledValues(String line) {
+            for (Pattern pattern : patterns) {
+                RegexMatch match;
+                try {
+                    match = RegexGuard.tryMatch(pattern, line);
+                } catch (RegexTimeoutException e) {
+                    // a pattern this slow is not a good candidate anyway, and the timeouts are not the user's concern
+                    continue;
+                }
+                if (match != null) {
+                    return countFilledValues(match);
+                }
+            }
+            return 0;
+        }
+
+        private int countFilledValues(RegexMatch match) {
+            int count = 0;
+            for (String groupName : groupNames) {
+                try {
+                    String value = match.group(groupName);
+                    if (value != null && !value.isEmpty()) {
+                        count++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // the group is missing in this pattern, the column stays empty
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.hildan.fxlog.columns;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javafx.application.Platform;
+
+import org.hildan.fxlog.io.ReverseLineReader;
+import org.hildan.fxlog.regex.RegexGuard;
+import org.hildan.fxlog.regex.RegexTimeoutException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Measures how a columnizer performs on a sample of real logs, to find slow patterns before they freeze the app on a
+ * big file.
+ * <p>
+ * The patterns are tried on each line in order, exactly like {@link Columnizer#parseColumnValues(String)} does, and the
+ * time spent by each pattern on each line it is tried on is recorded, whether it matches or not. The failed attempts
+ * matter as much as the matches: a pattern prone to catastrophic backtracking is usually slow when it fails. The
+ * patterns are applied through {@link RegexGuard} like in the app, so such a pattern can't stall the test.
+ * <p>
+ * The measures run in the background. Starting a new test cancels the previous one.
+ */
+public class ColumnizerTestBench {
+
+    /**
+     * The number of lines taken from the end of the file to test the columnizer.
+     */
+    public static final int SAMPLE_SIZE = 10000;
+
+    /**
+     * The max number of lines matched by no pattern that are kept in the results.
+     */
+    public static final int MAX_UNMATCHED_LINES = 1000;
+
+    private static final int NB_WARMUP_LINES = 1000;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Columnizer Test Bench");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long generation;
+
+    /**
+     * Starts testing the given columnizer on the last lines of the given file, in the background. Any test still in
+     * progress is cancelled. Must be called on the UI thread.
+     *
+     * @param columnizer
+     *         the columnizer to test
+     * @param file
+     *         the file to take the sample from
+     * @param charset
+     *         the charset of the file
+     * @param onSuccess
+     *         called on the UI thread with the results, unless the test is cancelled
+     * @param onError
+     *         called on the UI thread if the sample can't be read
+     */
+    public void test(@NotNull Columnizer columnizer, @NotNull Path file, @NotNull Charset charset,
+                     @NotNull Consumer<Results> onSuccess, @NotNull Consumer<IOException> onError) {
+        long currentGeneration = ++generation;
+        // the patterns may only be read on the UI thread
+        List<Pattern> patterns = new ArrayList<>(columnizer.getPatterns());
+        executor.execute(() -> {
+            try {
+                List<String> sample = readSample(file, charset);
+                Results results = measure(patterns, sample, currentGeneration);
+                if (results != null) {
+                    Platform.runLater(() -> {
+                        if (generation == currentGeneration) {
+                            onSuccess.accept(results);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                Platform.runLater(() -> onError.accept(e));
+            }
+        });
+    }
+
+    /**
+     * Cancels the test in progress, if any. Must be called on the UI thread.
+     */
+    public void cancel() {
+        generation++;
+    }
+
+    private static List<String> readSample(Path file, Charset charset) throws IOException {
+        List<String> sample = new ArrayList<>(SAMPLE_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ReverseLineReader reader = new ReverseLineReader(channel, channel.size(), charset);
+            while (sample.size() < SAMPLE_SIZE && reader.hasPreviousLine()) {
+                sample.add(reader.readPreviousLine());
+            }
+        }
+        Collections.reverse(sample);
+        return sample;
+    }
+
+    private Results measure(List<Pattern> patterns, List<String> sample, long expectedGeneration) {
+        // lets the JIT compile the matching code, so that the first lines are not slower than the others
+        List<PatternStats> warmupStats = createStats(patterns, NB_WARMUP_LINES);
+        for (String line : sample.subList(0, Math.min(NB_WARMUP_LINES, sample.size()))) {
+            matchLine(line, warmupStats);
+        }
+        List<PatternStats> stats = createStats(patterns, sample.size());
+        List<String> unmatchedLines = new ArrayList<>();
+        int nbUnmatchedLines = 0;
+        for (String line : sample) {
+            if (generation != expectedGeneration) {
+                return null;
+            }
+            if (!matchLine(line, stats)) {
+                nbUnmatchedLines++;
+                if (unmatchedLines.size() < MAX_UNMATCHED_LINES) {
+                    unmatchedLines.add(line);
+                }
+            }
+        }
+        return new Results(sample.size(), stats, nbUnmatchedLines, unmatchedLines);
+    }
+
+    private static List<PatternStats> createStats(List<Pattern> patterns, int nbLines) {
+        List<PatternStats> stats = new ArrayList<>(patterns.size());
+        patterns.forEach(p -> stats.add(new PatternStats(p, nbLines)));
+        return stats;
+    }
+
+    private static boolean matchLine(String line, List<PatternStats> stats) {
+        for (PatternStats patternStats : stats) {
+            long start = System.nanoTime();
+            boolean matches;
+            try {
+                matches = RegexGuard.tryMatch(patternStats.getPattern(), line) != null;
+            } catch (RegexTimeoutException e) {
+                patternStats.timeoutCount++;
+                matches = false;
+            }
+            patternStats.addAttempt(System.nanoTime() - start, matches);
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The measures of a single pattern of the tested columnizer.
+     */
+    public static class PatternStats {
+
+        private final Pattern pattern;
+
+        private final long[] durations;
+
+        private int nbAttempts;
+
+        private int hitCount;
+
+        private int timeoutCount;
+
+        private PatternStats(Pattern pattern, int maxAttempts) {
+            this.pattern = pattern;
+            this.durations = new long[maxAttempts];
+        }
+
+        private void addAttempt(long durationNanos, boolean matched) {
+            durations[nbAttempts++] = durationNanos;
+            if (matched) {
+                hitCount++;
+            }
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * @return the number of lines this pattern was tried on, which excludes the lines matched by the previous
+         * patterns
+         */
+        public int getNbAttempts() {
+            return nbAttempts;
+        }
+
+        /**
+         * @return the number of lines matched by this pattern
+         */
+        public int getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return the number of lines this pattern took too long to match, which are considered not matched
+         */
+        public int getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        /**
+         * @return the average time spent by this pattern per line it was tried on, in nanoseconds
+         */
+        public long getAverageNanos() {
+            if (nbAttempts == 0) {
+                return 0;
+            }
+            long total = 0;
+            for (int i = 0; i < nbAttempts; i++) {
+                total += durations[i];
+            }
+            return total / nbAttempts;
+        }
+
+        /**
+         * @return the time under which this pattern processed 99% of the lines it was tried on, in nanoseconds
+         */
+        public long getP99Nanos() {
+            if (nbAttempts == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(durations, nbAttempts);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(nbAttempts * 0.99) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+
+    /**
+     * The results of a test of a columnizer.
+     */
+    public static class Results {
+
+        private final int nbLines;
+
+        private final List<PatternStats> patternStats;
+
+        private final int nbUnmatchedLines;
+
+        private final List<String> unmatchedLines;
+
+        private Results(int nbLines, List<PatternStats> patternStats, int nbUnmatchedLines,
+                        List<String> unmatchedLines) {
+            this.nbLines = nbLines;
+            this.patternStats = patternStats;
+            this.nbUnmatchedLines = nbUnmatchedLines;
+            this.unmatchedLines = unmatchedLines;
+        }
+
+        /**
+         * @return the number of lines of the sample
+         */
+        public int getNbLines() {
+            return nbLines;
+        }
+
+        /**
+         * @return the measures of each pattern, in the order of the columnizer's patterns
+         */
+        public List<PatternStats> getPatternStats() {
+            return patternStats;
+        }
+
+        /**
+         * @return the number of lines matched by no pattern, which are put as a whole in the first column
+         */
+        public int getNbUnmatchedLines() {
+            return nbUnmatchedLines;
+        }
+
+        /**
+         * @return the first lines matched by no pattern, at most {@link #MAX_UNMATCHED_LINES}
+         */
+        public List<String> getUnmatchedLines() {
+            return unmatchedLines;
+        }
+    }
+}
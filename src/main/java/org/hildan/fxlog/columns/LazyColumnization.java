@@ -0,0 +1,144 @@
+package org.hildan.fxlog.columns;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.data.OffHeapLineStore;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Columnizes logs on demand, when their column values are first accessed, instead of at reading time.
+ * <p>
+ * The parsed column values are kept in a bounded LRU cache keyed by log entry, so that the rows that are displayed or
+ * filtered by column are not parsed over and over, while the rows that are never accessed are never parsed.
+ */
+public class LazyColumnization {
+
+    private final Map<LogEntry, Map<String, String>> cache;
+
+    private volatile Columnizer columnizer;
+
+    /**
+     * Creates a new LazyColumnization using the given columnizer.
+     *
+     * @param columnizer
+     *         the columnizer to use to parse the logs
+     * @param cacheSize
+     *         the maximum number of logs for which the parsed column values are kept
+     */
+    public LazyColumnization(@NotNull Columnizer columnizer, int cacheSize) {
+        this.columnizer = columnizer;
+        this.cache = new LinkedHashMap<LogEntry, Map<String, String>>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LogEntry, Map<String, String>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a new log entry for the given raw line. The line is not parsed until its column values are accessed.
+     *
+     * @param rawLine
+     *         the raw log line
+     * @return a new lazily columnized log entry
+     */
+    @NotNull
+    public LogEntry createEntry(@NotNull String rawLine) {
+        return new LogEntry(rawLine, this);
+    }
+
+    /**
+     * Creates a new log entry for the given raw line, which is stored in the given store. The returned entry only
+     * references its line in the store, and the line is not parsed until its column values are accessed.
+     *
+     * @param lineStore
+     *         the store to keep the raw line in
+     * @param rawLine
+     *         the raw log line
+     * @return a new lazily columnized log entry
+     */
+    @NotNull
+    public LogEntry createEntry(@NotNull OffHeapLineStore lineStore, @NotNull String rawLine) {
+        return new LogEntry(lineStore, lineStore.append(rawLine), this);
+    }
+
+    /**
+     * Gets the column values of the given log, parsing it if they are not in the cache.
+     *
+     * @param log
+     *         the log to get the column values of
+     * @return the values for each column, indexed by capturing group name
+     */
+    @NotNull
+    public Map<String, String> getColumnValues(@NotNull LogEntry log) {
+        synchronized (cache) {
+            Map<String, String> values = cache.get(log);
+            if (values != null) {
+                return values;
+            }
+        }
+        Columnizer currentColumnizer = columnizer;
+        Map<String, String> values = currentColumnizer.parseColumnValues(log.rawLine());
+        synchronized (cache) {
+            // the columnizer may have changed while parsing, in which case we don't pollute the cache
+            if (currentColumnizer == columnizer) {
+                cache.put(log, values);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Parses the values of the typed columns of the given log.
+     *
+     * @param log
+     *         the log to parse
+     * @return the parsed values of the typed columns
+     */
+    @NotNull
+    public TypedValues getTypedValues(@NotNull LogEntry log) {
+        Columnizer currentColumnizer = columnizer;
+        return currentColumnizer.parseTypedValues(getColumnValues(log));
+    }
+
+    /**
+     * Tells whether the given typed values were parsed with the current columnizer and its current column
+     * definitions.
+     *
+     * @param typedValues
+     *         some values returned by {@link #getTypedValues(LogEntry)}
+     * @return true if the given values are up to date
+     */
+    public boolean isCurrent(@NotNull TypedValues typedValues) {
+        return columnizer.isCurrent(typedValues);
+    }
+
+    public Columnizer getColumnizer() {
+        return columnizer;
+    }
+
+    /**
+     * Changes the columnizer used to parse the logs. This invalidates all the cached column values, but doesn't require
+     * to re-read anything.
+     *
+     * @param columnizer
+     *         the new columnizer to use
+     */
+    public void setColumnizer(@NotNull Columnizer columnizer) {
+        synchronized (cache) {
+            this.columnizer = columnizer;
+            cache.clear();
+        }
+    }
+
+    /**
+     * Clears all the cached column values.
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
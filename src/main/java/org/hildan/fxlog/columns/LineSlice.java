@@ -0,0 +1,49 @@
+package org.hildan.fxlog.columns;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A column value seen as a part of the raw log line, without copying its characters.
+ */
+class LineSlice implements CharSequence {
+
+    private final String line;
+
+    private final int start;
+
+    private final int end;
+
+    LineSlice(@NotNull String line, int start, int end) {
+        this.line = line;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length());
+        }
+        return line.charAt(start + index);
+    }
+
+    @NotNull
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length());
+        }
+        return new LineSlice(line, this.start + start, this.start + end);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return line.substring(start, end);
+    }
+}
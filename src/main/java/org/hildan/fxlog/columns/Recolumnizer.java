@@ -0,0 +1,97 @@
+package org.hildan.fxlog.columns;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import org.hildan.fxlog.data.LogEntry;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Re-columnizes the logs already in memory with a different columnizer, using their raw lines instead of reading the
+ * file again.
+ * <p>
+ * The logs are parsed in parallel chunks in the background, and the result is swapped into the list in a single change
+ * on the UI thread. The list may keep changing in the meantime (tailing goes on), as long as the logs that are added
+ * after the start of the re-columnization are already parsed with the new columnizer.
+ */
+public class Recolumnizer {
+
+    private static final int CHUNK_SIZE = 10000;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Recolumnizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long generation;
+
+    /**
+     * Starts the re-columnization of the given logs in the background. Any re-columnization still in progress is
+     * cancelled. Must be called on the UI thread.
+     *
+     * @param logs
+     *         the logs to re-columnize, they are replaced in place once they are all parsed
+     * @param columnizer
+     *         the new columnizer to use
+     */
+    public void recolumnize(@NotNull ObservableList<LogEntry> logs, @NotNull Columnizer columnizer) {
+        long currentGeneration = ++generation;
+        List<LogEntry> snapshot = new ArrayList<>(logs);
+        executor.execute(() -> {
+            LogEntry[] parsedLogs = parseInChunks(snapshot, columnizer, currentGeneration);
+            if (parsedLogs != null) {
+                Platform.runLater(() -> swap(logs, snapshot, parsedLogs, currentGeneration));
+            }
+        });
+    }
+
+    /**
+     * Cancels the re-columnization in progress, if any. Must be called on the UI thread.
+     */
+    public void cancel() {
+        generation++;
+    }
+
+    private LogEntry[] parseInChunks(List<LogEntry> snapshot, Columnizer columnizer, long expectedGeneration) {
+        LogEntry[] parsedLogs = new LogEntry[snapshot.size()];
+        int nbChunks = (snapshot.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, nbChunks).parallel().forEach(chunk -> {
+            if (generation != expectedGeneration) {
+                return;
+            }
+            int end = Math.min(snapshot.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                LogEntry log = snapshot.get(i);
+                parsedLogs[i] = columnizer.parse(log.rawLine());
+                parsedLogs[i].setSource(log.getSource());
+            }
+        });
+        return generation == expectedGeneration ? parsedLogs : null;
+    }
+
+    private void swap(ObservableList<LogEntry> logs, List<LogEntry> snapshot, LogEntry[] parsedLogs,
+                      long expectedGeneration) {
+        if (generation != expectedGeneration) {
+            return;
+        }
+        Map<LogEntry, LogEntry> newVersions = new IdentityHashMap<>(snapshot.size());
+        for (int i = 0; i < parsedLogs.length; i++) {
+            newVersions.put(snapshot.get(i), parsedLogs[i]);
+        }
+        // some logs may have been removed or added in the meantime, the new ones are already properly columnized
+        List<LogEntry> result = new ArrayList<>(logs.size());
+        for (LogEntry log : logs) {
+            result.add(newVersions.getOrDefault(log, log));
+        }
+        logs.setAll(result);
+    }
+}
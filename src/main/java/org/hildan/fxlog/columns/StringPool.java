@@ -0,0 +1,247 @@
+package org.hildan.fxlog.columns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded cache of column values, so that the logs share a single instance of the values that are repeated, such as
+ * class names, thread names or session IDs, instead of each holding its own copy.
+ * <p>
+ * The cache is a fixed-size table indexed by hash, where a new value simply replaces the value stored in its slot.
+ * This keeps lookups cheap and lock-free, while the frequently repeated values tend to stay in the table. The values
+ * are looked up directly in the raw log lines, and a missing value is not extracted the first time: only its hash is
+ * remembered in its slot. The value is extracted and pooled when the same hash misses again in that slot, that is
+ * when the value is likely repeated, so that a value seen only once is never copied. The values that are extracted
+ * anyway, when a log is read, are pooled too.
+ * <p>
+ * The hit rate of each column is measured. A column whose values are rarely repeated, such as a message column, stops
+ * being pooled after a while, so that its values don't evict the useful ones, and are not hashed for nothing.
+ */
+public class StringPool {
+
+    /**
+     * The values longer than this are not pooled, they are hardly ever repeated.
+     */
+    public static final int MAX_POOLED_LENGTH = 256;
+
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /**
+     * The number of lookups in a column before deciding whether it is worth pooling.
+     */
+    private static final long MIN_LOOKUPS = 10000;
+
+    private static final double MIN_HIT_RATE = 0.05;
+
+    private static final StringPool DEFAULT_POOL = new StringPool(DEFAULT_CAPACITY);
+
+    private final AtomicReferenceArray<String> table;
+
+    /**
+     * The hash of the last value that missed in each slot of the table.
+     */
+    private final AtomicIntegerArray missedHashes;
+
+    private final int mask;
+
+    private final Map<String, Statistics> statisticsByColumn = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param capacity
+     *         the number of values the pool can hold, which must be a power of 2
+     */
+    public StringPool(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of 2, got " + capacity);
+        }
+        this.table = new AtomicReferenceArray<>(capacity);
+        this.missedHashes = new AtomicIntegerArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the pool shared by all the columnizers
+     */
+    @NotNull
+    public static StringPool getDefault() {
+        return DEFAULT_POOL;
+    }
+
+    /**
+     * Gets the statistics of the given column, which are shared by all the columns with the same capturing group name.
+     *
+     * @param groupName
+     *         the capturing group name of a column
+     * @return the statistics of the given column
+     */
+    @NotNull
+    public Statistics getStatistics(@NotNull String groupName) {
+        return statisticsByColumn.computeIfAbsent(groupName, Statistics::new);
+    }
+
+    /**
+     * @return the statistics of all the columns that were pooled so far
+     */
+    @NotNull
+    public List<Statistics> getAllStatistics() {
+        return new ArrayList<>(statisticsByColumn.values());
+    }
+
+    /**
+     * Returns the pooled instance equal to the given part of a line, if any. The part of the line is only extracted
+     * and pooled if it already missed recently, so that the next equal values can share it.
+     *
+     * @param line
+     *         the raw log line containing the value
+     * @param start
+     *         the index of the first character of the value in the line
+     * @param end
+     *         the index after the last character of the value in the line
+     * @param statistics
+     *         the statistics of the column of the value
+     * @return a string equal to the given part of the line, or null if there is none in the pool and it didn't miss
+     * recently, or if the values of this column are not pooled
+     */
+    @Nullable
+    public String intern(@NotNull String line, int start, int end, @NotNull Statistics statistics) {
+        int length = end - start;
+        if (length > MAX_POOLED_LENGTH || !statistics.isPooled()) {
+            return null;
+        }
+        int hash = hash(line, start, end);
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String pooledValue = table.get(slot);
+        boolean hit = pooledValue != null && pooledValue.length() == length
+                && line.regionMatches(start, pooledValue, 0, length);
+        if (hit) {
+            statistics.recordHit();
+            return pooledValue;
+        }
+        statistics.recordMiss();
+        if (missedHashes.getAndSet(slot, hash) != hash) {
+            return null;
+        }
+        // second miss in a row for this value, it is repeated and worth sharing
+        String value = line.substring(start, end);
+        table.lazySet(slot, value);
+        return value;
+    }
+
+    /**
+     * Pools the given value, which was extracted from a line for another reason, so that the next equal values can
+     * share it. It replaces the value stored in its slot, if any.
+     *
+     * @param value
+     *         the value to pool
+     * @param statistics
+     *         the statistics of the column of the value
+     */
+    public void offer(@NotNull String value, @NotNull Statistics statistics) {
+        if (value.length() > MAX_POOLED_LENGTH || !statistics.isPooled()) {
+            return;
+        }
+        int hash = value.hashCode();
+        table.lazySet((hash ^ (hash >>> 16)) & mask, value);
+    }
+
+    /**
+     * Computes the hash code that {@link String#hashCode()} would give for the given part of a line, without
+     * extracting it.
+     */
+    static int hash(@NotNull String line, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * The hit rate of the pool on the values of a column.
+     */
+    public static class Statistics {
+
+        /**
+         * The memory saved by a shared value when its log no longer needs the offsets of its values in the line.
+         */
+        private static final int OFFSETS_SIZE = 2 * Integer.BYTES;
+
+        private final String columnName;
+
+        private final AtomicLong hits = new AtomicLong();
+
+        private final AtomicLong lookups = new AtomicLong();
+
+        private final AtomicLong savedBytes = new AtomicLong();
+
+        private volatile boolean pooled = true;
+
+        Statistics(@NotNull String columnName) {
+            this.columnName = columnName;
+        }
+
+        void recordHit() {
+            hits.incrementAndGet();
+            lookups.incrementAndGet();
+        }
+
+        /**
+         * Records that a shared value of this column allowed its log to drop the offsets of its values in the line.
+         */
+        void recordDroppedOffsets() {
+            savedBytes.addAndGet(OFFSETS_SIZE);
+        }
+
+        void recordMiss() {
+            long nbLookups = lookups.incrementAndGet();
+            if (nbLookups >= MIN_LOOKUPS && getHitRate() < MIN_HIT_RATE) {
+                pooled = false;
+            }
+        }
+
+        @NotNull
+        public String getColumnName() {
+            return columnName;
+        }
+
+        public long getLookups() {
+            return lookups.get();
+        }
+
+        /**
+         * @return the proportion of the values of this column that were already in the pool
+         */
+        public double getHitRate() {
+            long nbLookups = lookups.get();
+            return nbLookups == 0 ? 0 : (double) hits.get() / nbLookups;
+        }
+
+        /**
+         * Gets an estimation of the memory saved by sharing the values of this column. A shared value only saves
+         * memory when none of the values of its log is kept as offsets in the line, because the offsets of all the
+         * values are then dropped.
+         *
+         * @return an estimation of the memory saved by sharing the values of this column, in bytes
+         */
+        public long getSavedBytes() {
+            return savedBytes.get();
+        }
+
+        /**
+         * @return false if the values of this column are not repeated enough to be worth pooling
+         */
+        public boolean isPooled() {
+            return pooled;
+        }
+    }
+}
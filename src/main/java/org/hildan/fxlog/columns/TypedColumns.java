@@ -0,0 +1,119 @@
+package org.hildan.fxlog.columns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The typed columns of a columnizer at some point in time, and the parsers of their values.
+ * <p>
+ * The column definitions can be edited while logs are being read, so a snapshot is taken, and replaced as soon as it
+ * is not {@link #isUpToDate(List) up to date} anymore.
+ */
+class TypedColumns {
+
+    private final Columnizer columnizer;
+
+    private final List<ColumnDefinition> definitions;
+
+    private final List<ColumnType> types;
+
+    private final List<String> formats;
+
+    private final List<String> groupNames;
+
+    private final List<ToLongFunction<String>> parsers;
+
+    private final TypedValues noValues;
+
+    /**
+     * Creates a snapshot of the typed columns among the given definitions.
+     *
+     * @param columnizer
+     *         the columnizer the definitions belong to
+     * @param columnDefinitions
+     *         all the column definitions of the columnizer
+     */
+    TypedColumns(@NotNull Columnizer columnizer, @NotNull List<ColumnDefinition> columnDefinitions) {
+        this.columnizer = columnizer;
+        this.definitions = new ArrayList<>(columnDefinitions);
+        this.types = new ArrayList<>(columnDefinitions.size());
+        this.formats = new ArrayList<>(columnDefinitions.size());
+        this.groupNames = new ArrayList<>();
+        this.parsers = new ArrayList<>();
+        for (ColumnDefinition definition : columnDefinitions) {
+            ColumnType type = definition.getType();
+            String format = definition.getFormat();
+            types.add(type);
+            formats.add(format);
+            if (type != ColumnType.TEXT) {
+                groupNames.add(definition.getCapturingGroupName());
+                parsers.add(type.createParser(format));
+            }
+        }
+        this.noValues = new TypedValues(this, new long[0]);
+    }
+
+    /**
+     * @return the columnizer this snapshot was taken from
+     */
+    @NotNull
+    Columnizer getColumnizer() {
+        return columnizer;
+    }
+
+    /**
+     * Tells whether this snapshot still corresponds to the given definitions.
+     *
+     * @param columnDefinitions
+     *         the current column definitions of the columnizer
+     * @return true if the definitions, their types and their formats didn't change since this snapshot was taken
+     */
+    boolean isUpToDate(@NotNull List<ColumnDefinition> columnDefinitions) {
+        if (columnDefinitions.size() != definitions.size()) {
+            return false;
+        }
+        for (int i = 0; i < definitions.size(); i++) {
+            ColumnDefinition definition = columnDefinitions.get(i);
+            if (definition != definitions.get(i) || definition.getType() != types.get(i)
+                    || !Objects.equals(definition.getFormat(), formats.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the values of the typed columns.
+     *
+     * @param columnValues
+     *         the values of all the columns, indexed by capturing group name
+     * @return the parsed values of the typed columns
+     */
+    @NotNull
+    TypedValues parse(@NotNull Map<String, String> columnValues) {
+        if (parsers.isEmpty()) {
+            // shared to save memory, as most columnizers have no typed columns
+            return noValues;
+        }
+        long[] values = new long[parsers.size()];
+        for (int i = 0; i < values.length; i++) {
+            String value = columnValues.get(groupNames.get(i));
+            values[i] = value == null ? ColumnType.MISSING : parsers.get(i).applyAsLong(value);
+        }
+        return new TypedValues(this, values);
+    }
+
+    /**
+     * @param groupName
+     *         the capturing group name of a column
+     * @return the index of the given column among the typed columns, or -1 if it is not typed
+     */
+    int indexOf(@NotNull String groupName) {
+        return groupNames.indexOf(groupName);
+    }
+}
@@ -0,0 +1,52 @@
+package org.hildan.fxlog.columns;
+
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The parsed values of the typed columns of a log, stored as primitive longs so that they can be compared without
+ * parsing the column values again.
+ */
+public class TypedValues {
+
+    private final TypedColumns columns;
+
+    private final long[] values;
+
+    TypedValues(@NotNull TypedColumns columns, @NotNull long[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    TypedColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns these values if they were parsed with the current column definitions of their columnizer, or parses
+     * them again otherwise, as the types or formats of the columns may have been edited since.
+     *
+     * @param columnValues
+     *         the values of all the columns of the log these values belong to
+     * @return up to date typed values for the given column values
+     */
+    @NotNull
+    public TypedValues refresh(@NotNull Map<String, String> columnValues) {
+        Columnizer columnizer = columns.getColumnizer();
+        return columnizer.isCurrent(this) ? this : columnizer.parseTypedValues(columnValues);
+    }
+
+    /**
+     * Gets the parsed value of the given column.
+     *
+     * @param groupName
+     *         the capturing group name of the column
+     * @return the parsed value of the given column, or {@link ColumnType#MISSING} if the column is not typed or its
+     * value could not be parsed
+     */
+    public long get(@NotNull String groupName) {
+        int index = columns.indexOf(groupName);
+        return index < 0 ? ColumnType.MISSING : values[index];
+    }
+}
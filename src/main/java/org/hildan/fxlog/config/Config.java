@@ -1,6 +1,7 @@
 package org.hildan.fxlog.config;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -23,6 +24,16 @@ public class Config {
         private static final Config INSTANCE = ConfigLoader.getUserConfig();
     }
 
+    /**
+     * Returns the directory of the user's config, next to which FX Log keeps its other files, such as caches.
+     *
+     * @return the directory of the user's config
+     */
+    @NotNull
+    public static Path getUserDirectory() {
+        return ConfigLoader.getUserConfigDirectory();
+    }
+
     /**
      * Returns the current configuration.
      *
@@ -37,7 +48,7 @@ public class Config {
      * The version of the format of the config. This needs to be increased each time the serialization format of this
      * class is changed.
      */
-    static final int FORMAT_VERSION = 5;
+    static final int FORMAT_VERSION = 6;
 
     private final Integer version;
 
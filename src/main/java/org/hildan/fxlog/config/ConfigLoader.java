@@ -31,6 +31,15 @@ class ConfigLoader {
     private static final String USER_CONFIG_PATH =
             Paths.get(System.getProperty("user.home") + "/.fxlog/config.json").toAbsolutePath().toString();
 
+    /**
+     * Gets the directory containing the user's config, where the other files of FX Log are kept as well.
+     *
+     * @return the directory of the user's config
+     */
+    static Path getUserConfigDirectory() {
+        return Paths.get(USER_CONFIG_PATH).getParent();
+    }
+
     private static final class ConfigVersion {
         @SuppressWarnings("unused")
         private int version;
@@ -9,6 +9,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
 import org.hildan.fxlog.coloring.Style;
+import org.hildan.fxlog.tailing.OverloadPolicy;
 import org.hildan.fxlog.view.scrollbarmarks.Alignment;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,6 +33,30 @@ public class Preferences {
 
     private final ObjectProperty<Integer> logBufferSize;
 
+    private final Property<Integer> maxPendingLogBatches;
+
+    private final Property<OverloadPolicy> overloadPolicy;
+
+    private final BooleanProperty lazyColumnization;
+
+    private final Property<Integer> columnizationCacheSize;
+
+    private final BooleanProperty offHeapLineStorage;
+
+    private final BooleanProperty fileBackedMode;
+
+    private final Property<Integer> fileBackedModeThresholdInMB;
+
+    private final BooleanProperty tailFirstLoading;
+
+    private final BooleanProperty backfillHistory;
+
+    private final BooleanProperty includeRotatedFiles;
+
+    private final Property<Integer> socketReceiverPort;
+
+    private final Property<String> logsCharset;
+
     private final BooleanProperty wrapLogsText;
 
     private final Property<Font> logsFont;
@@ -52,6 +77,18 @@ public class Preferences {
         this.skipEmptyLogs = new SimpleBooleanProperty(true);
         this.tailingDelayInMillis = new SimpleObjectProperty<>(100);
         this.logBufferSize = new SimpleObjectProperty<>(1000);
+        this.maxPendingLogBatches = new SimpleObjectProperty<>(50);
+        this.overloadPolicy = new SimpleObjectProperty<>(OverloadPolicy.BLOCK);
+        this.lazyColumnization = new SimpleBooleanProperty(false);
+        this.columnizationCacheSize = new SimpleObjectProperty<>(10000);
+        this.offHeapLineStorage = new SimpleBooleanProperty(false);
+        this.fileBackedMode = new SimpleBooleanProperty(true);
+        this.fileBackedModeThresholdInMB = new SimpleObjectProperty<>(1024);
+        this.tailFirstLoading = new SimpleBooleanProperty(false);
+        this.backfillHistory = new SimpleBooleanProperty(true);
+        this.includeRotatedFiles = new SimpleBooleanProperty(false);
+        this.socketReceiverPort = new SimpleObjectProperty<>(4560);
+        this.logsCharset = new SimpleObjectProperty<>("UTF-8");
         this.wrapLogsText = new SimpleBooleanProperty(false);
         this.logsFont = new SimpleObjectProperty<>(Font.getDefault());
         this.searchHighlightStyle = new SimpleObjectProperty<>(Style.HIGHLIGHT_SEARCH);
@@ -146,6 +183,150 @@ public class Preferences {
         this.logBufferSize.set(logBufferSize);
     }
 
+    public Integer getMaxPendingLogBatches() {
+        return maxPendingLogBatches.getValue();
+    }
+
+    public Property<Integer> maxPendingLogBatchesProperty() {
+        return maxPendingLogBatches;
+    }
+
+    public void setMaxPendingLogBatches(Integer maxPendingLogBatches) {
+        this.maxPendingLogBatches.setValue(maxPendingLogBatches);
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy.getValue();
+    }
+
+    public Property<OverloadPolicy> overloadPolicyProperty() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy.setValue(overloadPolicy);
+    }
+
+    public boolean isLazyColumnization() {
+        return lazyColumnization.get();
+    }
+
+    public BooleanProperty lazyColumnizationProperty() {
+        return lazyColumnization;
+    }
+
+    public void setLazyColumnization(boolean lazyColumnization) {
+        this.lazyColumnization.set(lazyColumnization);
+    }
+
+    public Integer getColumnizationCacheSize() {
+        return columnizationCacheSize.getValue();
+    }
+
+    public Property<Integer> columnizationCacheSizeProperty() {
+        return columnizationCacheSize;
+    }
+
+    public void setColumnizationCacheSize(Integer columnizationCacheSize) {
+        this.columnizationCacheSize.setValue(columnizationCacheSize);
+    }
+
+    public boolean isOffHeapLineStorage() {
+        return offHeapLineStorage.get();
+    }
+
+    public BooleanProperty offHeapLineStorageProperty() {
+        return offHeapLineStorage;
+    }
+
+    public void setOffHeapLineStorage(boolean offHeapLineStorage) {
+        this.offHeapLineStorage.set(offHeapLineStorage);
+    }
+
+    public boolean isFileBackedMode() {
+        return fileBackedMode.get();
+    }
+
+    public BooleanProperty fileBackedModeProperty() {
+        return fileBackedMode;
+    }
+
+    public void setFileBackedMode(boolean fileBackedMode) {
+        this.fileBackedMode.set(fileBackedMode);
+    }
+
+    public Integer getFileBackedModeThresholdInMB() {
+        return fileBackedModeThresholdInMB.getValue();
+    }
+
+    public Property<Integer> fileBackedModeThresholdInMBProperty() {
+        return fileBackedModeThresholdInMB;
+    }
+
+    public void setFileBackedModeThresholdInMB(Integer fileBackedModeThresholdInMB) {
+        this.fileBackedModeThresholdInMB.setValue(fileBackedModeThresholdInMB);
+    }
+
+    public boolean isIncludeRotatedFiles() {
+        return includeRotatedFiles.get();
+    }
+
+    public BooleanProperty includeRotatedFilesProperty() {
+        return includeRotatedFiles;
+    }
+
+    public void setIncludeRotatedFiles(boolean includeRotatedFiles) {
+        this.includeRotatedFiles.set(includeRotatedFiles);
+    }
+
+    public Integer getSocketReceiverPort() {
+        return socketReceiverPort.getValue();
+    }
+
+    public Property<Integer> socketReceiverPortProperty() {
+        return socketReceiverPort;
+    }
+
+    public void setSocketReceiverPort(Integer socketReceiverPort) {
+        this.socketReceiverPort.setValue(socketReceiverPort);
+    }
+
+    public boolean isTailFirstLoading() {
+        return tailFirstLoading.get();
+    }
+
+    public BooleanProperty tailFirstLoadingProperty() {
+        return tailFirstLoading;
+    }
+
+    public void setTailFirstLoading(boolean tailFirstLoading) {
+        this.tailFirstLoading.set(tailFirstLoading);
+    }
+
+    public boolean isBackfillHistory() {
+        return backfillHistory.get();
+    }
+
+    public BooleanProperty backfillHistoryProperty() {
+        return backfillHistory;
+    }
+
+    public void setBackfillHistory(boolean backfillHistory) {
+        this.backfillHistory.set(backfillHistory);
+    }
+
+    public String getLogsCharset() {
+        return logsCharset.getValue();
+    }
+
+    public Property<String> logsCharsetProperty() {
+        return logsCharset;
+    }
+
+    public void setLogsCharset(String logsCharset) {
+        this.logsCharset.setValue(logsCharset);
+    }
+
     public boolean getWrapLogsText() {
         return wrapLogsText.get();
     }
@@ -4,13 +4,17 @@ import java.nio.file.Paths;
 
 import org.hildan.fxlog.themes.Theme;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
 
 /**
  * Holds the saved state for application restart. This includes the recent files, the last selected columnizer,
@@ -21,19 +25,30 @@ public class State {
 
     private static final int MAX_RECENT_FILES = 10;
 
+    private static final int MAX_REMEMBERED_COLUMNIZERS = 100;
+
     private final ObservableList<String> recentFiles;
 
+    private final ObservableMap<String, String> columnizerNamesByFile;
+
     private final IntegerProperty selectedColumnizerIndex;
 
     private final IntegerProperty selectedColorizerIndex;
 
     private final Property<Theme> currentTheme;
 
+    /**
+     * The path of the file currently opened in the main window. It is only shared between the windows, not saved.
+     */
+    private final transient StringProperty openedFile;
+
     State() {
         this.recentFiles = FXCollections.observableArrayList();
+        this.columnizerNamesByFile = FXCollections.observableHashMap();
         this.selectedColumnizerIndex = new SimpleIntegerProperty(0);
         this.selectedColorizerIndex = new SimpleIntegerProperty(0);
         this.currentTheme = new SimpleObjectProperty<>(Theme.LIGHT);
+        this.openedFile = new SimpleStringProperty();
     }
 
     /**
@@ -74,6 +89,36 @@ public class State {
         return recentFiles;
     }
 
+    /**
+     * Remembers the columnizer used for the given file, to use it again next time the file is opened. Only a limited
+     * number of files are remembered, the recent files being kept first.
+     *
+     * @param filename
+     *         the path of the file
+     * @param columnizerName
+     *         the name of the columnizer used for the file
+     */
+    public void rememberColumnizer(@NotNull String filename, @NotNull String columnizerName) {
+        String absolutePath = Paths.get(filename).toAbsolutePath().toString();
+        columnizerNamesByFile.put(absolutePath, columnizerName);
+        if (columnizerNamesByFile.size() > MAX_REMEMBERED_COLUMNIZERS) {
+            columnizerNamesByFile.keySet().removeIf(p -> !p.equals(absolutePath) && !recentFiles.contains(p));
+        }
+    }
+
+    /**
+     * Returns the name of the columnizer last used for the given file.
+     *
+     * @param filename
+     *         the path of the file
+     * @return the name of the columnizer last used for the given file, or null if the file is not remembered
+     */
+    @Nullable
+    public String getRememberedColumnizer(@NotNull String filename) {
+        String absolutePath = Paths.get(filename).toAbsolutePath().toString();
+        return columnizerNamesByFile.get(absolutePath);
+    }
+
     public int getSelectedColumnizerIndex() {
         return selectedColumnizerIndex.get();
     }
@@ -109,4 +154,22 @@ public class State {
     public void setCurrentTheme(Theme currentTheme) {
         this.currentTheme.setValue(currentTheme);
     }
+
+    /**
+     * Returns the absolute path of the file currently opened in the main window.
+     *
+     * @return the path of the opened file, or null if no file is opened or the logs don't come from a regular file
+     */
+    @Nullable
+    public String getOpenedFile() {
+        return openedFile.get();
+    }
+
+    public StringProperty openedFileProperty() {
+        return openedFile;
+    }
+
+    public void setOpenedFile(@Nullable String openedFile) {
+        this.openedFile.set(openedFile);
+    }
 }
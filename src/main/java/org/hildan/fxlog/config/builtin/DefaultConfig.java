@@ -7,6 +7,7 @@ import org.hildan.fxlog.coloring.Colorizer;
 import org.hildan.fxlog.coloring.Style;
 import org.hildan.fxlog.coloring.StyleRule;
 import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
 import org.hildan.fxlog.columns.Columnizer;
 import org.hildan.fxlog.config.Config;
 import org.hildan.fxlog.filtering.Filter;
@@ -49,10 +50,17 @@ public class DefaultConfig {
         return config;
     }
 
+    private static ColumnDefinition typed(ColumnDefinition columnDefinition, ColumnType type) {
+        columnDefinition.setType(type);
+        return columnDefinition;
+    }
+
     private static Columnizer weblogicColumnizer() {
         ObservableList<ColumnDefinition> columns = FXCollections.observableArrayList();
-        columns.add(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE));
-        columns.add(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY));
+        columns.add(typed(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE),
+                ColumnType.TIMESTAMP));
+        columns.add(typed(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY),
+                ColumnType.LEVEL));
         columns.add(new ColumnDefinition("Subsystem", "subsystem", Description.Server.SUBSYSTEM, false));
         columns.add(new ColumnDefinition("Machine Name", "machine", Description.Server.MACHINE_NAME, false));
         columns.add(new ColumnDefinition("Server Name", "server", Description.Server.SERVER_NAME, false));
@@ -61,7 +69,8 @@ public class DefaultConfig {
         columns.add(new ColumnDefinition("Transaction ID", "transaction", Description.Server.TRANSACTION, false));
         columns.add(new ColumnDefinition("Diagnostic Context ID", "context", Description.Server.DIAGNOSTIC_CTX_ID,
                 false));
-        columns.add(new ColumnDefinition("Timestamp", "timestamp", Description.Server.TIMESTAMP, false));
+        columns.add(typed(new ColumnDefinition("Timestamp", "timestamp", Description.Server.TIMESTAMP, false),
+                ColumnType.TIMESTAMP));
         columns.add(new ColumnDefinition("Message ID", "msgId", Description.Server.MSG_ID, false));
         columns.add(new ColumnDefinition("Class", "class", Description.Server.CLASS, Width.CLASS));
         columns.add(new ColumnDefinition("Message", "msg", Description.Server.MSG, Width.MSG));
@@ -96,8 +105,10 @@ public class DefaultConfig {
 
     private static Columnizer weblogicEasyTraceColumnizer() {
         ObservableList<ColumnDefinition> columns = FXCollections.observableArrayList();
-        columns.add(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE));
-        columns.add(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY));
+        columns.add(typed(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE),
+                ColumnType.TIMESTAMP));
+        columns.add(typed(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY),
+                ColumnType.LEVEL));
         columns.add(new ColumnDefinition("Subsystem", "subsystem", Description.Server.SUBSYSTEM, false));
         columns.add(new ColumnDefinition("Machine Name", "machine", Description.Server.MACHINE_NAME, false));
         columns.add(new ColumnDefinition("Server Name", "server", Description.Server.SERVER_NAME, false));
@@ -129,9 +140,11 @@ public class DefaultConfig {
 
     private static Columnizer log4jColumnizer() {
         ObservableList<ColumnDefinition> columns = FXCollections.observableArrayList();
-        columns.add(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE));
+        columns.add(typed(new ColumnDefinition("Date/Time", "datetime", Description.Server.DATE, Width.DATE),
+                ColumnType.TIMESTAMP));
         columns.add(new ColumnDefinition("Thread ID", "thread", Description.Server.THREAD_ID));
-        columns.add(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY));
+        columns.add(typed(new ColumnDefinition("Severity", "severity", Description.Server.SEVERITY, Width.SEVERITY),
+                ColumnType.LEVEL));
         columns.add(new ColumnDefinition("Class", "class", Description.Server.CLASS, Width.CLASS));
         columns.add(new ColumnDefinition("Message", "msg", Description.Server.MSG, Width.MSG));
 
@@ -153,10 +166,13 @@ public class DefaultConfig {
         columnDefinitions.add(new ColumnDefinition("Client", "client", Description.Access.CLIENT, Width.DOMAIN));
         columnDefinitions.add(new ColumnDefinition("Indentity", "identd", Description.Access.IDENTD));
         columnDefinitions.add(new ColumnDefinition("User ID", "userid", Description.Access.USERID));
-        columnDefinitions.add(new ColumnDefinition("Date/Time", "datetime", Description.Access.DATE, Width.DATE));
+        columnDefinitions.add(typed(new ColumnDefinition("Date/Time", "datetime", Description.Access.DATE, Width.DATE),
+                ColumnType.TIMESTAMP));
         columnDefinitions.add(new ColumnDefinition("Request", "request", Description.Access.REQUEST, Width.MSG));
-        columnDefinitions.add(new ColumnDefinition("Rsp. Code", "rstatus", Description.Access.STATUS));
-        columnDefinitions.add(new ColumnDefinition("Rsp. Size (B)", "rsize", Description.Access.RSIZE));
+        columnDefinitions.add(typed(new ColumnDefinition("Rsp. Code", "rstatus", Description.Access.STATUS),
+                ColumnType.INTEGER));
+        columnDefinitions.add(typed(new ColumnDefinition("Rsp. Size (B)", "rsize", Description.Access.RSIZE),
+                ColumnType.INTEGER));
         columnDefinitions.add(new ColumnDefinition("Referer", "referer", Description.Access.REFERER));
         columnDefinitions.add(new ColumnDefinition("User-Agent", "useragent", Description.Access.USERAGENT));
 
@@ -176,8 +192,8 @@ public class DefaultConfig {
 
     private static Columnizer apacheErrorColumnizer() {
         ObservableList<ColumnDefinition> columnDefinitions = FXCollections.observableArrayList();
-        columnDefinitions.add(new ColumnDefinition("Date/Time", "datetime", Width.DATE));
-        columnDefinitions.add(new ColumnDefinition("Severity", "severity", Width.SEVERITY));
+        columnDefinitions.add(typed(new ColumnDefinition("Date/Time", "datetime", Width.DATE), ColumnType.TIMESTAMP));
+        columnDefinitions.add(typed(new ColumnDefinition("Severity", "severity", Width.SEVERITY), ColumnType.LEVEL));
         columnDefinitions.add(new ColumnDefinition("Client", "client", Width.DOMAIN));
         columnDefinitions.add(new ColumnDefinition("Message", "msg", Width.MSG));
 
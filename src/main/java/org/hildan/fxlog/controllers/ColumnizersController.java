@@ -1,27 +1,41 @@
 package org.hildan.fxlog.controllers;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.binding.ListBinding;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyLongWrapper;
 import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.control.cell.ChoiceBoxTableCell;
 import javafx.scene.control.cell.TextFieldTableCell;
 
 import org.hildan.fx.components.list.BaseEditableListPane;
 import org.hildan.fx.components.list.EditableListPane;
 import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
 import org.hildan.fxlog.columns.Columnizer;
+import org.hildan.fxlog.columns.ColumnizerTestBench;
+import org.hildan.fxlog.columns.ColumnizerTestBench.PatternStats;
+import org.hildan.fxlog.columns.ColumnizerTestBench.Results;
 import org.hildan.fxlog.config.Config;
+import org.hildan.fxlog.io.Compression;
 import org.hildan.fxlog.view.UIUtils;
 
 /**
@@ -31,6 +45,10 @@ public class ColumnizersController implements Initializable {
 
     private Config config;
 
+    private ResourceBundle resources;
+
+    private final ColumnizerTestBench testBench = new ColumnizerTestBench();
+
     @FXML
     private BaseEditableListPane<Columnizer> columnizersPane;
 
@@ -49,6 +67,12 @@ public class ColumnizersController implements Initializable {
     @FXML
     private TableColumn<ColumnDefinition, String> capturingGroupColumn;
 
+    @FXML
+    private TableColumn<ColumnDefinition, ColumnType> typeColumn;
+
+    @FXML
+    private TableColumn<ColumnDefinition, String> formatColumn;
+
     @FXML
     private TableColumn<ColumnDefinition, String> descriptionColumn;
 
@@ -73,11 +97,40 @@ public class ColumnizersController implements Initializable {
     @FXML
     private Button moveColumnDownButton;
 
+    @FXML
+    private Button testColumnizerButton;
+
+    @FXML
+    private Label testBenchInfoLabel;
+
+    @FXML
+    private TableView<PatternStats> patternStatsTable;
+
+    @FXML
+    private TableColumn<PatternStats, String> patternColumn;
+
+    @FXML
+    private TableColumn<PatternStats, Number> hitCountColumn;
+
+    @FXML
+    private TableColumn<PatternStats, Number> timeoutCountColumn;
+
+    @FXML
+    private TableColumn<PatternStats, Number> averageTimeColumn;
+
+    @FXML
+    private TableColumn<PatternStats, Number> p99TimeColumn;
+
+    @FXML
+    private ListView<String> unmatchedLinesList;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         config = Config.getInstance();
+        this.resources = resources;
         initializeColumnizersPane();
         initializePatternsPane();
+        initializeTestBench();
     }
 
     private void initializeColumnizersPane() {
@@ -128,6 +181,12 @@ public class ColumnizersController implements Initializable {
         capturingGroupColumn.setCellFactory(TextFieldTableCell.forTableColumn());
         capturingGroupColumn.setCellValueFactory(data -> data.getValue().capturingGroupNameProperty());
 
+        typeColumn.setCellFactory(ChoiceBoxTableCell.forTableColumn(ColumnType.values()));
+        typeColumn.setCellValueFactory(data -> data.getValue().typeProperty());
+
+        formatColumn.setCellFactory(TextFieldTableCell.forTableColumn());
+        formatColumn.setCellValueFactory(data -> data.getValue().formatProperty());
+
         descriptionColumn.setCellFactory(TextFieldTableCell.forTableColumn());
         descriptionColumn.setCellValueFactory(data -> data.getValue().descriptionProperty());
 
@@ -145,6 +204,64 @@ public class ColumnizersController implements Initializable {
         moveColumnDownButton.disableProperty().bind(noColumnDefSelected.or(lastColumnDefSelected));
     }
 
+    private void initializeTestBench() {
+        patternColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().getPattern().pattern()));
+        hitCountColumn.setCellValueFactory(data -> new ReadOnlyIntegerWrapper(data.getValue().getHitCount()));
+        timeoutCountColumn.setCellValueFactory(data -> new ReadOnlyIntegerWrapper(data.getValue().getTimeoutCount()));
+        averageTimeColumn.setCellValueFactory(data -> new ReadOnlyLongWrapper(data.getValue().getAverageNanos()));
+        p99TimeColumn.setCellValueFactory(data -> new ReadOnlyLongWrapper(data.getValue().getP99Nanos()));
+
+        ReadOnlyObjectProperty<Columnizer> selectedColumnizer = columnizersPane.selectedItemProperty();
+        testColumnizerButton.disableProperty().bind(selectedColumnizer.isNull());
+        // the results are meaningless for another columnizer
+        selectedColumnizer.addListener((obs, oldColumnizer, newColumnizer) -> clearTestResults());
+    }
+
+    private void clearTestResults() {
+        testBench.cancel();
+        patternStatsTable.getItems().clear();
+        unmatchedLinesList.getItems().clear();
+        testBenchInfoLabel.setText("");
+    }
+
+    @FXML
+    public void testSelectedColumnizer() {
+        clearTestResults();
+        String openedFile = config.getState().getOpenedFile();
+        if (openedFile == null) {
+            testBenchInfoLabel.setText(resources.getString("columnizers.testBench.noFile"));
+            return;
+        }
+        Path file = Paths.get(openedFile);
+        try {
+            if (Compression.detect(file) != Compression.NONE) {
+                String template = resources.getString("columnizers.testBench.compressedFileTemplate");
+                testBenchInfoLabel.setText(String.format(template, file));
+                return;
+            }
+        } catch (IOException e) {
+            showTestError(file, e);
+            return;
+        }
+        Columnizer columnizer = columnizersPane.getList().getSelectionModel().getSelectedItem();
+        Charset charset = Charset.forName(config.getPreferences().getLogsCharset());
+        testBenchInfoLabel.setText(String.format(resources.getString("columnizers.testBench.runningTemplate"), file));
+        Consumer<Results> onSuccess = results -> showTestResults(file, results);
+        testBench.test(columnizer, file, charset, onSuccess, e -> showTestError(file, e));
+    }
+
+    private void showTestResults(Path file, Results results) {
+        patternStatsTable.getItems().setAll(results.getPatternStats());
+        unmatchedLinesList.getItems().setAll(results.getUnmatchedLines());
+        String template = resources.getString("columnizers.testBench.resultsTemplate");
+        testBenchInfoLabel.setText(String.format(template, results.getNbLines(), file, results.getNbUnmatchedLines()));
+    }
+
+    private void showTestError(Path file, IOException error) {
+        String template = resources.getString("columnizers.testBench.errorTemplate");
+        testBenchInfoLabel.setText(String.format(template, file, error.getMessage()));
+    }
+
     @FXML
     public void addNewColumnDefinition() {
         String columnName = newColumnHeaderField.getText();
@@ -7,24 +7,44 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntToLongFunction;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Binding;
 import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -33,28 +53,34 @@ import javafx.collections.ListChangeListener;
 import javafx.collections.ListChangeListener.Change;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import javafx.util.Duration;
 
 import org.apache.commons.io.input.Tailer;
 import org.controlsfx.control.textfield.CustomTextField;
@@ -62,25 +88,58 @@ import org.fxmisc.easybind.EasyBind;
 import org.hildan.fxlog.FXLog;
 import org.hildan.fxlog.coloring.Colorizer;
 import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.columns.ColumnizerDetector;
 import org.hildan.fxlog.columns.Columnizer;
+import org.hildan.fxlog.columns.LazyColumnization;
+import org.hildan.fxlog.columns.Recolumnizer;
+import org.hildan.fxlog.columns.StringPool;
 import org.hildan.fxlog.config.Config;
+import org.hildan.fxlog.config.Preferences;
 import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.data.OffHeapLineStore;
 import org.hildan.fxlog.errors.ErrorDialog;
 import org.hildan.fxlog.filtering.Filter;
+import org.hildan.fxlog.filtering.TimeRangeList;
+import org.hildan.fxlog.io.Compression;
+import org.hildan.fxlog.io.FileBackedLogList;
+import org.hildan.fxlog.io.RotatedFileSet;
+import org.hildan.fxlog.merging.LogMerger;
+import org.hildan.fxlog.merging.TimestampParser;
+import org.hildan.fxlog.regex.RegexGuard;
+import org.hildan.fxlog.search.TimestampSearch;
 import org.hildan.fxlog.tailing.BufferedLogTailListener;
+import org.hildan.fxlog.tailing.CompressedFileTailer;
+import org.hildan.fxlog.tailing.DirectoryTailer;
+import org.hildan.fxlog.tailing.OffsetTailer;
+import org.hildan.fxlog.tailing.RotatedFileSetTailer;
+import org.hildan.fxlog.tailing.SocketReceiver;
+import org.hildan.fxlog.tailing.StreamTailer;
+import org.hildan.fxlog.tailing.TailFirstLoader;
+import org.hildan.fxlog.tailing.TailingService;
 import org.hildan.fxlog.themes.Css;
 import org.hildan.fxlog.themes.Theme;
 import org.hildan.fxlog.version.VersionChecker;
 import org.hildan.fxlog.view.StyledTableCell;
 import org.hildan.fxlog.view.UIUtils;
+import org.hildan.fxlog.view.components.MemoryUsageInfo;
 import org.hildan.fxlog.view.components.ProportionLabel;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.proactive.core.util.CircularArrayList;
 
 public class MainController implements Initializable {
 
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static final long DIRECTORY_SCAN_PERIOD_MILLIS = 2000;
+
     private Config config;
 
+    private ResourceBundle resources;
+
     private Stage columnizersStage;
 
     private Stage colorizersStage;
@@ -113,6 +172,12 @@ public class MainController implements Initializable {
     @FXML
     private CheckBox caseSensitiveFilterCheckbox;
 
+    @FXML
+    private CustomTextField timeRangeFromField;
+
+    @FXML
+    private CustomTextField timeRangeToField;
+
     @FXML
     private Menu recentFilesMenu;
 
@@ -125,37 +190,92 @@ public class MainController implements Initializable {
     @FXML
     private ProportionLabel<Integer> nbLogs;
 
+    @FXML
+    private Label overloadInfo;
+
+    @FXML
+    private Label regexTimeoutInfo;
+
     @FXML
     private ToggleButton autoScrollButton;
 
+    @FXML
+    private MemoryUsageInfo memoryUsageInfo;
+
     private Property<Columnizer> columnizer;
 
     private Property<Colorizer> colorizer;
 
     private ObservableList<LogEntry> columnizedLogs;
 
+    private TimeRangeList timeRangeLogs;
+
     private FilteredList<LogEntry> filteredLogs;
 
+    private BooleanBinding noLogs;
+
     private StringProperty tailedFileName;
 
     private BooleanProperty autoScrollActive;
 
     private BooleanProperty tailingFile;
 
+    private LongProperty droppedLogs;
+
+    private LongProperty sampledOutLogs;
+
     private Tailer tailer;
 
     private BufferedLogTailListener logTailListener;
 
+    private LazyColumnization lazyColumnization;
+
+    private OffHeapLineStore lineStore;
+
+    private FileBackedLogList fileBackedLogs;
+
+    private TailFirstLoader tailFirstLoader;
+
+    /**
+     * The detection of the columnizer of the file about to be opened, if it is still in progress.
+     */
+    private Task<Columnizer> columnizerDetection;
+
+    private LogMerger logMerger;
+
+    /**
+     * Merges the logs periodically, so that the logs held back by idle sources are eventually shown.
+     */
+    private Timeline mergeTimer;
+
+    private final List<File> mergedFiles = new ArrayList<>();
+
+    private final List<Tailer> mergedTailers = new ArrayList<>();
+
+    private final List<TailingService.TailedFile> mergedTailedFiles = new ArrayList<>();
+
+    private final List<BufferedLogTailListener> mergedTailListeners = new ArrayList<>();
+
+    private DirectoryTailer directoryTailer;
+
+    private final TailingService tailingService = new TailingService();
+
+    private final Recolumnizer recolumnizer = new Recolumnizer();
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        this.resources = resources;
         config = Config.getInstance();
         columnizedLogs = FXCollections.observableArrayList(new CircularArrayList<>());
-        filteredLogs = new FilteredList<>(columnizedLogs);
+        timeRangeLogs = new TimeRangeList(columnizedLogs);
+        filteredLogs = new FilteredList<>(timeRangeLogs);
         colorizer = new SimpleObjectProperty<>();
         columnizer = new SimpleObjectProperty<>();
         autoScrollActive = new SimpleBooleanProperty(true);
         tailingFile = new SimpleBooleanProperty(false);
         tailedFileName = new SimpleStringProperty();
+        droppedLogs = new SimpleLongProperty(0);
+        sampledOutLogs = new SimpleLongProperty(0);
         closeMenu.disableProperty().bind(tailingFile.not());
 
         // show the search panel only when the search is active
@@ -163,6 +283,10 @@ public class MainController implements Initializable {
 
         configureTitleBinding();
         configureNumberOfLogs();
+        configureOverloadInfo(resources);
+        configureRegexTimeoutInfo(resources);
+        configureStringPoolInfo(resources);
+        configureLineStoreRelease();
         configureColumnizerSelector();
         configureColorizerSelector();
         configureFiltering();
@@ -194,10 +318,91 @@ public class MainController implements Initializable {
 
     private void configureNumberOfLogs() {
         nbLogs.totalCountProperty().bind(config.getPreferences().maxNumberOfLogsProperty());
-        nbLogs.currentCountProperty().bind(Bindings.createObjectBinding(columnizedLogs::size, columnizedLogs));
+        bindCurrentLogCount(columnizedLogs);
         nbLogs.showTotalProperty().bind(config.getPreferences().limitNumberOfLogsProperty());
     }
 
+    private void bindCurrentLogCount(ObservableList<LogEntry> logs) {
+        nbLogs.currentCountProperty().bind(Bindings.createObjectBinding(logs::size, logs));
+    }
+
+    /**
+     * Shows the number of logs discarded because the UI could not keep up with the file, if any.
+     */
+    private void configureOverloadInfo(ResourceBundle resources) {
+        String template = resources.getString("misc.overloadTemplate");
+        Callable<String> formatInfo = () -> String.format(template, droppedLogs.get(), sampledOutLogs.get());
+        overloadInfo.textProperty().bind(Bindings.createStringBinding(formatInfo, droppedLogs, sampledOutLogs));
+        overloadInfo.visibleProperty().bind(droppedLogs.add(sampledOutLogs).greaterThan(0));
+        overloadInfo.managedProperty().bind(overloadInfo.visibleProperty());
+    }
+
+    /**
+     * Shows the number of regex matches that took too long, if any, with the offending regexes in the tooltip. The
+     * counts are reset when the label is clicked, to check that the fixed regexes don't time out anymore.
+     */
+    private void configureRegexTimeoutInfo(ResourceBundle resources) {
+        String template = resources.getString("misc.regexTimeoutsTemplate");
+        String tooltipHeader = resources.getString("misc.regexTimeouts.tooltipHeader");
+        Tooltip tooltip = new Tooltip();
+        regexTimeoutInfo.setTooltip(tooltip);
+        regexTimeoutInfo.managedProperty().bind(regexTimeoutInfo.visibleProperty());
+        regexTimeoutInfo.setVisible(false);
+        regexTimeoutInfo.setOnMouseClicked(e -> {
+            RegexGuard.resetTimeouts();
+            regexTimeoutInfo.setVisible(false);
+        });
+        // the timeouts happen on any thread, they are simply polled
+        KeyFrame refresh = new KeyFrame(Duration.seconds(1), e -> {
+            long nbTimeouts = RegexGuard.getTotalTimeouts();
+            regexTimeoutInfo.setVisible(nbTimeouts > 0);
+            if (nbTimeouts > 0) {
+                regexTimeoutInfo.setText(String.format(template, nbTimeouts));
+                tooltip.setText(formatRegexTimeouts(tooltipHeader, RegexGuard.getTimeoutsByPattern()));
+            }
+        });
+        Timeline poller = new Timeline(refresh);
+        poller.setCycleCount(Animation.INDEFINITE);
+        poller.play();
+    }
+
+    private static String formatRegexTimeouts(String header, Map<String, Long> timeoutsByPattern) {
+        StringBuilder sb = new StringBuilder(header);
+        timeoutsByPattern.forEach((regex, count) -> sb.append(String.format("%n%,8d  %s", count, regex)));
+        return sb.toString();
+    }
+
+    /**
+     * Shows how much memory the {@link StringPool} saves in the tooltip of the memory usage.
+     */
+    private void configureStringPoolInfo(ResourceBundle resources) {
+        String header = resources.getString("misc.stringPool.header");
+        String columnTemplate = resources.getString("misc.stringPool.columnTemplate");
+        String notPooledTemplate = resources.getString("misc.stringPool.notPooledColumnTemplate");
+        memoryUsageInfo.setTooltipDetails(() -> {
+            List<StringPool.Statistics> statistics = StringPool.getDefault().getAllStatistics();
+            statistics.removeIf(columnStats -> columnStats.getLookups() == 0);
+            if (statistics.isEmpty()) {
+                return null;
+            }
+            statistics.sort(Comparator.comparingLong(StringPool.Statistics::getSavedBytes).reversed());
+            long savedBytes = statistics.stream().mapToLong(StringPool.Statistics::getSavedBytes).sum();
+            double savedMegabytes = savedBytes / MemoryUsageInfo.Unit.MB.getMultiplier();
+            StringBuilder sb = new StringBuilder(String.format(header, savedMegabytes));
+            for (StringPool.Statistics columnStats : statistics) {
+                String name = columnStats.getColumnName();
+                sb.append('\n');
+                if (columnStats.isPooled()) {
+                    double hitPercentage = 100 * columnStats.getHitRate();
+                    sb.append(String.format(columnTemplate, name, hitPercentage, columnStats.getLookups()));
+                } else {
+                    sb.append(String.format(notPooledTemplate, name));
+                }
+            }
+            return sb.toString();
+        });
+    }
+
     /**
      * Binds the colorizer selector to the current colorizer property and the colorizers of the config.
      */
@@ -206,15 +411,130 @@ public class MainController implements Initializable {
         bindSelector(colorizerSelector, config.getColorizers(), colorizer, selectedIndexProp);
     }
 
+    /**
+     * Releases the off-heap memory of the logs that are removed from the list, if the raw logs are stored off-heap.
+     */
+    private void configureLineStoreRelease() {
+        columnizedLogs.addListener((ListChangeListener<LogEntry>) change -> {
+            if (lineStore == null || columnizedLogs.isEmpty()) {
+                return;
+            }
+            if (tailFirstLoader == null) {
+                // the logs are in reading order, so the first one tells which lines are not needed anymore
+                lineStore.discardBefore(columnizedLogs.get(0).getLineId());
+            } else if (hasRemovedLogs(change)) {
+                // the most recent logs were stored first, the oldest line still in use may be anywhere in the list
+                long oldestLineId = columnizedLogs.stream().mapToLong(LogEntry::getLineId).min().getAsLong();
+                lineStore.discardBefore(oldestLineId);
+            }
+        });
+    }
+
+    private static boolean hasRemovedLogs(ListChangeListener.Change<? extends LogEntry> change) {
+        while (change.next()) {
+            if (change.wasRemoved()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Binds the columnizer selector to the current columnizer property and the columnizers of the config.
      */
     private void configureColumnizerSelector() {
         IntegerProperty selectedIndexProp = config.getState().selectedColumnizerIndexProperty();
         bindSelector(columnizerSelector, config.getColumnizers(), columnizer, selectedIndexProp);
-        columnizer.addListener(change -> {
-            // re-columnizes the logs
-            restartTailing();
+        columnizer.addListener((obs, oldColumnizer, newColumnizer) -> {
+            if (newColumnizer == null || !tailingFile.get()) {
+                return;
+            }
+            rememberColumnizerForCurrentFile(newColumnizer);
+            if (fileBackedLogs != null) {
+                // the logs are read from the file on demand, no need to re-columnize anything now
+                fileBackedLogs.setColumnizer(newColumnizer);
+                logsTable.refresh();
+            } else if (lazyColumnization != null) {
+                // the logs are columnized on demand, no need to re-columnize anything now
+                lazyColumnization.setColumnizer(newColumnizer);
+                logsTable.refresh();
+            } else {
+                // re-columnizes the logs in memory, without reading the file again
+                if (logTailListener != null) {
+                    logTailListener.setLogParser(newColumnizer::parse);
+                }
+                mergedTailListeners.forEach(listener -> listener.setLogParser(newColumnizer::parse));
+                if (logMerger != null) {
+                    logMerger.setTimestampColumnName(newColumnizer.getTimestampColumnName());
+                }
+                recolumnizer.recolumnize(columnizedLogs, newColumnizer);
+            }
+        });
+    }
+
+    /**
+     * Remembers the given columnizer for the single file being tailed, if any, so that it is selected again next time
+     * the file is opened.
+     */
+    private void rememberColumnizerForCurrentFile(@NotNull Columnizer columnizer) {
+        if (logMerger != null || tailer instanceof SocketReceiver) {
+            return;
+        }
+        String filename = tailedFileName.get();
+        if (Files.isRegularFile(Paths.get(filename))) {
+            config.getState().rememberColumnizer(filename, columnizer.getName());
+        }
+    }
+
+    /**
+     * Selects the columnizer remembered for the given file, if the file was opened before.
+     *
+     * @param file
+     *         the file about to be opened
+     * @return true if a columnizer was remembered for the file
+     */
+    private boolean selectRememberedColumnizer(@NotNull File file) {
+        String rememberedName = config.getState().getRememberedColumnizer(file.getAbsolutePath());
+        if (rememberedName == null) {
+            return false;
+        }
+        config.getColumnizers()
+              .stream()
+              .filter(c -> c.getName().equals(rememberedName))
+              .findFirst()
+              .ifPresent(c -> columnizerSelector.getSelectionModel().select(c));
+        return true;
+    }
+
+    /**
+     * Selects the columnizer that best fits the content of the given file, and then opens the file. The sample of the
+     * file is read and scored in the background, the file is opened on the UI thread when the detection is over.
+     *
+     * @param file
+     *         the plain file to open
+     */
+    private void detectColumnizerAndOpen(@NotNull File file) {
+        Task<Columnizer> detection =
+                ColumnizerDetector.detectInBackground(config.getColumnizers(), file.toPath(), getLogsCharset());
+        columnizerDetection = detection;
+        detection.setOnSucceeded(event -> {
+            if (columnizerDetection != detection) {
+                return; // another file was opened in the meantime
+            }
+            columnizerDetection = null;
+            Columnizer detected = detection.getValue();
+            if (detected != null) {
+                columnizerSelector.getSelectionModel().select(detected);
+                config.getState().rememberColumnizer(file.getAbsolutePath(), detected.getName());
+            }
+            openFile(file, Compression.NONE);
+        });
+        detection.setOnFailed(event -> {
+            if (columnizerDetection != detection) {
+                return;
+            }
+            columnizerDetection = null;
+            ErrorDialog.logFileOpenException(file.getAbsolutePath(), detection.getException());
         });
     }
 
@@ -248,7 +568,8 @@ public class MainController implements Initializable {
     }
 
     /**
-     * Binds the filtered logs list predicate, the current filter, and the filter text field together.
+     * Binds the filtered logs list predicate, the current filter, and the filter text field together. The text filter
+     * is applied to the logs within the time range only.
      */
     private void configureFiltering() {
         Callable<Predicate<LogEntry>> createFilter = () -> {
@@ -270,6 +591,73 @@ public class MainController implements Initializable {
         filterField.setText("");
         UIUtils.makeClearable(filterField);
         filteredLogs.predicateProperty().bind(filterBinding);
+        configureTimeRange();
+    }
+
+    /**
+     * Restricts the logs to the time range of the time fields, based on the timestamp column of the current
+     * columnizer.
+     */
+    private void configureTimeRange() {
+        InvalidationListener updateRange = obs -> updateTimeRange();
+        timeRangeFromField.textProperty().addListener(updateRange);
+        timeRangeToField.textProperty().addListener(updateRange);
+        columnizer.addListener(obs -> {
+            // the logs columnized on demand get other timestamps without any change of the list
+            timeRangeLogs.invalidateIndex();
+            updateTimeRange();
+        });
+        // a time without date is taken on the day of the first logs, which are unknown until they arrive
+        noLogs = Bindings.isEmpty(columnizedLogs);
+        noLogs.addListener((obs, wasEmpty, isEmpty) -> updateTimeRange());
+        timeRangeFromField.setText("");
+        timeRangeToField.setText("");
+        UIUtils.makeClearable(timeRangeFromField);
+        UIUtils.makeClearable(timeRangeToField);
+    }
+
+    private void updateTimeRange() {
+        Columnizer currentColumnizer = columnizer.getValue();
+        String timestampColumn = currentColumnizer == null ? null : currentColumnizer.getTimestampColumnName();
+        long from = parseTimeBound(timeRangeFromField, timestampColumn, Long.MIN_VALUE);
+        long to = parseTimeBound(timeRangeToField, timestampColumn, Long.MAX_VALUE);
+        if (timestampColumn == null || from == Long.MIN_VALUE && to == Long.MAX_VALUE) {
+            timeRangeLogs.clearRange();
+        } else {
+            timeRangeLogs.setRange(timestampColumn, from, to);
+        }
+    }
+
+    /**
+     * Parses the time typed in the given field. A time without date is taken on the day of the first logs.
+     *
+     * @param field
+     *         the field containing the time
+     * @param timestampColumn
+     *         the column to take the day from, if the field only contains a time, or null if there is none
+     * @param noBound
+     *         the value to return if the field is empty or invalid
+     * @return the time of the field, in milliseconds since the epoch
+     */
+    private long parseTimeBound(CustomTextField field, @Nullable String timestampColumn, long noBound) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            field.pseudoClassStateChanged(Css.INVALID, false);
+            return noBound;
+        }
+        long time = timestampColumn == null ? TimestampParser.UNKNOWN : new TimestampParser().parse(text);
+        field.pseudoClassStateChanged(Css.INVALID, time == TimestampParser.UNKNOWN);
+        if (time == TimestampParser.UNKNOWN) {
+            return noBound;
+        }
+        if (isTimeOfDay(time)) {
+            IntToLongFunction timestamps = createTimestampAccessor(columnizedLogs, timestampColumn);
+            int firstIndex = TimestampSearch.findFirst(columnizedLogs.size(), timestamps);
+            if (firstIndex >= 0) {
+                time = onDayOf(time, timestamps.applyAsLong(firstIndex));
+            }
+        }
+        return time;
     }
 
     @FXML
@@ -280,22 +668,102 @@ public class MainController implements Initializable {
         searchPanelController.startSearch();
     }
 
+    /**
+     * Asks the user for a time, and selects the log that is the closest to that time, based on the first timestamp
+     * column of the current columnizer.
+     */
+    @FXML
+    public void goToTime() {
+        Columnizer currentColumnizer = columnizer.getValue();
+        String timestampColumn = currentColumnizer == null ? null : currentColumnizer.getTimestampColumnName();
+        if (timestampColumn == null) {
+            ErrorDialog.noTimestampColumn(currentColumnizer == null ? null : currentColumnizer.getName());
+            return;
+        }
+        ObservableList<LogEntry> logs = logsTable.getItems();
+        if (logs.isEmpty()) {
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.initOwner(mainPane.getScene().getWindow());
+        dialog.setTitle(resources.getString("goToTime.title"));
+        dialog.setHeaderText(resources.getString("goToTime.header"));
+        dialog.setContentText(resources.getString("goToTime.label"));
+        Optional<String> input = dialog.showAndWait();
+        if (!input.isPresent() || input.get().trim().isEmpty()) {
+            return;
+        }
+        long target = new TimestampParser().parse(input.get());
+        if (target == TimestampParser.UNKNOWN) {
+            ErrorDialog.unknownTimeFormat(input.get());
+            return;
+        }
+        IntToLongFunction timestamps = createTimestampAccessor(logs, timestampColumn);
+        if (isTimeOfDay(target)) {
+            // only a time was given, we look for it on the day of the selected log, or of the first logs
+            int selectedIndex = logsTable.getSelectionModel().getSelectedIndex();
+            int referenceIndex = TimestampSearch.findFirst(logs.size(), timestamps);
+            if (selectedIndex >= 0 && timestamps.applyAsLong(selectedIndex) != ColumnType.MISSING) {
+                referenceIndex = selectedIndex;
+            }
+            if (referenceIndex >= 0) {
+                target = onDayOf(target, timestamps.applyAsLong(referenceIndex));
+            }
+        }
+        int index = TimestampSearch.findNearest(logs.size(), timestamps, target);
+        if (index < 0) {
+            ErrorDialog.noTimestampFound(timestampColumn);
+            return;
+        }
+        autoScrollActive.set(false);
+        logsTable.getSelectionModel().clearAndSelect(index);
+        UIUtils.scrollTo(logsTable, index);
+    }
+
+    /**
+     * Returns whether the given time, parsed by a {@link TimestampParser}, was a time without date.
+     */
+    private static boolean isTimeOfDay(long time) {
+        return time >= 0 && time < MILLIS_PER_DAY;
+    }
+
+    private static long onDayOf(long timeOfDay, long reference) {
+        return Math.floorDiv(reference, MILLIS_PER_DAY) * MILLIS_PER_DAY + timeOfDay;
+    }
+
+    private IntToLongFunction createTimestampAccessor(ObservableList<LogEntry> logs, String timestampColumn) {
+        if (logs == fileBackedLogs) {
+            // the probes should not fill the cache of the visible rows
+            FileBackedLogList fileLogs = fileBackedLogs;
+            return i -> fileLogs.peek(i).getTypedValue(timestampColumn);
+        }
+        return i -> logs.get(i).getTypedValue(timestampColumn);
+    }
+
     /**
      * Binds the logs table to the current colorizer, columnizer, and filtered logs list.
      */
     private void configureLogsTable() {
         logsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
-        EasyBind.subscribe(columnizer, c -> {
-            logsTable.getColumns().clear();
-            if (c != null) {
-                logsTable.getColumns().addAll(getConfiguredColumns(c));
-            }
-        });
+        EasyBind.subscribe(columnizer, c -> updateTableColumns());
         logsTable.setItems(filteredLogs);
     }
 
+    private void updateTableColumns() {
+        logsTable.getColumns().clear();
+        if (columnizer.getValue() != null) {
+            logsTable.getColumns().addAll(getConfiguredColumns(columnizer.getValue()));
+        }
+    }
+
     private Collection<TableColumn<LogEntry, String>> getConfiguredColumns(Columnizer columnizer) {
-        Collection<TableColumn<LogEntry, String>> columns = columnizer.getColumns();
+        List<TableColumn<LogEntry, String>> columns = new ArrayList<>(columnizer.getColumns());
+        if (logMerger != null) {
+            // shows where each log comes from when several files are merged
+            TableColumn<LogEntry, String> sourceColumn = new TableColumn<>("Source");
+            sourceColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().getSource()));
+            columns.add(0, sourceColumn);
+        }
         columns.forEach(col -> col.setCellFactory(column -> {
             StyledTableCell cell = new StyledTableCell(column, searchPanelController.getSearch());
             cell.fontProperty().bind(config.getPreferences().logsFontProperty());
@@ -369,7 +837,8 @@ public class MainController implements Initializable {
             if (event.getDeltaY() > 0) {
                 // scrolling up, stop following tail
                 autoScrollActive.set(false);
-            } else if (event.getDeltaY() < 0 && UIUtils.getLastVisibleRowIndex(logsTable) == filteredLogs.size() - 1) {
+            } else if (event.getDeltaY() < 0
+                    && UIUtils.getLastVisibleRowIndex(logsTable) == logsTable.getItems().size() - 1) {
                 // scrolling down and reached the bottom
                 // we can't prevent the stick effect, so we have to consider the state changed
                 autoScrollActive.set(true);
@@ -396,23 +865,25 @@ public class MainController implements Initializable {
         });
 
         // keep scroll to bottom as logs are added
-        filteredLogs.addListener((Change<? extends LogEntry> c) -> {
-            while (c.next() && (c.wasAdded() || c.wasRemoved()) && autoScrollActive.get()) {
-                int firstVisibleRowIndex = UIUtils.getFirstVisibleRowIndex(logsTable);
-                // scroll bar at the top (or not visible yet)
-                if (firstVisibleRowIndex == 0) {
-                    // This is only necessary when the scrollbar appears, because being at the scrollbar maximum already
-                    // realizes the scroll-to-bottom feature naturally. Since this call is expensive and causes freezes,
-                    // we make sure to only call it when necessary
-                    scrollToBottom();
-                }
+        filteredLogs.addListener(this::keepScrolledToBottom);
+    }
+
+    private void keepScrolledToBottom(Change<? extends LogEntry> c) {
+        while (c.next() && (c.wasAdded() || c.wasRemoved()) && autoScrollActive.get()) {
+            int firstVisibleRowIndex = UIUtils.getFirstVisibleRowIndex(logsTable);
+            // scroll bar at the top (or not visible yet)
+            if (firstVisibleRowIndex == 0) {
+                // This is only necessary when the scrollbar appears, because being at the scrollbar maximum already
+                // realizes the scroll-to-bottom feature naturally. Since this call is expensive and causes freezes,
+                // we make sure to only call it when necessary
+                scrollToBottom();
             }
-        });
+        }
     }
 
     private void scrollToBottom() {
-        if (!filteredLogs.isEmpty()) {
-            logsTable.scrollTo(filteredLogs.size() - 1);
+        if (!logsTable.getItems().isEmpty()) {
+            logsTable.scrollTo(logsTable.getItems().size() - 1);
         }
     }
 
@@ -465,6 +936,7 @@ public class MainController implements Initializable {
         fileChooser.setTitle("Open Log File");
         fileChooser.getExtensionFilters()
                    .add(new ExtensionFilter("Log files (*.txt, *.log, *.out)", "*.txt", "*.log", "*.out"));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter("Compressed logs (*.gz, *.zip)", "*.gz", "*.zip"));
         fileChooser.getExtensionFilters().add(new ExtensionFilter("All files", "*.*"));
         File file = fileChooser.showOpenDialog(mainPane.getScene().getWindow());
         if (file != null) {
@@ -476,6 +948,51 @@ public class MainController implements Initializable {
         }
     }
 
+    /**
+     * Opens a file chooser to choose several files, and starts tailing them in a single view, merged by date.
+     */
+    @FXML
+    public void openFiles() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Open Log Files");
+        fileChooser.getExtensionFilters()
+                   .add(new ExtensionFilter("Log files (*.txt, *.log, *.out)", "*.txt", "*.log", "*.out"));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter("Compressed logs (*.gz, *.zip)", "*.gz", "*.zip"));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter("All files", "*.*"));
+        List<File> files = fileChooser.showOpenMultipleDialog(mainPane.getScene().getWindow());
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        try {
+            if (files.size() == 1) {
+                startTailingFile(files.get(0));
+            } else {
+                startTailingFiles(files);
+            }
+        } catch (FileNotFoundException e) {
+            ErrorDialog.selectedFileNotFound(e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a directory chooser to choose a directory, and starts tailing all its log files in a single view, merged
+     * by date.
+     */
+    @FXML
+    public void openDirectory() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Open Log Directory");
+        File directory = directoryChooser.showDialog(mainPane.getScene().getWindow());
+        if (directory == null) {
+            return;
+        }
+        try {
+            startTailingDirectory(directory);
+        } catch (FileNotFoundException e) {
+            ErrorDialog.selectedFileNotFound(e.getMessage());
+        }
+    }
+
     /**
      * Opens the given recent file and starts tailing it.
      *
@@ -504,16 +1021,338 @@ public class MainController implements Initializable {
         if (!file.exists()) {
             throw new FileNotFoundException(file.getAbsolutePath());
         }
+        if (isStream(file)) {
+            startTailingNamedPipe(file);
+            return;
+        }
         closeCurrentFile();
         config.getState().addToRecentFiles(file.getAbsolutePath());
-        logTailListener = new BufferedLogTailListener(columnizer.getValue(), columnizedLogs,
-                config.getPreferences().getLogBufferSize());
+        Compression compression;
+        try {
+            compression = Compression.detect(file.toPath());
+        } catch (IOException e) {
+            ErrorDialog.logFileOpenException(file.getAbsolutePath(), e);
+            return;
+        }
+        boolean detectable = compression == Compression.NONE && !config.getColumnizers().isEmpty();
+        if (!selectRememberedColumnizer(file) && detectable) {
+            // the file is opened with the detected columnizer, so that it is not read twice
+            detectColumnizerAndOpen(file);
+            return;
+        }
+        openFile(file, compression);
+    }
+
+    /**
+     * Opens the given file with the current columnizer, in the way that suits its size and compression.
+     *
+     * @param file
+     *         the file to open
+     * @param compression
+     *         the compression of the file
+     */
+    private void openFile(@NotNull File file, @NotNull Compression compression) {
+        Preferences prefs = config.getPreferences();
+        boolean bigFile = file.length() >= prefs.getFileBackedModeThresholdInMB() * BYTES_PER_MB;
+        // compressed files can't be browsed from the disk as they are not randomly accessible
+        if (prefs.isFileBackedMode() && bigFile && compression == Compression.NONE) {
+            startBrowsingFileFromDisk(file);
+            return;
+        }
+        startLogTailListener();
+        List<Path> rotatedFiles = findRotatedFiles(file, compression);
+        if (!rotatedFiles.isEmpty()) {
+            tailer = RotatedFileSetTailer.create(file, rotatedFiles, getLogsCharset(), logTailListener,
+                    prefs.getTailingDelayInMillis());
+        } else if (compression == Compression.NONE && prefs.isTailFirstLoading()) {
+            tailer = startTailFirstLoading(file);
+            if (tailer == null) {
+                return;
+            }
+        } else {
+            tailer = startTailer(file, compression, logTailListener);
+        }
+        tailingFile.set(true);
+        tailedFileName.set(file.getAbsolutePath());
+        config.getState().setOpenedFile(file.getAbsolutePath());
+    }
+
+    /**
+     * Starts tailing the standard input of this process. The logs are processed exactly like the logs of a file.
+     */
+    public void startTailingStdin() {
+        closeCurrentFile();
+        startLogTailListener();
+        tailer = StreamTailer.createForStdin(getLogsCharset(), logTailListener);
+        tailingFile.set(true);
+        tailedFileName.set(StreamTailer.STDIN_NAME);
+    }
+
+    /**
+     * Starts receiving logs on the local port configured in the preferences, from any number of TCP connections or
+     * UDP datagrams. The logs are processed exactly like the logs of a file.
+     */
+    @FXML
+    public void receiveLogsFromSocket() {
+        closeCurrentFile();
+        int port = config.getPreferences().getSocketReceiverPort();
+        startLogTailListener();
+        try {
+            tailer = SocketReceiver.create(port, getLogsCharset(), logTailListener);
+        } catch (IOException e) {
+            logTailListener.stop();
+            ErrorDialog.socketListenException(port, e);
+            return;
+        }
+        tailingFile.set(true);
+        tailedFileName.set(tailer.getFile().getName());
+    }
+
+    private void startTailingNamedPipe(File namedPipe) {
+        closeCurrentFile();
+        config.getState().addToRecentFiles(namedPipe.getAbsolutePath());
+        startLogTailListener();
+        tailer = StreamTailer.createForNamedPipe(namedPipe, getLogsCharset(), logTailListener);
+        tailingFile.set(true);
+        tailedFileName.set(namedPipe.getAbsolutePath());
+    }
+
+    private static boolean isStream(File file) {
+        // named pipes and character devices, such as /dev/stdin
+        Path path = file.toPath();
+        return !Files.isRegularFile(path) && !Files.isDirectory(path);
+    }
+
+    /**
+     * Creates the listener that columnizes the read logs and adds them to the logs list, according to the preferences.
+     */
+    private void startLogTailListener() {
+        Preferences prefs = config.getPreferences();
+        Function<String, LogEntry> logParser;
+        if (prefs.isOffHeapLineStorage()) {
+            // off-heap storage only makes sense if the logs don't keep their column values on the heap
+            LazyColumnization lazy = new LazyColumnization(columnizer.getValue(), prefs.getColumnizationCacheSize());
+            OffHeapLineStore store = new OffHeapLineStore();
+            lazyColumnization = lazy;
+            lineStore = store;
+            logParser = line -> lazy.createEntry(store, line);
+        } else if (prefs.isLazyColumnization()) {
+            lazyColumnization = new LazyColumnization(columnizer.getValue(), prefs.getColumnizationCacheSize());
+            logParser = lazyColumnization::createEntry;
+        } else {
+            logParser = columnizer.getValue()::parse;
+        }
+        logTailListener = new BufferedLogTailListener(logParser, columnizedLogs, prefs.getLogBufferSize(),
+                prefs.getMaxPendingLogBatches());
         logTailListener.skipEmptyLogsProperty().bind(config.getPreferences().skipEmptyLogsProperty());
         logTailListener.limitNumberOfLogsProperty().bind(config.getPreferences().limitNumberOfLogsProperty());
         logTailListener.maxNumberOfLogsProperty().bind(config.getPreferences().maxNumberOfLogsProperty());
-        tailer = Tailer.create(file, logTailListener, config.getPreferences().getTailingDelayInMillis());
+        logTailListener.overloadPolicyProperty().bind(config.getPreferences().overloadPolicyProperty());
+        droppedLogs.bind(logTailListener.droppedLogsProperty());
+        sampledOutLogs.bind(logTailListener.sampledOutLogsProperty());
+    }
+
+    private List<Path> findRotatedFiles(File file, Compression compression) {
+        if (!config.getPreferences().isIncludeRotatedFiles() || compression != Compression.NONE) {
+            return Collections.emptyList();
+        }
+        try {
+            return RotatedFileSet.findRotatedFiles(file.toPath());
+        } catch (IOException e) {
+            // the live file can still be tailed alone
+            System.err.println("Could not list the rotated files of " + file + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Starts reading the given file from the beginning, and then follows it if it is not compressed.
+     *
+     * @param file
+     *         the file to read
+     * @param compression
+     *         the compression format of the file
+     * @param listener
+     *         the listener to give the lines of the file to
+     *
+     * @return the started tailer
+     */
+    private Tailer startTailer(File file, Compression compression, BufferedLogTailListener listener) {
+        Preferences prefs = config.getPreferences();
+        if (compression != Compression.NONE) {
+            long nbLastLines = prefs.isLimitNumberOfLogs() ? prefs.getMaxNumberOfLogs() : 0;
+            return CompressedFileTailer.create(file, compression, getLogsCharset(), listener, nbLastLines);
+        }
+        return OffsetTailer.create(file, getLogsCharset(), listener, prefs.getTailingDelayInMillis(), 0);
+    }
+
+    /**
+     * Starts tailing the given files, and shows their logs in a single view, merged by date.
+     * <p>
+     * Each file has its own tailing pipeline, and the logs are columnized as soon as they are read, as their date is
+     * needed to merge them.
+     *
+     * @param files
+     *         the files to tail
+     *
+     * @throws FileNotFoundException
+     *         if one of the files was not found
+     */
+    public void startTailingFiles(List<File> files) throws FileNotFoundException {
+        for (File file : files) {
+            if (!file.exists()) {
+                throw new FileNotFoundException(file.getAbsolutePath());
+            }
+        }
+        startMerging();
+        files.forEach(this::addMergedFile);
+        tailingFile.set(true);
+        tailedFileName.set(files.stream().map(File::getAbsolutePath).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Starts tailing all the log files of the given directory, including the ones created later, and shows their logs
+     * in a single view, merged by date.
+     *
+     * @param directory
+     *         the directory to tail
+     *
+     * @throws FileNotFoundException
+     *         if the directory was not found
+     */
+    public void startTailingDirectory(File directory) throws FileNotFoundException {
+        if (!directory.isDirectory()) {
+            throw new FileNotFoundException(directory.getAbsolutePath());
+        }
+        startMerging();
+        directoryTailer = new DirectoryTailer(tailingService, directory.toPath(), this::onNewFileInDirectory);
+        directoryTailer.start(DIRECTORY_SCAN_PERIOD_MILLIS);
+        tailingFile.set(true);
+        tailedFileName.set(directory.getAbsolutePath());
+    }
+
+    private void onNewFileInDirectory(Path file) {
+        Platform.runLater(() -> {
+            // the directory may have been closed in the meantime
+            if (directoryTailer != null && directoryTailer.getDirectory().equals(file.getParent())) {
+                addMergedFile(file.toFile());
+            }
+        });
+    }
+
+    private void startMerging() {
+        closeCurrentFile();
+        Preferences prefs = config.getPreferences();
+        Columnizer currentColumnizer = columnizer.getValue();
+        String timestampColumn = currentColumnizer == null ? null : currentColumnizer.getTimestampColumnName();
+        logMerger = new LogMerger(columnizedLogs, timestampColumn);
+        logMerger.limitNumberOfLogsProperty().bind(prefs.limitNumberOfLogsProperty());
+        logMerger.maxNumberOfLogsProperty().bind(prefs.maxNumberOfLogsProperty());
+        LogMerger merger = logMerger;
+        KeyFrame merge = new KeyFrame(Duration.millis(LogMerger.DEFAULT_IDLE_TIMEOUT_MILLIS / 2), e -> merger.merge());
+        mergeTimer = new Timeline(merge);
+        mergeTimer.setCycleCount(Animation.INDEFINITE);
+        mergeTimer.play();
+        updateTableColumns();
+    }
+
+    /**
+     * Adds the given file to the current merged view. Uncompressed files are tailed by the shared tailing service, as
+     * there may be many of them.
+     *
+     * @param file
+     *         the file to add
+     */
+    private void addMergedFile(File file) {
+        Compression compression;
+        try {
+            compression = Compression.detect(file.toPath());
+        } catch (IOException e) {
+            ErrorDialog.logFileOpenException(file.getAbsolutePath(), e);
+            return;
+        }
+        Preferences prefs = config.getPreferences();
+        LogMerger.Source source = logMerger.addSource(file.getName());
+        BufferedLogTailListener listener = new BufferedLogTailListener(columnizer.getValue()::parse, source,
+                prefs.getLogBufferSize(), prefs.getMaxPendingLogBatches());
+        listener.skipEmptyLogsProperty().bind(prefs.skipEmptyLogsProperty());
+        listener.overloadPolicyProperty().bind(prefs.overloadPolicyProperty());
+        mergedTailListeners.add(listener);
+        if (compression == Compression.NONE) {
+            long delay = prefs.getTailingDelayInMillis();
+            listener.start();
+            mergedTailedFiles.add(tailingService.tail(file, getLogsCharset(), listener, delay, 0));
+        } else {
+            mergedTailers.add(startTailer(file, compression, listener));
+        }
+        mergedFiles.add(file);
+    }
+
+    /**
+     * Loads the most recent logs of the given file first, and then tails it from there.
+     *
+     * @param file
+     *         the file to load
+     *
+     * @return the tailer following the new logs of the file, or null if the file could not be opened
+     */
+    @Nullable
+    private Tailer startTailFirstLoading(File file) {
+        Preferences prefs = config.getPreferences();
+        // with a limit, the initial window must leave some room for the history to be backfilled
+        int nbInitialLogs = TailFirstLoader.DEFAULT_NB_INITIAL_LOGS;
+        if (prefs.isLimitNumberOfLogs()) {
+            nbInitialLogs = Math.min(nbInitialLogs, prefs.getMaxNumberOfLogs());
+        }
+        tailFirstLoader = new TailFirstLoader(file, getLogsCharset(), logTailListener, columnizedLogs);
+        try {
+            return tailFirstLoader.start(nbInitialLogs, prefs.isBackfillHistory(), prefs.getTailingDelayInMillis());
+        } catch (IOException e) {
+            logTailListener.stop();
+            tailFirstLoader = null;
+            ErrorDialog.logFileOpenException(file.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the charset to use to decode the log files, as configured in the preferences
+     */
+    private Charset getLogsCharset() {
+        String charsetName = config.getPreferences().getLogsCharset();
+        try {
+            return Charset.forName(charsetName);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unsupported logs charset '" + charsetName + "', using UTF-8 instead");
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * Opens the given file without loading its logs in memory. The logs are read from the file when they are
+     * displayed, and the file is still polled for new logs.
+     *
+     * @param file
+     *         the file to browse
+     */
+    private void startBrowsingFileFromDisk(File file) {
+        try {
+            fileBackedLogs = new FileBackedLogList(file.toPath(), getLogsCharset(), columnizer.getValue());
+        } catch (IOException e) {
+            ErrorDialog.logFileOpenException(file.getAbsolutePath(), e);
+            return;
+        }
+        fileBackedLogs.addListener(this::keepScrolledToBottom);
+        logsTable.setItems(fileBackedLogs);
+        bindCurrentLogCount(fileBackedLogs);
+        // filtering would require to read the whole file
+        filterField.setDisable(true);
+        timeRangeFromField.setDisable(true);
+        timeRangeToField.setDisable(true);
+        fileBackedLogs.start(config.getPreferences().getTailingDelayInMillis());
         tailingFile.set(true);
         tailedFileName.set(file.getAbsolutePath());
+        config.getState().setOpenedFile(file.getAbsolutePath());
     }
 
     /**
@@ -525,7 +1364,33 @@ public class MainController implements Initializable {
             System.err.println("Can't RE-start if we're not tailing");
             return;
         }
-        File file = tailer.getFile();
+        if (directoryTailer != null) {
+            File directory = directoryTailer.getDirectory().toFile();
+            try {
+                startTailingDirectory(directory);
+            } catch (FileNotFoundException e) {
+                ErrorDialog.recentFileNotFound(e.getMessage());
+            }
+            return;
+        }
+        if (logMerger != null) {
+            List<File> files = new ArrayList<>(mergedFiles);
+            try {
+                startTailingFiles(files);
+            } catch (FileNotFoundException e) {
+                ErrorDialog.recentFileNotFound(e.getMessage());
+            }
+            return;
+        }
+        if (tailer instanceof SocketReceiver) {
+            receiveLogsFromSocket();
+            return;
+        }
+        if (StreamTailer.STDIN_NAME.equals(tailedFileName.get())) {
+            System.err.println("Can't RE-start the standard input");
+            return;
+        }
+        File file = new File(tailedFileName.get());
         closeCurrentFile();
         try {
             startTailingFile(file);
@@ -547,13 +1412,73 @@ public class MainController implements Initializable {
      */
     @FXML
     public void closeCurrentFile() {
-        if (tailer != null) {
+        if (logTailListener != null) {
             logTailListener.stop();
+            logTailListener = null;
+        }
+        if (tailer != null) {
             tailer.stop();
+            // the next source may not have a tailer, the checks on the type of this one would be wrong
+            tailer = null;
+        }
+        if (tailFirstLoader != null) {
+            tailFirstLoader.stop();
+            tailFirstLoader = null;
         }
+        if (columnizerDetection != null) {
+            columnizerDetection.cancel();
+            columnizerDetection = null;
+        }
+        if (fileBackedLogs != null) {
+            closeFileBackedLogs();
+        }
+        if (logMerger != null) {
+            closeMergedFiles();
+        }
+        droppedLogs.unbind();
+        droppedLogs.set(0);
+        sampledOutLogs.unbind();
+        sampledOutLogs.set(0);
+        recolumnizer.cancel();
+        lazyColumnization = null;
+        lineStore = null;
         columnizedLogs.clear();
         tailingFile.set(false);
         tailedFileName.set("");
+        config.getState().setOpenedFile(null);
+    }
+
+    private void closeMergedFiles() {
+        if (directoryTailer != null) {
+            directoryTailer.stop();
+            directoryTailer = null;
+        }
+        mergedTailListeners.forEach(BufferedLogTailListener::stop);
+        mergedTailers.forEach(Tailer::stop);
+        mergedTailedFiles.forEach(TailingService.TailedFile::stop);
+        mergedTailListeners.clear();
+        mergedTailers.clear();
+        mergedTailedFiles.clear();
+        mergedFiles.clear();
+        mergeTimer.stop();
+        mergeTimer = null;
+        logMerger = null;
+        updateTableColumns();
+    }
+
+    private void closeFileBackedLogs() {
+        try {
+            fileBackedLogs.close();
+        } catch (IOException e) {
+            ErrorDialog.logFileCloseException(tailedFileName.get(), e);
+        } finally {
+            fileBackedLogs = null;
+            logsTable.setItems(filteredLogs);
+            bindCurrentLogCount(columnizedLogs);
+            filterField.setDisable(false);
+            timeRangeFromField.setDisable(false);
+            timeRangeToField.setDisable(false);
+        }
     }
 
     /**
@@ -21,6 +21,7 @@ import org.controlsfx.dialog.FontSelectorDialog;
 import org.hildan.fxlog.coloring.Style;
 import org.hildan.fxlog.config.Config;
 import org.hildan.fxlog.config.Preferences;
+import org.hildan.fxlog.tailing.OverloadPolicy;
 import org.hildan.fxlog.view.scrollbarmarks.Alignment;
 
 /**
@@ -44,6 +45,27 @@ public class PreferencesController implements Initializable {
 
     private static final int MAX_LOG_BUFFER_SIZE = Integer.MAX_VALUE;
 
+    private static final int MIN_PENDING_LOG_BATCHES = 1;
+
+    private static final int MAX_PENDING_LOG_BATCHES = 10000;
+
+    private static final int MIN_COLUMNIZATION_CACHE_SIZE = 1;
+
+    private static final int MAX_COLUMNIZATION_CACHE_SIZE = Integer.MAX_VALUE;
+
+    private static final int MIN_FILE_BACKED_THRESHOLD = 1;
+
+    private static final int MAX_FILE_BACKED_THRESHOLD = Integer.MAX_VALUE;
+
+    private static final int MIN_PORT = 1;
+
+    private static final int MAX_PORT = 65535;
+
+    /**
+     * The charsets supported by the tailer, which must encode '\n' as a single byte.
+     */
+    private static final String[] LOGS_CHARSETS = {"UTF-8", "ISO-8859-1", "windows-1252", "US-ASCII"};
+
     private Preferences prefs;
 
     @FXML
@@ -67,6 +89,42 @@ public class PreferencesController implements Initializable {
     @FXML
     private Spinner<Integer> logBufferSize;
 
+    @FXML
+    private Spinner<Integer> maxPendingLogBatches;
+
+    @FXML
+    private ChoiceBox<OverloadPolicy> overloadPolicy;
+
+    @FXML
+    private CheckBox lazyColumnization;
+
+    @FXML
+    private Spinner<Integer> columnizationCacheSize;
+
+    @FXML
+    private CheckBox offHeapLineStorage;
+
+    @FXML
+    private CheckBox fileBackedMode;
+
+    @FXML
+    private Spinner<Integer> fileBackedModeThreshold;
+
+    @FXML
+    private CheckBox tailFirstLoading;
+
+    @FXML
+    private CheckBox backfillHistory;
+
+    @FXML
+    private ChoiceBox<String> logsCharset;
+
+    @FXML
+    private CheckBox includeRotatedFiles;
+
+    @FXML
+    private Spinner<Integer> socketReceiverPort;
+
     @FXML
     private CheckBox wrapLogsText;
 
@@ -100,6 +158,10 @@ public class PreferencesController implements Initializable {
         skipEmptyLogs.selectedProperty().bindBidirectional(prefs.skipEmptyLogsProperty());
         wrapLogsText.selectedProperty().bindBidirectional(prefs.wrapLogsTextProperty());
         limitNumberOfLogs.selectedProperty().bindBidirectional(prefs.limitNumberOfLogsProperty());
+        tailFirstLoading.selectedProperty().bindBidirectional(prefs.tailFirstLoadingProperty());
+        backfillHistory.selectedProperty().bindBidirectional(prefs.backfillHistoryProperty());
+        backfillHistory.disableProperty().bind(tailFirstLoading.selectedProperty().not());
+        includeRotatedFiles.selectedProperty().bindBidirectional(prefs.includeRotatedFilesProperty());
 
         Style searchHighlightStyle = prefs.getSearchHighlightStyle();
         searchMatchForegroundColor.valueProperty().bindBidirectional(searchHighlightStyle.foregroundColorProperty());
@@ -111,6 +173,11 @@ public class PreferencesController implements Initializable {
         configureLogLimitSpinner();
         configureTailingDelaySpinner();
         configureLogBufferSizeSpinner();
+        configureOverloadSettings();
+        configureLazyColumnization();
+        configureFileBackedMode();
+        configureIntegerSpinner(socketReceiverPort, prefs.socketReceiverPortProperty(), MIN_PORT, MAX_PORT);
+        configureLogsCharsetBox();
         configureFontSelector();
     }
 
@@ -138,6 +205,39 @@ public class PreferencesController implements Initializable {
         configureIntegerSpinner(logBufferSize, prefs.logBufferSizeProperty(), MIN_LOG_BUFFER_SIZE, MAX_LOG_BUFFER_SIZE);
     }
 
+    private void configureOverloadSettings() {
+        configureIntegerSpinner(maxPendingLogBatches, prefs.maxPendingLogBatchesProperty(), MIN_PENDING_LOG_BATCHES,
+                MAX_PENDING_LOG_BATCHES);
+        overloadPolicy.getItems().addAll(OverloadPolicy.values());
+        overloadPolicy.valueProperty().bindBidirectional(prefs.overloadPolicyProperty());
+    }
+
+    private void configureLazyColumnization() {
+        lazyColumnization.selectedProperty().bindBidirectional(prefs.lazyColumnizationProperty());
+        offHeapLineStorage.selectedProperty().bindBidirectional(prefs.offHeapLineStorageProperty());
+        // off-heap storage implies lazy columnization
+        columnizationCacheSize.disableProperty()
+                .bind(lazyColumnization.selectedProperty().not().and(offHeapLineStorage.selectedProperty().not()));
+        configureIntegerSpinner(columnizationCacheSize, prefs.columnizationCacheSizeProperty(),
+                MIN_COLUMNIZATION_CACHE_SIZE, MAX_COLUMNIZATION_CACHE_SIZE);
+    }
+
+    private void configureFileBackedMode() {
+        fileBackedMode.selectedProperty().bindBidirectional(prefs.fileBackedModeProperty());
+        fileBackedModeThreshold.disableProperty().bind(fileBackedMode.selectedProperty().not());
+        configureIntegerSpinner(fileBackedModeThreshold, prefs.fileBackedModeThresholdInMBProperty(),
+                MIN_FILE_BACKED_THRESHOLD, MAX_FILE_BACKED_THRESHOLD);
+    }
+
+    private void configureLogsCharsetBox() {
+        logsCharset.getItems().addAll(LOGS_CHARSETS);
+        if (!logsCharset.getItems().contains(prefs.getLogsCharset())) {
+            // manually configured charset
+            logsCharset.getItems().add(prefs.getLogsCharset());
+        }
+        logsCharset.valueProperty().bindBidirectional(prefs.logsCharsetProperty());
+    }
+
     private void configureIntegerSpinner(Spinner<Integer> spinner, Property<Integer> prop, int min, int max) {
         IntegerSpinnerValueFactory factory = new IntegerSpinnerValueFactory(min, max);
         factory.valueProperty().bindBidirectional(prop);
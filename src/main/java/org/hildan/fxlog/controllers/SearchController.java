@@ -113,7 +113,7 @@ public class SearchController implements Initializable, ListChangeListener<LogEn
         configureSearchFieldUpdates();
     }
 
-    private Binding<Predicate<LogEntry>> createLogSearcherBinding(Binding<Predicate<String>> textMatcherBinding) {
+    private Binding<Predicate<LogEntry>> createLogSearcherBinding(Binding<Predicate<CharSequence>> textMatcherBinding) {
         Callable<Predicate<LogEntry>> createLogMatcher = () -> {
             return createLogEntryMatcher(textMatcherBinding.getValue(), columnDefinitions.getValue());
         };
@@ -121,9 +121,14 @@ public class SearchController implements Initializable, ListChangeListener<LogEn
         return Bindings.createObjectBinding(createLogMatcher, textMatcherBinding, columnDefinitions);
     }
 
-    private static Predicate<LogEntry> createLogEntryMatcher(Predicate<String> textMatcher,
+    private static Predicate<LogEntry> createLogEntryMatcher(Predicate<CharSequence> textMatcher,
                                                              List<ColumnDefinition> columnDefinitions) {
-        return log -> log.getVisibleColumnValues(columnDefinitions).stream().anyMatch(textMatcher);
+        // the values are matched in place, most of them are never copied out of the raw lines
+        return log -> columnDefinitions.stream()
+                                       .filter(ColumnDefinition::isVisible)
+                                       .map(ColumnDefinition::getCapturingGroupName)
+                                       .map(log::getColumnCharSequence)
+                                       .anyMatch(value -> value != null && textMatcher.test(value));
     }
 
     private void configureSearchFieldUpdates() {
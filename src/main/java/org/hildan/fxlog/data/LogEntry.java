@@ -5,9 +5,22 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.columns.ColumnValues;
+import org.hildan.fxlog.columns.LazyColumnization;
+import org.hildan.fxlog.columns.TypedValues;
 
 /**
  * Represents a columnized log entry.
+ * <p>
+ * A log entry is either columnized eagerly, holding its own column values, or lazily, in which case it only holds its
+ * raw line and gets its column values from a {@link LazyColumnization} when they are first accessed.
+ * <p>
+ * A lazily columnized log entry may also not hold its raw line, but only a reference to it in an {@link
+ * OffHeapLineStore}, in which case it is a lightweight view decoding the line on demand.
+ * <p>
+ * The values of the typed columns are parsed once into numbers, when the entry is columnized, and kept with the entry.
+ * They are only parsed again when the types or formats of the columns are edited.
  */
 public class LogEntry {
 
@@ -15,6 +28,16 @@ public class LogEntry {
 
     private final String initialLog;
 
+    private final LazyColumnization lazyColumnization;
+
+    private final OffHeapLineStore lineStore;
+
+    private final long lineId;
+
+    private TypedValues typedValues;
+
+    private String source;
+
     /**
      * Creates a new log entry with the given values for each column.
      *
@@ -23,10 +46,51 @@ public class LogEntry {
      *         and the values are the content of each column for this log.
      * @param rawLine
      *         the initial raw log line before being parsed into these columns. This allows later raw filtering.
+     * @param typedValues
+     *         the parsed values of the typed columns
      */
-    public LogEntry(Map<String, String> columnValues, String rawLine) {
+    public LogEntry(Map<String, String> columnValues, String rawLine, TypedValues typedValues) {
         this.columnValues = columnValues;
         this.initialLog = rawLine;
+        this.lazyColumnization = null;
+        this.lineStore = null;
+        this.lineId = -1;
+        this.typedValues = typedValues;
+    }
+
+    /**
+     * Creates a new log entry which is only columnized when its column values are accessed.
+     *
+     * @param rawLine
+     *         the raw log line, not parsed yet
+     * @param lazyColumnization
+     *         the lazy columnization to get the column values from
+     */
+    public LogEntry(String rawLine, LazyColumnization lazyColumnization) {
+        this.columnValues = null;
+        this.initialLog = rawLine;
+        this.lazyColumnization = lazyColumnization;
+        this.lineStore = null;
+        this.lineId = -1;
+    }
+
+    /**
+     * Creates a new log entry whose raw line is kept in the given store, and which is only columnized when its column
+     * values are accessed.
+     *
+     * @param lineStore
+     *         the store holding the raw log line
+     * @param lineId
+     *         the ID of the raw log line in the given store
+     * @param lazyColumnization
+     *         the lazy columnization to get the column values from
+     */
+    public LogEntry(OffHeapLineStore lineStore, long lineId, LazyColumnization lazyColumnization) {
+        this.columnValues = null;
+        this.initialLog = null;
+        this.lazyColumnization = lazyColumnization;
+        this.lineStore = lineStore;
+        this.lineId = lineId;
     }
 
     /**
@@ -36,9 +100,74 @@ public class LogEntry {
      * @return this log's content for each column
      */
     public Map<String, String> getColumnValues() {
+        if (columnValues == null) {
+            return lazyColumnization.getColumnValues(this);
+        }
         return columnValues;
     }
 
+    /**
+     * Tells whether the column values of this log are only parsed on demand, when they are accessed.
+     *
+     * @return true if this log is columnized lazily
+     */
+    public boolean isLazilyColumnized() {
+        return columnValues == null;
+    }
+
+    /**
+     * Gets this log's content for the given column.
+     *
+     * @param columnName
+     *         the name of the capturing group corresponding to the column
+     *
+     * @return this log's content for the given column, or null if there is no such column
+     */
+    public String getColumnValue(String columnName) {
+        return getColumnValues().get(columnName);
+    }
+
+    /**
+     * Gets this log's content for the given column, without copying it if possible. This is to be preferred over
+     * {@link #getColumnValue(String)} when a {@link CharSequence} is enough, as most column values are only extracted
+     * from the raw line on demand.
+     *
+     * @param columnName
+     *         the name of the capturing group corresponding to the column
+     *
+     * @return this log's content for the given column, or null if there is no such column
+     */
+    public CharSequence getColumnCharSequence(String columnName) {
+        Map<String, String> values = getColumnValues();
+        if (values instanceof ColumnValues) {
+            return ((ColumnValues) values).getCharSequence(columnName);
+        }
+        return values.get(columnName);
+    }
+
+    /**
+     * Gets the parsed value of the given typed column, without parsing the column value again.
+     *
+     * @param columnName
+     *         the name of the capturing group corresponding to the column
+     *
+     * @return the parsed value of the given column, or {@link ColumnType#MISSING} if the column is not typed or its
+     * value could not be parsed
+     */
+    public long getTypedValue(String columnName) {
+        TypedValues values = typedValues;
+        if (lazyColumnization != null && (values == null || !lazyColumnization.isCurrent(values))) {
+            // parsed on first access, like the column values, but kept with the entry
+            values = lazyColumnization.getTypedValues(this);
+            typedValues = values;
+        } else if (values != null) {
+            // the types of the columns may have been edited since this entry was columnized
+            values = values.refresh(getColumnValues());
+            typedValues = values;
+        }
+        return values == null ? ColumnType.MISSING : values.get(columnName);
+    }
+
     /**
      * Gets collection of this log's column values for the currently visible columns.
      *
@@ -51,7 +180,7 @@ public class LogEntry {
         return columnDefinitions.stream()
                 .filter(ColumnDefinition::isVisible)
                 .map(ColumnDefinition::getCapturingGroupName)
-                .map(col -> getColumnValues().get(col))
+                .map(this::getColumnValue)
                 .collect(Collectors.toList());
     }
 
@@ -61,9 +190,40 @@ public class LogEntry {
      * @return the raw log line
      */
     public String rawLine() {
+        if (initialLog == null) {
+            return lineStore.getLine(lineId);
+        }
         return initialLog;
     }
 
+    /**
+     * Gets the ID of this log's raw line in its {@link OffHeapLineStore}.
+     *
+     * @return the ID of this log's raw line, or -1 if this log holds its raw line itself
+     */
+    public long getLineId() {
+        return lineId;
+    }
+
+    /**
+     * Gets the name of the source this log comes from, when logs from several sources are displayed together.
+     *
+     * @return the name of the source of this log, or null if there is a single source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Sets the name of the source this log comes from.
+     *
+     * @param source
+     *         the name of the source of this log
+     */
+    public void setSource(String source) {
+        this.source = source;
+    }
+
     /**
      * Gets a string representation of this log's column values.
      *
@@ -0,0 +1,226 @@
+package org.hildan.fxlog.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An append-only store of raw log lines, keeping their bytes outside of the Java heap.
+ * <p>
+ * The lines are encoded in UTF-8 and appended to large direct {@link ByteBuffer} segments. Only a small index (the
+ * position and length of each line) is kept on the heap, so that millions of lines can be stored without putting
+ * pressure on the garbage collector. The lines are decoded again each time they are accessed.
+ * <p>
+ * Lines are identified by their index of insertion since the creation of the store. When the oldest lines are
+ * discarded, both their segments and their index entries are released, so that a store that is continuously appended
+ * to and discarded from only holds the lines in between. This class is thread-safe.
+ */
+public class OffHeapLineStore {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+    private final int segmentSize;
+
+    /**
+     * The segments that are not discarded yet, the first one being the segment number {@link #firstSegmentNumber}.
+     */
+    private final List<ByteBuffer> segments;
+
+    private long firstSegmentNumber;
+
+    private ByteBuffer currentSegment;
+
+    /**
+     * The segment number (high 32 bits) and offset in the segment (low 32 bits) of each line in the index.
+     */
+    private long[] positions;
+
+    private int[] lengths;
+
+    /**
+     * The position in the index arrays of the first line that is not discarded.
+     */
+    private int indexStart;
+
+    /**
+     * The number of lines in the index arrays that are not discarded.
+     */
+    private int nbLines;
+
+    /**
+     * The ID of the first line that is not discarded.
+     */
+    private long firstLineId;
+
+    private long allocatedBytes;
+
+    /**
+     * Creates a new empty store with the default segment size.
+     */
+    public OffHeapLineStore() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new empty store.
+     *
+     * @param segmentSize
+     *         the size in bytes of the direct buffers allocated to store the lines
+     */
+    public OffHeapLineStore(int segmentSize) {
+        this.segmentSize = segmentSize;
+        this.segments = new ArrayList<>();
+        this.positions = new long[INITIAL_INDEX_CAPACITY];
+        this.lengths = new int[INITIAL_INDEX_CAPACITY];
+    }
+
+    /**
+     * Appends the given line to this store.
+     *
+     * @param line
+     *         the line to store
+     * @return the ID of the stored line, to use to access it later
+     */
+    public long append(@NotNull String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer segment = getSegmentWithRoom(bytes.length);
+            int offset = segment.position();
+            segment.put(bytes);
+            if (indexStart + nbLines == positions.length) {
+                makeRoomInIndex();
+            }
+            long segmentNumber = firstSegmentNumber + segments.size() - 1;
+            positions[indexStart + nbLines] = segmentNumber << 32 | offset;
+            lengths[indexStart + nbLines] = bytes.length;
+            nbLines++;
+            return firstLineId + nbLines - 1;
+        }
+    }
+
+    private ByteBuffer getSegmentWithRoom(int nbBytes) {
+        if (currentSegment == null || currentSegment.remaining() < nbBytes) {
+            // lines bigger than the segment size get their own segment
+            currentSegment = ByteBuffer.allocateDirect(Math.max(segmentSize, nbBytes));
+            segments.add(currentSegment);
+            allocatedBytes += currentSegment.capacity();
+        }
+        return currentSegment;
+    }
+
+    private void makeRoomInIndex() {
+        // the discarded entries at the start are reused before growing the arrays
+        int capacity = nbLines < positions.length / 2 ? positions.length : positions.length * 2;
+        moveIndex(capacity);
+    }
+
+    private void moveIndex(int capacity) {
+        long[] newPositions = capacity == positions.length ? positions : new long[capacity];
+        int[] newLengths = capacity == lengths.length ? lengths : new int[capacity];
+        System.arraycopy(positions, indexStart, newPositions, 0, nbLines);
+        System.arraycopy(lengths, indexStart, newLengths, 0, nbLines);
+        positions = newPositions;
+        lengths = newLengths;
+        indexStart = 0;
+    }
+
+    /**
+     * Decodes the line with the given ID.
+     *
+     * @param lineId
+     *         the ID returned by {@link #append(String)} when the line was stored
+     * @return the line with the given ID
+     * @throws IllegalStateException
+     *         if the line has been discarded
+     */
+    @NotNull
+    public String getLine(long lineId) {
+        ByteBuffer segment;
+        int offset;
+        int length;
+        synchronized (this) {
+            if (lineId < 0 || lineId >= firstLineId + nbLines) {
+                throw new IndexOutOfBoundsException("No line with ID " + lineId + " in this store");
+            }
+            if (lineId < firstLineId) {
+                throw new IllegalStateException("The line " + lineId + " has been discarded");
+            }
+            int index = indexStart + (int) (lineId - firstLineId);
+            segment = segments.get((int) ((positions[index] >>> 32) - firstSegmentNumber));
+            offset = (int) positions[index];
+            length = lengths[index];
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = segment.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Discards the lines stored before the given line, releasing their index entries and the segments which only
+     * contain such lines. The discarded lines can't be accessed anymore.
+     *
+     * @param lineId
+     *         the ID of the first line to keep, or the number of lines ever appended to discard all of them
+     */
+    public synchronized void discardBefore(long lineId) {
+        long endLineId = firstLineId + nbLines;
+        if (lineId <= firstLineId) {
+            return;
+        }
+        lineId = Math.min(lineId, endLineId);
+        long firstSegmentToKeep;
+        if (lineId == endLineId) {
+            // keep the current segment for the next lines to come
+            firstSegmentToKeep = firstSegmentNumber + segments.size() - 1;
+        } else {
+            firstSegmentToKeep = positions[indexStart + (int) (lineId - firstLineId)] >>> 32;
+        }
+        while (firstSegmentNumber < firstSegmentToKeep) {
+            // the direct memory is released when the buffer is garbage collected
+            allocatedBytes -= segments.remove(0).capacity();
+            firstSegmentNumber++;
+        }
+        int nbDiscardedLines = (int) (lineId - firstLineId);
+        indexStart += nbDiscardedLines;
+        nbLines -= nbDiscardedLines;
+        firstLineId = lineId;
+        if (nbLines < positions.length / 4 && positions.length > INITIAL_INDEX_CAPACITY) {
+            moveIndex(positions.length / 2);
+        }
+    }
+
+    /**
+     * @return the number of lines appended to this store since its creation, including discarded lines
+     */
+    public synchronized long size() {
+        return firstLineId + nbLines;
+    }
+
+    /**
+     * @return the number of lines in this store that are not discarded
+     */
+    public synchronized int getNbLines() {
+        return nbLines;
+    }
+
+    /**
+     * @return the number of lines this store can index before growing its index, which is kept on the heap
+     */
+    synchronized int getIndexCapacity() {
+        return positions.length;
+    }
+
+    /**
+     * @return the number of bytes currently allocated outside of the heap by this store
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
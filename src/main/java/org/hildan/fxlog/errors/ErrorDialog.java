@@ -196,10 +196,59 @@ public class ErrorDialog {
         alert.showAndWait();
     }
 
+    public static void noTimestampColumn(String columnizerName) {
+        Alert alert = new Alert(AlertType.WARNING);
+        alert.setTitle("No Timestamp Column");
+        alert.setHeaderText(String.format("The columnizer '%s' has no timestamp column.", columnizerName));
+        alert.setContentText("Set the type of the date/time column to 'Timestamp' in the columnizers window.");
+        alert.showAndWait();
+    }
+
+    public static void noTimestampFound(String columnName) {
+        Alert alert = new Alert(AlertType.WARNING);
+        alert.setTitle("No Timestamp Found");
+        alert.setHeaderText(String.format("The logs have no parsable date/time in the column '%s'.", columnName));
+        alert.setContentText("The format of the column may be wrong, it can be changed in the columnizers window.");
+        alert.showAndWait();
+    }
+
+    public static void unknownTimeFormat(String time) {
+        Alert alert = new Alert(AlertType.WARNING);
+        alert.setTitle("Unknown Time Format");
+        alert.setHeaderText(String.format("'%s' is not a known date/time format.", time));
+        alert.setContentText("Try a time such as 14:32:05, or a date and time such as 2017-01-01 14:32:05.");
+        alert.showAndWait();
+    }
+
     public static void recentFileNotFound(String path) {
         Alert alert = new Alert(AlertType.WARNING);
         alert.setTitle("File Not Found");
         alert.setHeaderText(String.format("The file '%s' does not exist anymore.", path));
         alert.showAndWait();
     }
+
+    public static void logFileOpenException(String path, Throwable e) {
+        String title = "Log File Error";
+        String header = "Could not open the log file";
+        String content = String.format("An error occurred while opening the file '%s'.", path);
+        Alert alert = createExceptionDialog(AlertType.ERROR, title, header, content, e);
+        alert.showAndWait();
+    }
+
+    public static void logFileCloseException(String path, Throwable e) {
+        String title = "Log File Error";
+        String header = "Could not close the log file";
+        String content = String.format("An error occurred while closing the file '%s'.", path);
+        Alert alert = createExceptionDialog(AlertType.ERROR, title, header, content, e);
+        alert.showAndWait();
+    }
+
+    public static void socketListenException(int port, Throwable e) {
+        String title = "Socket Error";
+        String header = String.format("Could not listen on port %d", port);
+        String content = "The port may already be in use by another program. A different port can be chosen in the "
+                + "preferences.";
+        Alert alert = createExceptionDialog(AlertType.ERROR, title, header, content, e);
+        alert.showAndWait();
+    }
 }
@@ -1,5 +1,6 @@
 package org.hildan.fxlog.filtering;
 
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -12,13 +13,21 @@ import javafx.beans.property.StringProperty;
 import javafx.beans.value.ObservableValue;
 
 import org.hildan.fx.bindings.rulesets.Matcher;
+import org.hildan.fxlog.columns.ColumnDictionary;
+import org.hildan.fxlog.columns.ColumnValues;
 import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.regex.RegexGuard;
 import org.intellij.lang.annotations.RegExp;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * A log filter based on a regexp matching the raw log entry or a column in a log.
+ * <p>
+ * The regexp is applied through {@link RegexGuard}, so a log that takes too long to match is considered not matching.
+ * <p>
+ * On a column whose values are stored in a {@link ColumnDictionary}, the regexp is only applied once per distinct
+ * value, and the logs are then matched by comparing their codes.
  */
 public class Filter implements Matcher<LogEntry> {
 
@@ -42,6 +51,8 @@ public class Filter implements Matcher<LogEntry> {
 
     private final Property<Pattern> pattern;
 
+    private transient volatile DictionaryMatches dictionaryMatches;
+
     /**
      * Creates a new filter.
      *
@@ -182,15 +193,70 @@ public class Filter implements Matcher<LogEntry> {
             return false;
         }
         if (columnName.get() == null) {
-            return pattern.getValue().matcher(log.rawLine()).find();
+            return RegexGuard.find(pattern.getValue(), log.rawLine());
         } else {
-            String columnValue = log.getColumnValues().get(columnName.get());
-            return columnValue != null && pattern.getValue().matcher(columnValue).find();
+            Map<String, String> columnValues = log.getColumnValues();
+            CharSequence columnValue;
+            if (columnValues instanceof ColumnValues) {
+                ColumnValues encodedValues = (ColumnValues) columnValues;
+                int code = encodedValues.getCode(columnName.get());
+                if (code != ColumnDictionary.NOT_ENCODED) {
+                    return matchesCode(encodedValues.getDictionary(columnName.get()), code);
+                }
+                // matched in place, without extracting the value from the raw line
+                columnValue = encodedValues.getCharSequence(columnName.get());
+            } else {
+                columnValue = columnValues.get(columnName.get());
+            }
+            return columnValue != null && RegexGuard.find(pattern.getValue(), columnValue);
         }
     }
 
+    private boolean matchesCode(ColumnDictionary dictionary, int code) {
+        DictionaryMatches matches = dictionaryMatches;
+        Pattern currentPattern = pattern.getValue();
+        if (matches == null || matches.dictionary != dictionary || matches.pattern != currentPattern) {
+            matches = new DictionaryMatches(dictionary, currentPattern);
+            dictionaryMatches = matches;
+        }
+        return matches.test(code);
+    }
+
     @Override
     public Binding<Boolean> matches(ObservableValue<LogEntry> logObservable) {
         return Bindings.createBooleanBinding(() -> test(logObservable.getValue()), logObservable, pattern, columnName);
     }
+
+    /**
+     * The results of the pattern of a filter on the values of a dictionary, computed when a code is first seen.
+     */
+    private static class DictionaryMatches {
+
+        private static final byte UNKNOWN = 0;
+
+        private static final byte MATCHING = 1;
+
+        private static final byte NOT_MATCHING = 2;
+
+        private final ColumnDictionary dictionary;
+
+        private final Pattern pattern;
+
+        private final byte[] results = new byte[ColumnDictionary.MAX_SIZE];
+
+        DictionaryMatches(ColumnDictionary dictionary, Pattern pattern) {
+            this.dictionary = dictionary;
+            this.pattern = pattern;
+        }
+
+        boolean test(int code) {
+            byte result = results[code];
+            if (result == UNKNOWN) {
+                // concurrent threads may compute the same result, which is harmless
+                result = RegexGuard.find(pattern, dictionary.decode(code)) ? MATCHING : NOT_MATCHING;
+                results[code] = result;
+            }
+            return result == MATCHING;
+        }
+    }
 }
@@ -0,0 +1,416 @@
+package org.hildan.fxlog.filtering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import javafx.collections.ListChangeListener.Change;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.data.LogEntry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A view of a list of logs that only contains the logs within a time range, based on a typed timestamp column.
+ * <p>
+ * Instead of testing every log against the range, this list indexes the runs of logs whose timestamps are increasing.
+ * Logs are mostly written in chronological order, so there are few runs, and the logs of each run that are within the
+ * range are found by binary search. A log without timestamp, such as a line of a stack trace, takes the timestamp of
+ * the previous log of its run, so that it stays with the log it belongs to.
+ * <p>
+ * The index is only built while a range is set, so that logs columnized on demand are not parsed for nothing. It is
+ * updated incrementally when logs are added at the end or removed from the beginning, as it happens when tailing a
+ * file, and it is kept when only the bounds of the range change, as they do while a time is being typed. When no range
+ * is set, this list contains all the logs of its source.
+ */
+public class TimeRangeList extends TransformationList<LogEntry, LogEntry> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The column to read the timestamps from, or null if no range is set.
+     */
+    private String timestampColumn;
+
+    private long from;
+
+    private long to;
+
+    /**
+     * The indexes in the source list of the logs within the range, in increasing order.
+     */
+    private int[] matchingIndexes = new int[INITIAL_CAPACITY];
+
+    private int nbMatchingLogs;
+
+    /**
+     * The index in the source list of the first log of each run of increasing timestamps.
+     */
+    private int[] runStarts = new int[INITIAL_CAPACITY];
+
+    private int nbRuns;
+
+    /**
+     * The column the runs were indexed from, or null if the runs are not up to date with the source list.
+     */
+    private String indexedColumn;
+
+    /**
+     * The last timestamp of the last run, to know whether the logs added at the end extend it.
+     */
+    private long lastTimestamp;
+
+    /**
+     * Creates a new TimeRangeList containing all the logs of the given list, until a range is set.
+     *
+     * @param source
+     *         the logs to filter
+     */
+    public TimeRangeList(@NotNull ObservableList<LogEntry> source) {
+        super(source);
+    }
+
+    /**
+     * Restricts this list to the logs within the given range.
+     *
+     * @param timestampColumn
+     *         the name of the column to read the timestamps from, which should be a typed timestamp column
+     * @param from
+     *         the start of the range, inclusive, in milliseconds since the epoch
+     * @param to
+     *         the end of the range, inclusive, in milliseconds since the epoch
+     */
+    public void setRange(@NotNull String timestampColumn, long from, long to) {
+        updateRange(timestampColumn, from, to);
+    }
+
+    /**
+     * Removes the time range, so that this list contains all the logs of its source.
+     */
+    public void clearRange() {
+        updateRange(null, 0, 0);
+    }
+
+    /**
+     * Returns whether a time range is currently restricting this list.
+     *
+     * @return true if a range is set
+     */
+    public boolean isRangeSet() {
+        return timestampColumn != null;
+    }
+
+    /**
+     * Forgets the index of the runs, so that it is rebuilt for the next range. This is necessary when the timestamps
+     * of the logs change while the source list doesn't, as it happens when the logs are columnized on demand and the
+     * columnizer changes.
+     */
+    public void invalidateIndex() {
+        indexedColumn = null;
+    }
+
+    private void updateRange(@Nullable String timestampColumn, long from, long to) {
+        if (this.timestampColumn == null && timestampColumn == null) {
+            return;
+        }
+        boolean sameRange = Objects.equals(this.timestampColumn, timestampColumn) && this.from == from && this.to == to;
+        if (sameRange && timestampColumn.equals(indexedColumn)) {
+            return;
+        }
+        List<LogEntry> previousLogs = new ArrayList<>(this);
+        this.timestampColumn = timestampColumn;
+        this.from = from;
+        this.to = to;
+        nbMatchingLogs = 0;
+        if (timestampColumn != null) {
+            if (!timestampColumn.equals(indexedColumn)) {
+                nbRuns = 0;
+                lastTimestamp = ColumnType.MISSING;
+                indexRuns(0);
+                indexedColumn = timestampColumn;
+            }
+            for (int run = 0; run < nbRuns; run++) {
+                addMatchingLogsOfRun(run);
+            }
+        }
+        beginChange();
+        if (!previousLogs.isEmpty()) {
+            nextRemove(0, previousLogs);
+        }
+        if (!isEmpty()) {
+            nextAdd(0, size());
+        }
+        endChange();
+    }
+
+    @Override
+    protected void sourceChanged(Change<? extends LogEntry> c) {
+        if (timestampColumn == null) {
+            // the runs are not maintained without range, they will be indexed again for the next one
+            indexedColumn = null;
+            forwardChange(c);
+            return;
+        }
+        updateRuns(c);
+        c.reset();
+        beginChange();
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                permuteMatchingLogs(c);
+            } else if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    int viewIndex = getViewIndex(i);
+                    if (viewIndex >= 0) {
+                        nextUpdate(viewIndex);
+                    }
+                }
+            } else {
+                replaceMatchingLogs(c);
+            }
+        }
+        endChange();
+    }
+
+    private void forwardChange(Change<? extends LogEntry> c) {
+        beginChange();
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                int[] permutation = new int[c.getTo() - c.getFrom()];
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    permutation[i - c.getFrom()] = c.getPermutation(i);
+                }
+                nextPermutation(c.getFrom(), c.getTo(), permutation);
+            } else if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    nextUpdate(i);
+                }
+            } else {
+                if (c.wasRemoved()) {
+                    nextRemove(c.getFrom(), c.getRemoved());
+                }
+                if (c.wasAdded()) {
+                    nextAdd(c.getFrom(), c.getTo());
+                }
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Updates the runs to the new content of the source list. Only removals at the beginning and additions at the end
+     * are applied incrementally, any other change re-indexes the whole list.
+     */
+    private void updateRuns(Change<? extends LogEntry> c) {
+        int sourceSize = getSource().size();
+        while (c.next()) {
+            if (c.wasUpdated()) {
+                continue;
+            }
+            if (sourceSize == 0) {
+                nbRuns = 0;
+                lastTimestamp = ColumnType.MISSING;
+            } else if (c.getFrom() == 0 && c.wasRemoved() && !c.wasAdded()) {
+                removeRunsHead(c.getRemovedSize());
+            } else if (c.getTo() == sourceSize && !c.wasRemoved() && !c.wasPermutated()) {
+                indexRuns(c.getFrom());
+            } else {
+                nbRuns = 0;
+                lastTimestamp = ColumnType.MISSING;
+                indexRuns(0);
+                return;
+            }
+        }
+    }
+
+    private void indexRuns(int start) {
+        for (int i = start; i < getSource().size(); i++) {
+            long timestamp = timestampAt(i);
+            if (nbRuns == 0 || (timestamp != ColumnType.MISSING && timestamp < lastTimestamp)) {
+                runStarts = ensureCapacity(runStarts, nbRuns + 1);
+                runStarts[nbRuns++] = i;
+            }
+            if (timestamp != ColumnType.MISSING) {
+                lastTimestamp = timestamp;
+            }
+        }
+    }
+
+    private void removeRunsHead(int nbRemovedLogs) {
+        int firstKeptRun = 0;
+        while (firstKeptRun + 1 < nbRuns && runStarts[firstKeptRun + 1] <= nbRemovedLogs) {
+            firstKeptRun++;
+        }
+        nbRuns -= firstKeptRun;
+        System.arraycopy(runStarts, firstKeptRun, runStarts, 0, nbRuns);
+        for (int run = 0; run < nbRuns; run++) {
+            // the first kept run may have lost its first logs
+            runStarts[run] = Math.max(0, runStarts[run] - nbRemovedLogs);
+        }
+    }
+
+    private void addMatchingLogsOfRun(int run) {
+        int start = runStarts[run];
+        int end = run + 1 < nbRuns ? runStarts[run + 1] : getSource().size();
+        int firstMatch = findFirstInRun(start, end, timestamp -> timestamp < from);
+        int endMatch = findFirstInRun(firstMatch, end, timestamp -> timestamp <= to);
+        matchingIndexes = ensureCapacity(matchingIndexes, nbMatchingLogs + endMatch - firstMatch);
+        for (int i = firstMatch; i < endMatch; i++) {
+            matchingIndexes[nbMatchingLogs++] = i;
+        }
+    }
+
+    /**
+     * Finds the first log of the given part of a run whose timestamp doesn't satisfy the given condition, which must
+     * hold for the first logs of the run only.
+     */
+    private int findFirstInRun(int start, int end, LongPredicate isBefore) {
+        int runStart = findRunStart(start);
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isBefore.test(inheritedTimestampAt(mid, runStart))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void replaceMatchingLogs(Change<? extends LogEntry> c) {
+        int start = c.getFrom();
+        int viewStart = findViewIndex(start);
+        if (c.wasRemoved()) {
+            int viewEnd = findViewIndex(start + c.getRemovedSize());
+            if (viewEnd > viewStart) {
+                List<LogEntry> removedLogs = new ArrayList<>(viewEnd - viewStart);
+                for (int k = viewStart; k < viewEnd; k++) {
+                    removedLogs.add(c.getRemoved().get(matchingIndexes[k] - start));
+                }
+                System.arraycopy(matchingIndexes, viewEnd, matchingIndexes, viewStart, nbMatchingLogs - viewEnd);
+                nbMatchingLogs -= viewEnd - viewStart;
+                nextRemove(viewStart, removedLogs);
+            }
+        }
+        int shift = c.getAddedSize() - c.getRemovedSize();
+        for (int k = viewStart; k < nbMatchingLogs; k++) {
+            matchingIndexes[k] += shift;
+        }
+        if (c.wasAdded()) {
+            int[] addedIndexes = new int[c.getAddedSize()];
+            int nbAddedLogs = 0;
+            for (int i = start; i < c.getTo(); i++) {
+                long timestamp = inheritedTimestampAt(i, findRunStart(i));
+                if (timestamp >= from && timestamp <= to) {
+                    addedIndexes[nbAddedLogs++] = i;
+                }
+            }
+            if (nbAddedLogs > 0) {
+                matchingIndexes = ensureCapacity(matchingIndexes, nbMatchingLogs + nbAddedLogs);
+                System.arraycopy(matchingIndexes, viewStart, matchingIndexes, viewStart + nbAddedLogs,
+                        nbMatchingLogs - viewStart);
+                System.arraycopy(addedIndexes, 0, matchingIndexes, viewStart, nbAddedLogs);
+                nbMatchingLogs += nbAddedLogs;
+                nextAdd(viewStart, viewStart + nbAddedLogs);
+            }
+        }
+    }
+
+    private void permuteMatchingLogs(Change<? extends LogEntry> c) {
+        int[] newIndexes = new int[nbMatchingLogs];
+        for (int k = 0; k < nbMatchingLogs; k++) {
+            int index = matchingIndexes[k];
+            newIndexes[k] = index >= c.getFrom() && index < c.getTo() ? c.getPermutation(index) : index;
+        }
+        int[] sortedIndexes = Arrays.copyOf(newIndexes, nbMatchingLogs);
+        Arrays.sort(sortedIndexes);
+        int[] permutation = new int[nbMatchingLogs];
+        for (int k = 0; k < nbMatchingLogs; k++) {
+            permutation[k] = Arrays.binarySearch(sortedIndexes, newIndexes[k]);
+        }
+        System.arraycopy(sortedIndexes, 0, matchingIndexes, 0, nbMatchingLogs);
+        nextPermutation(0, nbMatchingLogs, permutation);
+    }
+
+    private long timestampAt(int sourceIndex) {
+        return getSource().get(sourceIndex).getTypedValue(timestampColumn);
+    }
+
+    /**
+     * Returns the timestamp of the given log, or the one of the closest previous log of its run if it has none.
+     */
+    private long inheritedTimestampAt(int sourceIndex, int runStart) {
+        for (int i = sourceIndex; i >= runStart; i--) {
+            long timestamp = timestampAt(i);
+            if (timestamp != ColumnType.MISSING) {
+                return timestamp;
+            }
+        }
+        return ColumnType.MISSING;
+    }
+
+    private int findRunStart(int sourceIndex) {
+        int run = Arrays.binarySearch(runStarts, 0, nbRuns, sourceIndex);
+        if (run < 0) {
+            run = -run - 2;
+        }
+        return run < 0 ? 0 : runStarts[run];
+    }
+
+    /**
+     * Returns the index in this list of the first matching log at or after the given source index.
+     */
+    private int findViewIndex(int sourceIndex) {
+        int viewIndex = Arrays.binarySearch(matchingIndexes, 0, nbMatchingLogs, sourceIndex);
+        return viewIndex < 0 ? -viewIndex - 1 : viewIndex;
+    }
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        if (capacity <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(capacity, 2 * array.length));
+    }
+
+    @Override
+    public int getSourceIndex(int index) {
+        if (timestampColumn == null) {
+            return index;
+        }
+        if (index < 0 || index >= nbMatchingLogs) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + nbMatchingLogs);
+        }
+        return matchingIndexes[index];
+    }
+
+    /**
+     * Returns the index in this list of the log at the given index in the source list.
+     *
+     * @param index
+     *         an index in the source list
+     * @return the index of the same log in this list, or -1 if it is not within the range
+     */
+    public int getViewIndex(int index) {
+        if (timestampColumn == null) {
+            return index;
+        }
+        int viewIndex = Arrays.binarySearch(matchingIndexes, 0, nbMatchingLogs, index);
+        return viewIndex < 0 ? -1 : viewIndex;
+    }
+
+    @Override
+    public LogEntry get(int index) {
+        return getSource().get(getSourceIndex(index));
+    }
+
+    @Override
+    public int size() {
+        return timestampColumn == null ? getSource().size() : nbMatchingLogs;
+    }
+}
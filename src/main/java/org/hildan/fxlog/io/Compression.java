@@ -0,0 +1,57 @@
+package org.hildan.fxlog.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The compression formats of the log files that can be read without unpacking them first.
+ */
+public enum Compression {
+
+    /**
+     * Plain text file.
+     */
+    NONE,
+
+    /**
+     * Gzip file, possibly made of several concatenated members.
+     */
+    GZIP,
+
+    /**
+     * Zip archive, whose entries are read one after the other as a single log.
+     */
+    ZIP;
+
+    /**
+     * Detects the compression format of the given file based on its first bytes, whatever its extension.
+     *
+     * @param path
+     *         the file to inspect
+     * @return the compression format of the file, or {@link #NONE} if it is not a supported compressed format
+     * @throws IOException
+     *         if an error occurs while reading the file
+     */
+    @NotNull
+    public static Compression detect(@NotNull Path path) throws IOException {
+        byte[] magic = new byte[4];
+        int nbRead = 0;
+        try (InputStream in = Files.newInputStream(path)) {
+            int count;
+            while (nbRead < magic.length && (count = in.read(magic, nbRead, magic.length - nbRead)) > 0) {
+                nbRead += count;
+            }
+        }
+        if (nbRead >= 2 && magic[0] == (byte) 0x1F && magic[1] == (byte) 0x8B) {
+            return GZIP;
+        }
+        if (nbRead >= 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            return ZIP;
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,285 @@
+package org.hildan.fxlog.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import org.hildan.fxlog.columns.Columnizer;
+import org.hildan.fxlog.data.LogEntry;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A virtual list of the logs of a file, which doesn't hold the logs in memory.
+ * <p>
+ * The whole file is seen as a list of its full line count, thanks to a {@link LineIndex}. The logs are read from a
+ * memory-mapped window of the file and columnized only when they are accessed, which, for a table, means the visible
+ * rows. A small cache keeps the recently accessed logs and the next few ones to make scrolling smooth.
+ * <p>
+ * This list is read-only, and must only be accessed from the UI thread. The file is indexed and polled for new lines
+ * in the background once {@link #start(long)} is called. The index is saved when the file has been indexed, and when
+ * this list is closed, so that the file can be re-opened without scanning it again.
+ */
+public class FileBackedLogList extends ObservableListBase<LogEntry> implements Closeable {
+
+    private static final int CACHE_SIZE = 4096;
+
+    private static final int SCROLL_AHEAD = 128;
+
+    private static final long WINDOW_SIZE = 32L * 1024 * 1024;
+
+    private final Path path;
+
+    private final Charset charset;
+
+    private final FileChannel channel;
+
+    private LineIndex index;
+
+    private final Map<Integer, LogEntry> cache;
+
+    private volatile boolean running;
+
+    private Thread indexer;
+
+    private Columnizer columnizer;
+
+    private int size;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    /**
+     * Opens the given file as a list of logs. The list remains empty until {@link #start(long)} is called.
+     *
+     * @param path
+     *         the path of the file to read
+     * @param charset
+     *         the charset to use to decode the lines of the file
+     * @param columnizer
+     *         the columnizer to use to columnize the logs of the file
+     * @throws IOException
+     *         if the file can't be opened
+     */
+    public FileBackedLogList(@NotNull Path path, @NotNull Charset charset, @NotNull Columnizer columnizer)
+            throws IOException {
+        this.path = path;
+        this.charset = charset;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.index = new LineIndex();
+        this.columnizer = columnizer;
+        this.cache = new LinkedHashMap<Integer, LogEntry>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LogEntry> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Starts indexing the file in the background, and then polls it for new lines with the given period.
+     *
+     * @param pollingPeriodMillis
+     *         the time to wait between 2 checks for new lines, in milliseconds
+     */
+    public void start(long pollingPeriodMillis) {
+        running = true;
+        indexer = new Thread(() -> pollFile(pollingPeriodMillis), "File Indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    private void pollFile(long pollingPeriodMillis) {
+        try {
+            // only the part of the file that was not indexed last time it was opened needs to be scanned
+            LineIndex scannedIndex = LineIndexCache.load(path, channel);
+            long savedLength = scannedIndex.getIndexedLength();
+            publish(scannedIndex);
+            boolean initialScan = true;
+            while (running) {
+                if (channel.size() < scannedIndex.getIndexedLength()) {
+                    // the file was truncated, we start over with a new index to keep the current one consistent
+                    scannedIndex = new LineIndex();
+                }
+                if (scannedIndex.extend(channel)) {
+                    publish(scannedIndex);
+                }
+                if (initialScan) {
+                    savedLength = save(scannedIndex, savedLength);
+                    initialScan = false;
+                }
+                Thread.sleep(pollingPeriodMillis);
+            }
+            save(scannedIndex, savedLength);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running) {
+                // will be handled as a dialog at top level
+                throw new RuntimeException("Exception while reading the log file", e);
+            }
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void publish(LineIndex scannedIndex) {
+        int lineCount = scannedIndex.getLineCount();
+        Platform.runLater(() -> updateSize(scannedIndex, lineCount));
+    }
+
+    private long save(LineIndex scannedIndex, long savedLength) {
+        if (scannedIndex.getIndexedLength() == savedLength) {
+            return savedLength;
+        }
+        try {
+            LineIndexCache.save(path, channel, scannedIndex);
+            return scannedIndex.getIndexedLength();
+        } catch (IOException e) {
+            // the file can still be browsed, it will just have to be scanned again next time
+            System.err.println("Could not save the index of " + path + ": " + e.getMessage());
+            return savedLength;
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Could not close " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void updateSize(LineIndex scannedIndex, int lineCount) {
+        if (!running) {
+            return;
+        }
+        boolean newIndex = scannedIndex != index;
+        int oldSize = size;
+        index = scannedIndex;
+        size = lineCount;
+        // the last line may have been incomplete
+        cache.remove(oldSize - 1);
+        beginChange();
+        if (newIndex) {
+            cache.clear();
+            // the file may have been truncated, and the old window may now be beyond the end of the file
+            window = null;
+            if (oldSize > 0) {
+                nextRemove(0, Collections.nCopies(oldSize, null));
+            }
+            nextAdd(0, lineCount);
+        } else {
+            if (oldSize > 0) {
+                nextUpdate(oldSize - 1);
+            }
+            nextAdd(oldSize, lineCount);
+        }
+        endChange();
+    }
+
+    /**
+     * Changes the columnizer used for the logs of this list. The logs are columnized again when they are accessed.
+     *
+     * @param columnizer
+     *         the new columnizer to use
+     */
+    public void setColumnizer(@NotNull Columnizer columnizer) {
+        this.columnizer = columnizer;
+        cache.clear();
+    }
+
+    @Override
+    public LogEntry get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        LogEntry log = cache.get(index);
+        if (log == null) {
+            // the next rows are likely to be displayed soon
+            int end = Math.min(size, index + SCROLL_AHEAD);
+            for (int i = index + 1; i < end; i++) {
+                if (!cache.containsKey(i)) {
+                    cache.put(i, readLog(i));
+                }
+            }
+            log = readLog(index);
+            cache.put(index, log);
+        }
+        return log;
+    }
+
+    /**
+     * Gets the log at the given index without caching it or the next ones, for the accesses that jump around the
+     * file, such as a binary search.
+     *
+     * @param index
+     *         the index of the log to get
+     * @return the log at the given index
+     */
+    public LogEntry peek(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        LogEntry log = cache.get(index);
+        return log != null ? log : readLog(index);
+    }
+
+    private LogEntry readLog(int lineIndex) {
+        long start = index.getLineStart(lineIndex);
+        long end = index.getLineEnd(lineIndex);
+        String line = decode(start, (int) (end - start));
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        return columnizer.parse(line);
+    }
+
+    private String decode(long start, int length) {
+        try {
+            if (window == null || start < windowStart || start + length > windowStart + window.limit()) {
+                long windowLength = Math.min(Math.max(WINDOW_SIZE, length), index.getIndexedLength() - start);
+                window = channel.map(MapMode.READ_ONLY, start, windowLength);
+                windowStart = start;
+            }
+            ByteBuffer lineBytes = window.duplicate();
+            lineBytes.position((int) (start - windowStart));
+            lineBytes.limit(lineBytes.position() + length);
+            return charset.decode(lineBytes).toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Exception while reading the log file", e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Stops polling the file and releases it. If the file was being polled, it is released in the background, after
+     * saving its index.
+     *
+     * @throws IOException
+     *         if an error occurs while closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (indexer == null) {
+            channel.close();
+        }
+    }
+}
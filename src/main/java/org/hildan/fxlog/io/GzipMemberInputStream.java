@@ -0,0 +1,257 @@
+package org.hildan.fxlog.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.hildan.fxlog.io.GzipRestartIndex.RestartPoint;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decompresses a gzip file made of one or more members, starting at any member boundary.
+ * <p>
+ * Unlike {@link java.util.zip.GZIPInputStream}, this stream knows where each member starts in the compressed file, and
+ * reports it as a {@link RestartPoint}, along with the number of lines decompressed before it. This is what allows to
+ * build a {@link GzipRestartIndex} while reading the file.
+ * <p>
+ * The CRC and size in the trailer of each member are checked, so that a corrupt or truncated file is reported as such
+ * instead of being partially read.
+ * <p>
+ * The given channel is not closed when this stream is closed.
+ */
+public class GzipMemberInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int FLAG_HCRC = 2;
+
+    private static final int FLAG_EXTRA = 4;
+
+    private static final int FLAG_NAME = 8;
+
+    private static final int FLAG_COMMENT = 16;
+
+    private final FileChannel channel;
+
+    private final Consumer<RestartPoint> restartPointListener;
+
+    private final Inflater inflater;
+
+    private final ByteBuffer input;
+
+    private final CRC32 memberCrc;
+
+    private long memberOffset;
+
+    private long memberSize;
+
+    private long inputOffset;
+
+    private boolean inMember;
+
+    private long uncompressedOffset;
+
+    private long lineCount;
+
+    private boolean lineStart;
+
+    /**
+     * Creates a new GzipMemberInputStream.
+     *
+     * @param channel
+     *         a channel on the gzip file
+     * @param start
+     *         the restart point to start decompressing from, which must be the beginning of a member
+     * @param restartPointListener
+     *         a callback to notify of the beginning of each member, including the first one
+     */
+    public GzipMemberInputStream(@NotNull FileChannel channel, @NotNull RestartPoint start,
+                                 @NotNull Consumer<RestartPoint> restartPointListener) {
+        this.channel = channel;
+        this.restartPointListener = restartPointListener;
+        this.inflater = new Inflater(true);
+        this.input = ByteBuffer.allocate(BUFFER_SIZE);
+        this.input.limit(0);
+        this.memberCrc = new CRC32();
+        this.inputOffset = start.getCompressedOffset();
+        this.inMember = false;
+        this.uncompressedOffset = start.getUncompressedOffset();
+        this.lineCount = start.getLineNumber();
+        this.lineStart = start.isLineStart();
+    }
+
+    /**
+     * @return the number of lines terminated in the data decompressed so far
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] singleByte = new byte[1];
+        return read(singleByte, 0, 1) < 0 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (!inMember) {
+                if (!hasMoreInput() || peekByte() != 0x1F) {
+                    // trailing padding after the last member is ignored, like gzip does
+                    return -1;
+                }
+                startMember();
+            }
+            int nbInflated = inflate(b, off, len);
+            if (nbInflated > 0) {
+                memberCrc.update(b, off, nbInflated);
+                memberSize += nbInflated;
+                countLines(b, off, nbInflated);
+                return nbInflated;
+            }
+            if (inflater.finished()) {
+                input.position(input.limit() - inflater.getRemaining());
+                checkTrailer();
+                inMember = false;
+            } else if (inflater.needsInput()) {
+                input.position(input.limit());
+                if (!fill()) {
+                    throw new EOFException("Unexpected end of gzip file");
+                }
+                inflater.setInput(input.array(), input.position(), input.remaining());
+            } else if (inflater.needsDictionary()) {
+                throw new ZipException("Unsupported preset dictionary in gzip file");
+            }
+        }
+    }
+
+    private int inflate(byte[] b, int off, int len) throws ZipException {
+        try {
+            return inflater.inflate(b, off, len);
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt gzip file: " + e.getMessage());
+        }
+    }
+
+    private void countLines(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            if (b[i] == '\n') {
+                lineCount++;
+            }
+        }
+        uncompressedOffset += len;
+        lineStart = b[off + len - 1] == '\n';
+    }
+
+    private void startMember() throws IOException {
+        memberOffset = inputOffset + input.position();
+        restartPointListener.accept(new RestartPoint(memberOffset, uncompressedOffset, lineCount, lineStart));
+        readHeader();
+        inflater.reset();
+        inflater.setInput(input.array(), input.position(), input.remaining());
+        memberCrc.reset();
+        memberSize = 0;
+        inMember = true;
+    }
+
+    private void checkTrailer() throws IOException {
+        long expectedCrc = readUnsignedInt();
+        long expectedSize = readUnsignedInt();
+        if (expectedCrc != memberCrc.getValue()) {
+            throw new ZipException("Corrupt gzip file: CRC mismatch in the member at offset " + memberOffset);
+        }
+        // the size is only stored modulo 2^32
+        if (expectedSize != (memberSize & 0xFFFFFFFFL)) {
+            throw new ZipException("Corrupt gzip file: size mismatch in the member at offset " + memberOffset);
+        }
+    }
+
+    private long readUnsignedInt() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 4; i++) {
+            value |= (long) readByte() << (8 * i);
+        }
+        return value;
+    }
+
+    private void readHeader() throws IOException {
+        if (readByte() != 0x1F || readByte() != 0x8B) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (readByte() != 8) {
+            throw new ZipException("Unsupported compression method in gzip file");
+        }
+        int flags = readByte();
+        // modification time, extra flags and OS
+        skip(6);
+        if ((flags & FLAG_EXTRA) != 0) {
+            int extraLength = readByte() | (readByte() << 8);
+            skip(extraLength);
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            skipZeroTerminatedString();
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            skipZeroTerminatedString();
+        }
+        if ((flags & FLAG_HCRC) != 0) {
+            skip(2);
+        }
+    }
+
+    private void skipZeroTerminatedString() throws IOException {
+        while (readByte() != 0) {
+            // skipping the string
+        }
+    }
+
+    private void skip(int nbBytes) throws IOException {
+        for (int i = 0; i < nbBytes; i++) {
+            readByte();
+        }
+    }
+
+    private int peekByte() {
+        return input.get(input.position()) & 0xFF;
+    }
+
+    private int readByte() throws IOException {
+        if (!hasMoreInput()) {
+            throw new EOFException("Unexpected end of gzip file");
+        }
+        return input.get() & 0xFF;
+    }
+
+    private boolean hasMoreInput() throws IOException {
+        return input.hasRemaining() || fill();
+    }
+
+    /**
+     * Reads the next bytes of the file into the input buffer, which must have been fully consumed.
+     *
+     * @return false if the end of the file was reached
+     */
+    private boolean fill() throws IOException {
+        inputOffset += input.limit();
+        input.clear();
+        int nbRead = channel.read(input, inputOffset);
+        input.flip();
+        return nbRead > 0;
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+}
@@ -0,0 +1,207 @@
+package org.hildan.fxlog.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An index of the points of a gzip file where the decompression can start without inflating what comes before.
+ * <p>
+ * The deflate format only allows to restart the decompression at the beginning of a gzip member, so there is one
+ * restart point per member. Files compressed in independent blocks (like with {@code pigz --independent} or {@code
+ * bgzip}) or made of concatenated gzip files have many restart points, while a file compressed in one go only has one
+ * at its beginning.
+ * <p>
+ * The index is built while reading the whole file, and saved alongside the line indexes of big files, so that the next
+ * time the file is opened only its end needs to be inflated to get the most recent logs.
+ */
+public class GzipRestartIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String EXTENSION = ".gzi";
+
+    private final List<RestartPoint> restartPoints;
+
+    private long lineCount;
+
+    /**
+     * Creates a new empty index.
+     */
+    public GzipRestartIndex() {
+        this.restartPoints = new ArrayList<>();
+        this.lineCount = 0;
+    }
+
+    /**
+     * A point where the decompression can start.
+     */
+    public static class RestartPoint {
+
+        /**
+         * The restart point at the very beginning of a file.
+         */
+        public static final RestartPoint ORIGIN = new RestartPoint(0, 0, 0, true);
+
+        private final long compressedOffset;
+
+        private final long uncompressedOffset;
+
+        private final long lineNumber;
+
+        private final boolean lineStart;
+
+        /**
+         * Creates a new RestartPoint.
+         *
+         * @param compressedOffset
+         *         the offset of the gzip member in the compressed file
+         * @param uncompressedOffset
+         *         the offset of the first byte of the member in the uncompressed data
+         * @param lineNumber
+         *         the number of lines terminated before this point
+         * @param lineStart
+         *         whether a line starts at this point, meaning that the previous byte was a line terminator
+         */
+        public RestartPoint(long compressedOffset, long uncompressedOffset, long lineNumber, boolean lineStart) {
+            this.compressedOffset = compressedOffset;
+            this.uncompressedOffset = uncompressedOffset;
+            this.lineNumber = lineNumber;
+            this.lineStart = lineStart;
+        }
+
+        public long getCompressedOffset() {
+            return compressedOffset;
+        }
+
+        public long getUncompressedOffset() {
+            return uncompressedOffset;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public boolean isLineStart() {
+            return lineStart;
+        }
+    }
+
+    /**
+     * Adds a restart point at the end of this index.
+     *
+     * @param restartPoint
+     *         the restart point to add, which must be after the last one
+     */
+    public void add(@NotNull RestartPoint restartPoint) {
+        restartPoints.add(restartPoint);
+    }
+
+    /**
+     * @return the total number of lines of the indexed file
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(long lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Finds the last restart point before the given line, from which all the lines after the given one can be read.
+     *
+     * @param lineNumber
+     *         the index of the first line that needs to be read
+     * @return the last restart point where the given line or a previous one starts
+     */
+    @NotNull
+    public RestartPoint findRestartPoint(long lineNumber) {
+        RestartPoint found = RestartPoint.ORIGIN;
+        for (RestartPoint point : restartPoints) {
+            // if the point is in the middle of a line, the part before it can't be read from there
+            long firstCompleteLine = point.isLineStart() ? point.getLineNumber() : point.getLineNumber() + 1;
+            if (firstCompleteLine > lineNumber) {
+                break;
+            }
+            found = point;
+        }
+        return found;
+    }
+
+    /**
+     * Retrieves the saved index of the given file, if the file hasn't changed since it was saved.
+     *
+     * @param file
+     *         the gzip file to get the index of
+     * @return the saved index of the given file, or null if there is no valid saved index
+     */
+    @Nullable
+    public static GzipRestartIndex load(@NotNull Path file) {
+        Path indexFile = LineIndexCache.getIndexFile(file, EXTENSION);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(file.toAbsolutePath().toString())) {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (in.readLong() != attributes.size() || in.readLong() != attributes.lastModifiedTime().toMillis()) {
+                return null;
+            }
+            GzipRestartIndex index = new GzipRestartIndex();
+            index.setLineCount(in.readLong());
+            int nbPoints = in.readInt();
+            for (int i = 0; i < nbPoints; i++) {
+                index.add(new RestartPoint(in.readLong(), in.readLong(), in.readLong(), in.readBoolean()));
+            }
+            return index;
+        } catch (NoSuchFileException e) {
+            // nothing saved for this file
+        } catch (IOException e) {
+            System.err.println("Could not read the saved index of " + file + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Saves this index as the index of the given file, replacing any previously saved index for this file.
+     *
+     * @param file
+     *         the indexed gzip file
+     * @throws IOException
+     *         if an error occurs while writing the index
+     */
+    public void save(@NotNull Path file) throws IOException {
+        Files.createDirectories(LineIndexCache.INDEX_DIR);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Path indexFile = LineIndexCache.getIndexFile(file, EXTENSION);
+        Path tmpFile = Files.createTempFile(LineIndexCache.INDEX_DIR, indexFile.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(file.toAbsolutePath().toString());
+            out.writeLong(attributes.size());
+            out.writeLong(attributes.lastModifiedTime().toMillis());
+            out.writeLong(lineCount);
+            out.writeInt(restartPoints.size());
+            for (RestartPoint point : restartPoints) {
+                out.writeLong(point.getCompressedOffset());
+                out.writeLong(point.getUncompressedOffset());
+                out.writeLong(point.getLineNumber());
+                out.writeBoolean(point.isLineStart());
+            }
+        }
+        Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LineIndexCache.deleteOldIndexes(EXTENSION);
+    }
+}
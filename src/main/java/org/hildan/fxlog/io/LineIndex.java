@@ -0,0 +1,238 @@
+package org.hildan.fxlog.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * A compact index of the positions of the lines of a file, allowing random access to any line without reading the
+ * whole file.
+ * <p>
+ * The start offsets of the lines are stored in pages of primitive longs, so that files with hundreds of millions of
+ * lines can be indexed without huge contiguous allocations. The index can be extended as the file grows.
+ */
+public class LineIndex {
+
+    private static final int PAGE_BITS = 16;
+
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final long SCAN_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private long[][] pages;
+
+    private int lineCount;
+
+    private long indexedLength;
+
+    private boolean endsWithNewline;
+
+    /**
+     * Creates a new empty index.
+     */
+    public LineIndex() {
+        reset();
+    }
+
+    /**
+     * Clears this index, as if no byte had been indexed.
+     */
+    public synchronized void reset() {
+        pages = new long[16][];
+        lineCount = 0;
+        indexedLength = 0;
+        // the first byte of the file starts a line
+        endsWithNewline = true;
+    }
+
+    /**
+     * Indexes the part of the given file that was not indexed yet. Big parts are scanned in parallel chunks.
+     *
+     * @param channel
+     *         a channel on the indexed file
+     * @return true if new bytes have been indexed, false if the file hasn't grown
+     * @throws IOException
+     *         if an error occurred while reading the file
+     */
+    public boolean extend(FileChannel channel) throws IOException {
+        long from = getIndexedLength();
+        long to = channel.size();
+        if (to <= from) {
+            return false;
+        }
+        List<long[]> newlinesPerChunk;
+        try {
+            newlinesPerChunk = scanInChunks(channel, from, to);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        synchronized (this) {
+            if (endsWithNewline) {
+                addLine(from);
+            }
+            for (long[] newlinePositions : newlinesPerChunk) {
+                for (long newlinePosition : newlinePositions) {
+                    if (newlinePosition + 1 < to) {
+                        addLine(newlinePosition + 1);
+                    }
+                }
+            }
+            long[] lastChunk = newlinesPerChunk.get(newlinesPerChunk.size() - 1);
+            endsWithNewline = lastChunk.length > 0 && lastChunk[lastChunk.length - 1] == to - 1;
+            indexedLength = to;
+        }
+        return true;
+    }
+
+    private static List<long[]> scanInChunks(FileChannel channel, long from, long to) {
+        int nbChunks = (int) ((to - from + SCAN_CHUNK_SIZE - 1) / SCAN_CHUNK_SIZE);
+        LongStream chunkStarts = LongStream.range(0, nbChunks).map(chunk -> from + chunk * SCAN_CHUNK_SIZE);
+        if (nbChunks > 1) {
+            chunkStarts = chunkStarts.parallel();
+        }
+        return chunkStarts.mapToObj(start -> {
+            try {
+                return findNewlines(channel, start, Math.min(to, start + SCAN_CHUNK_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).collect(Collectors.toList());
+    }
+
+    private static long[] findNewlines(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, end - start);
+        long[] positions = new long[1024];
+        int count = 0;
+        int length = buffer.limit();
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count++] = start + i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private void addLine(long start) {
+        int pageIndex = lineCount >>> PAGE_BITS;
+        if (pageIndex == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[pageIndex] == null) {
+            pages[pageIndex] = new long[PAGE_SIZE];
+        }
+        pages[pageIndex][lineCount & PAGE_MASK] = start;
+        lineCount++;
+    }
+
+    /**
+     * @return the number of lines in the indexed part of the file, including the last line even if it doesn't end
+     * with a line terminator yet
+     */
+    public synchronized int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of bytes of the file that have been indexed
+     */
+    public synchronized long getIndexedLength() {
+        return indexedLength;
+    }
+
+    /**
+     * Gets the offset of the first byte of the given line.
+     *
+     * @param lineIndex
+     *         the index of the line in the file
+     * @return the offset of the first byte of the line in the file
+     */
+    public synchronized long getLineStart(int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + lineIndex + " is not indexed, line count: " + lineCount);
+        }
+        return pages[lineIndex >>> PAGE_BITS][lineIndex & PAGE_MASK];
+    }
+
+    /**
+     * Writes this index to the given output, so that it can be read back with {@link #readFrom(DataInput)}.
+     *
+     * @param out
+     *         the output to write to
+     * @throws IOException
+     *         if an error occurs while writing
+     */
+    synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeLong(indexedLength);
+        out.writeBoolean(endsWithNewline);
+        out.writeInt(lineCount);
+        ByteBuffer bytes = ByteBuffer.allocate(PAGE_SIZE * Long.BYTES);
+        for (int start = 0; start < lineCount; start += PAGE_SIZE) {
+            int pageLength = Math.min(PAGE_SIZE, lineCount - start);
+            bytes.clear();
+            bytes.asLongBuffer().put(pages[start >>> PAGE_BITS], 0, pageLength);
+            out.write(bytes.array(), 0, pageLength * Long.BYTES);
+        }
+    }
+
+    /**
+     * Reads an index that was written using {@link #writeTo(DataOutput)}.
+     *
+     * @param in
+     *         the input to read from
+     * @return the index that was read
+     * @throws IOException
+     *         if an error occurs while reading
+     */
+    static LineIndex readFrom(DataInput in) throws IOException {
+        LineIndex index = new LineIndex();
+        index.indexedLength = in.readLong();
+        index.endsWithNewline = in.readBoolean();
+        int lineCount = in.readInt();
+        byte[] bytes = new byte[PAGE_SIZE * Long.BYTES];
+        while (index.lineCount < lineCount) {
+            int pageLength = Math.min(PAGE_SIZE, lineCount - index.lineCount);
+            in.readFully(bytes, 0, pageLength * Long.BYTES);
+            int pageIndex = index.lineCount >>> PAGE_BITS;
+            if (pageIndex == index.pages.length) {
+                index.pages = Arrays.copyOf(index.pages, index.pages.length * 2);
+            }
+            long[] page = new long[PAGE_SIZE];
+            ByteBuffer.wrap(bytes, 0, pageLength * Long.BYTES).asLongBuffer().get(page, 0, pageLength);
+            index.pages[pageIndex] = page;
+            index.lineCount += pageLength;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the offset of the end of the given line, excluding the '\n' terminator, if any. A '\r' before the '\n' is
+     * included in the line.
+     *
+     * @param lineIndex
+     *         the index of the line in the file
+     * @return the offset of the end (exclusive) of the line in the file
+     */
+    public synchronized long getLineEnd(int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + lineIndex + " is not indexed, line count: " + lineCount);
+        }
+        if (lineIndex + 1 < lineCount) {
+            return getLineStart(lineIndex + 1) - 1;
+        }
+        return endsWithNewline ? indexedLength - 1 : indexedLength;
+    }
+}
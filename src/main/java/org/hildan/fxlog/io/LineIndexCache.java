@@ -0,0 +1,167 @@
+package org.hildan.fxlog.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.hildan.fxlog.config.Config;
+
+/**
+ * Persists the {@link LineIndex} of log files under the user's FX Log directory, so that re-opening a big file doesn't
+ * require to scan it again.
+ * <p>
+ * Along with the index, the size, last modification time and file key of the log file are saved, as well as a checksum
+ * of the last indexed bytes. A saved index is only used if the file is unchanged, or if it has only grown since then,
+ * in which case only the new part of the file needs to be indexed.
+ */
+class LineIndexCache {
+
+    static final Path INDEX_DIR = Config.getUserDirectory().resolve("index");
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String EXTENSION = ".idx";
+
+    private static final int MAX_CACHED_INDEXES = 10;
+
+    private static final int CHECKSUM_LENGTH = 4096;
+
+    /**
+     * Retrieves the saved index of the given file, if it is still valid.
+     *
+     * @param file
+     *         the log file to get the index of
+     * @param channel
+     *         a channel on the log file, to check that the indexed part has not changed
+     * @return the saved index of the given file, or a new empty index if there is no valid saved index
+     */
+    static LineIndex load(Path file, FileChannel channel) {
+        Path indexFile = getIndexFile(file, EXTENSION);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(file.toAbsolutePath().toString())) {
+                return new LineIndex();
+            }
+            String fileKey = in.readUTF();
+            long lastModified = in.readLong();
+            long checksum = in.readLong();
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!fileKey.equals(String.valueOf(attributes.fileKey()))) {
+                // this is a different file at the same path
+                return new LineIndex();
+            }
+            LineIndex index = LineIndex.readFrom(in);
+            long indexedLength = index.getIndexedLength();
+            boolean sameFile = attributes.size() == indexedLength
+                    && attributes.lastModifiedTime().toMillis() == lastModified;
+            boolean grownFile = attributes.size() > indexedLength && checksum == checksum(channel, indexedLength);
+            if (sameFile || grownFile) {
+                return index;
+            }
+        } catch (NoSuchFileException e) {
+            // nothing saved for this file
+        } catch (IOException e) {
+            System.err.println("Could not read the saved index of " + file + ": " + e.getMessage());
+        }
+        return new LineIndex();
+    }
+
+    /**
+     * Saves the given index of the given file, replacing any previously saved index for this file. Only the most
+     * recently saved indexes are kept.
+     *
+     * @param file
+     *         the indexed log file
+     * @param channel
+     *         a channel on the log file, to compute the checksum of the indexed part
+     * @param index
+     *         the index to save
+     * @throws IOException
+     *         if an error occurs while writing the index
+     */
+    static void save(Path file, FileChannel channel, LineIndex index) throws IOException {
+        Files.createDirectories(INDEX_DIR);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Path indexFile = getIndexFile(file, EXTENSION);
+        Path tmpFile = Files.createTempFile(INDEX_DIR, indexFile.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(file.toAbsolutePath().toString());
+            out.writeUTF(String.valueOf(attributes.fileKey()));
+            out.writeLong(attributes.lastModifiedTime().toMillis());
+            out.writeLong(checksum(channel, index.getIndexedLength()));
+            index.writeTo(out);
+        }
+        // readers see either the old or the new index, never a partial one
+        Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteOldIndexes(EXTENSION);
+    }
+
+    /**
+     * Gets the file where the index of the given kind is saved for the given log file.
+     *
+     * @param file
+     *         the indexed log file
+     * @param extension
+     *         the extension of the kind of index
+     * @return the path of the index file, which may not exist
+     */
+    static Path getIndexFile(Path file, String extension) {
+        // collisions are detected thanks to the path saved in the index file
+        return INDEX_DIR.resolve(String.format("%08x%s", file.toAbsolutePath().toString().hashCode(), extension));
+    }
+
+    /**
+     * Computes a checksum of the last bytes before the given position in the file, to detect whether a file that has
+     * grown was simply appended to.
+     */
+    private static long checksum(FileChannel channel, long end) throws IOException {
+        long start = Math.max(0, end - CHECKSUM_LENGTH);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        return crc.getValue();
+    }
+
+    /**
+     * Deletes the least recently saved index files of the given kind, to keep only the most recent ones.
+     *
+     * @param extension
+     *         the extension of the kind of index
+     * @throws IOException
+     *         if an error occurs while listing or deleting the index files
+     */
+    static void deleteOldIndexes(String extension) throws IOException {
+        List<Path> indexFiles;
+        try (Stream<Path> files = Files.list(INDEX_DIR)) {
+            indexFiles = files.filter(p -> p.toString().endsWith(extension))
+                              .sorted(Comparator.comparing(LineIndexCache::lastModified).reversed())
+                              .collect(Collectors.toList());
+        }
+        for (Path indexFile : indexFiles.subList(Math.min(MAX_CACHED_INDEXES, indexFiles.size()), indexFiles.size())) {
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        return path.toFile().lastModified();
+    }
+}
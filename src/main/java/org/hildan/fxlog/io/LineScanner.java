@@ -0,0 +1,168 @@
+package org.hildan.fxlog.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits a stream of bytes into lines, and decodes them using a given charset.
+ * <p>
+ * The bytes are given in buffers of any size, and complete lines are passed to the line handler as soon as their
+ * terminator is found. The newlines are searched 8 bytes at a time, and only complete lines are decoded, with a
+ * reusable decoder. The end of a line that is not terminated yet is kept until the next buffer.
+ * <p>
+ * Both '\n' and "\r\n" terminators are supported. The charset must encode '\n' as a single 0x0A byte, which is the case
+ * of UTF-8 and all ASCII-compatible charsets.
+ */
+public class LineScanner {
+
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final CharsetDecoder decoder;
+
+    private final Consumer<String> lineHandler;
+
+    private ByteBuffer partialLine;
+
+    private CharBuffer chars;
+
+    /**
+     * Creates a new LineScanner.
+     *
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param lineHandler
+     *         the handler to give each line to, without terminator
+     */
+    public LineScanner(@NotNull Charset charset, @NotNull Consumer<String> lineHandler) {
+        this.decoder = charset.newDecoder()
+                              .onMalformedInput(CodingErrorAction.REPLACE)
+                              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.lineHandler = lineHandler;
+        this.partialLine = ByteBuffer.allocate(256);
+        this.chars = CharBuffer.allocate(256);
+    }
+
+    /**
+     * Scans the remaining bytes of the given buffer, passing each completed line to the line handler. The bytes after
+     * the last newline are kept as the beginning of the next line. The given buffer is fully consumed.
+     *
+     * @param bytes
+     *         the next bytes of the stream
+     */
+    public void scan(@NotNull ByteBuffer bytes) {
+        // little endian so that the first newline of a word is its lowest flagged byte
+        ByteBuffer buffer = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+        int newline;
+        while ((newline = indexOfNewline(buffer, lineStart, limit)) >= 0) {
+            handleLine(buffer, lineStart, newline);
+            lineStart = newline + 1;
+        }
+        appendToPartialLine(buffer, lineStart, limit);
+        bytes.position(limit);
+    }
+
+    /**
+     * Finds the first '\n' in the given range of the given buffer.
+     *
+     * @return the index of the first '\n', or -1 if there is none in the given range
+     */
+    static int indexOfNewline(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ NEWLINES;
+            // flags the bytes of the word that are 0, which means that they were '\n' before the XOR
+            long zeroBytes = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (zeroBytes != 0) {
+                return i + (Long.numberOfTrailingZeros(zeroBytes) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void handleLine(ByteBuffer buffer, int start, int end) {
+        ByteBuffer line;
+        if (partialLine.position() > 0) {
+            appendToPartialLine(buffer, start, end);
+            partialLine.flip();
+            line = partialLine;
+        } else {
+            line = buffer.duplicate();
+            line.limit(end).position(start);
+        }
+        if (line.hasRemaining() && line.get(line.limit() - 1) == '\r') {
+            line.limit(line.limit() - 1);
+        }
+        lineHandler.accept(decode(line));
+        partialLine.clear();
+    }
+
+    private String decode(ByteBuffer line) {
+        int maxChars = (int) Math.ceil(line.remaining() * (double) decoder.maxCharsPerByte());
+        if (chars.capacity() < maxChars) {
+            chars = CharBuffer.allocate(maxChars);
+        }
+        chars.clear();
+        decoder.reset();
+        decoder.decode(line, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars.toString();
+    }
+
+    private void appendToPartialLine(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (partialLine.remaining() < length) {
+            int newCapacity = Math.max(partialLine.capacity() * 2, partialLine.position() + length);
+            ByteBuffer bigger = ByteBuffer.allocate(newCapacity);
+            partialLine.flip();
+            bigger.put(partialLine);
+            partialLine = bigger;
+        }
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(end).position(start);
+        partialLine.put(bytes);
+    }
+
+    /**
+     * @return true if some bytes of a line without terminator are pending
+     */
+    public boolean hasPartialLine() {
+        return partialLine.position() > 0;
+    }
+
+    /**
+     * Passes the pending bytes of the unterminated line, if any, to the line handler as a complete line. This is
+     * useful at the end of a stream that won't grow anymore.
+     */
+    public void flush() {
+        if (hasPartialLine()) {
+            ByteBuffer empty = ByteBuffer.allocate(0);
+            handleLine(empty, 0, 0);
+        }
+    }
+
+    /**
+     * Discards the pending bytes of the unterminated line, if any.
+     */
+    public void reset() {
+        partialLine.clear();
+    }
+}
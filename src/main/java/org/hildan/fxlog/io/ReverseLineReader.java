@@ -0,0 +1,122 @@
+package org.hildan.fxlog.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads the lines of a file backwards, from the end to the beginning.
+ * <p>
+ * Only complete lines are read: an incomplete last line (without line terminator) is ignored, and its start offset is
+ * given by {@link #getTailOffset()}, so that a tailer can start from there without missing or repeating anything.
+ */
+public class ReverseLineReader {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final Charset charset;
+
+    private final long tailOffset;
+
+    private final ByteBuffer block;
+
+    private long blockStart;
+
+    private long position;
+
+    /**
+     * Creates a new ReverseLineReader reading the lines that end before the given offset.
+     *
+     * @param channel
+     *         a channel on the file to read
+     * @param end
+     *         the offset to start reading backwards from, usually the size of the file
+     * @param charset
+     *         the charset to use to decode the lines
+     * @throws IOException
+     *         if an error occurs while reading the file
+     */
+    public ReverseLineReader(FileChannel channel, long end, Charset charset) throws IOException {
+        this.channel = channel;
+        this.charset = charset;
+        this.block = ByteBuffer.allocate(BLOCK_SIZE);
+        this.blockStart = -1;
+        // the first line to read is the last complete one
+        this.tailOffset = findPreviousNewline(end) + 1;
+        this.position = tailOffset;
+    }
+
+    /**
+     * @return the offset right after the last complete line of the file, where the reading of new lines should start
+     */
+    public long getTailOffset() {
+        return tailOffset;
+    }
+
+    /**
+     * @return true if there are more lines to read before the current position
+     */
+    public boolean hasPreviousLine() {
+        return position > 0;
+    }
+
+    /**
+     * Reads the line before the last line that was read.
+     *
+     * @return the previous line without terminator, or null if the beginning of the file has been reached
+     * @throws IOException
+     *         if an error occurs while reading the file
+     */
+    @Nullable
+    public String readPreviousLine() throws IOException {
+        if (position <= 0) {
+            return null;
+        }
+        // the byte before the current position is the terminator of the line to read
+        long lineEnd = position - 1;
+        long lineStart = findPreviousNewline(lineEnd) + 1;
+        position = lineStart;
+        ByteBuffer lineBytes = ByteBuffer.allocate((int) (lineEnd - lineStart));
+        while (lineBytes.hasRemaining()) {
+            if (channel.read(lineBytes, lineStart + lineBytes.position()) < 0) {
+                throw new IOException("The file was truncated while being read");
+            }
+        }
+        lineBytes.flip();
+        String line = charset.decode(lineBytes).toString();
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    /**
+     * Finds the last '\n' strictly before the given offset.
+     *
+     * @return the offset of the '\n', or -1 if there is none
+     */
+    private long findPreviousNewline(long offset) throws IOException {
+        for (long i = offset - 1; i >= 0; i--) {
+            if (i < blockStart || blockStart < 0) {
+                loadBlockEndingAt(i + 1);
+            }
+            if (block.get((int) (i - blockStart)) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void loadBlockEndingAt(long end) throws IOException {
+        blockStart = Math.max(0, end - BLOCK_SIZE);
+        block.clear();
+        block.limit((int) (end - blockStart));
+        while (block.hasRemaining()) {
+            if (channel.read(block, blockStart + block.position()) < 0) {
+                throw new IOException("The file was truncated while being read");
+            }
+        }
+    }
+}
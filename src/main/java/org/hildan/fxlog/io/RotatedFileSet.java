@@ -0,0 +1,151 @@
+package org.hildan.fxlog.io;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds the files that a log file was rotated into, so that they can be read as the history of the live file.
+ * <p>
+ * The usual naming patterns are recognized, possibly with a compression extension:
+ * <ul>
+ * <li>app.log.1, app.log.2... (log4j, logrotate), where the highest number is the oldest file</li>
+ * <li>app.log.2016-12-31, app.log-20161231 (logrotate's dateext, logback's time-based policy)</li>
+ * <li>app.1.log, app-2016-12-31.log (the same, with the index or date before the extension)</li>
+ * </ul>
+ */
+public class RotatedFileSet {
+
+    private static final String SEPARATOR = "[.\\-_]";
+
+    private static final String COMPRESSION_EXTENSION = "(?:\\.gz|\\.zip)?";
+
+    private static final int MAX_INDEX_LENGTH = 4;
+
+    private RotatedFileSet() {
+    }
+
+    /**
+     * Finds the rotated siblings of the given live file, in chronological order.
+     * <p>
+     * If all of them are numbered, the numbers give the order, otherwise their modification dates do.
+     *
+     * @param liveFile
+     *         the file the logs are currently written to
+     * @return the rotated files, from the oldest to the most recent, which does not include the live file
+     * @throws IOException
+     *         if an error occurs while listing the directory of the live file
+     */
+    @NotNull
+    public static List<Path> findRotatedFiles(@NotNull Path liveFile) throws IOException {
+        Path absoluteFile = liveFile.toAbsolutePath();
+        Path directory = absoluteFile.getParent();
+        String fileName = absoluteFile.getFileName().toString();
+        List<Pattern> patterns = getRotationPatterns(fileName);
+        List<RotatedFile> rotatedFiles = new ArrayList<>();
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(directory)) {
+            for (Path sibling : siblings) {
+                String siblingName = sibling.getFileName().toString();
+                if (siblingName.equals(fileName) || !Files.isRegularFile(sibling)) {
+                    continue;
+                }
+                for (Pattern pattern : patterns) {
+                    Matcher matcher = pattern.matcher(siblingName);
+                    if (matcher.matches()) {
+                        rotatedFiles.add(new RotatedFile(sibling, matcher.group(1)));
+                        break;
+                    }
+                }
+            }
+        }
+        boolean allNumbered = rotatedFiles.stream().allMatch(RotatedFile::isNumbered);
+        if (allNumbered) {
+            // app.log.1 is more recent than app.log.2
+            rotatedFiles.sort(Comparator.comparingInt(RotatedFile::getIndex).reversed());
+        } else {
+            rotatedFiles.sort(Comparator.comparingLong(RotatedFile::getLastModified)
+                                        .thenComparing(f -> f.getPath().getFileName().toString()));
+        }
+        List<Path> paths = new ArrayList<>(rotatedFiles.size());
+        rotatedFiles.forEach(f -> paths.add(f.getPath()));
+        return paths;
+    }
+
+    /**
+     * Returns a test recognizing the rotated siblings of the given live file by their names, without listing its
+     * directory. This is useful to check many files against the same live file.
+     *
+     * @param liveFile
+     *         the file the logs are currently written to
+     * @return a predicate accepting the files that the given live file was rotated into
+     */
+    @NotNull
+    public static Predicate<Path> rotatedFilesOf(@NotNull Path liveFile) {
+        Path absoluteFile = liveFile.toAbsolutePath();
+        Path directory = absoluteFile.getParent();
+        List<Pattern> patterns = getRotationPatterns(absoluteFile.getFileName().toString());
+        return file -> {
+            Path absoluteSibling = file.toAbsolutePath();
+            if (!Objects.equals(directory, absoluteSibling.getParent())) {
+                return false;
+            }
+            String siblingName = absoluteSibling.getFileName().toString();
+            return patterns.stream().anyMatch(pattern -> pattern.matcher(siblingName).matches());
+        };
+    }
+
+    private static List<Pattern> getRotationPatterns(String fileName) {
+        List<Pattern> patterns = new ArrayList<>(2);
+        patterns.add(Pattern.compile(Pattern.quote(fileName) + SEPARATOR + "(.+?)" + COMPRESSION_EXTENSION));
+        int extensionStart = fileName.lastIndexOf('.');
+        if (extensionStart > 0) {
+            String baseName = fileName.substring(0, extensionStart);
+            String extension = fileName.substring(extensionStart);
+            patterns.add(Pattern.compile(Pattern.quote(baseName) + SEPARATOR + "(.+?)" + Pattern.quote(extension)
+                    + COMPRESSION_EXTENSION));
+        }
+        return patterns;
+    }
+
+    private static class RotatedFile {
+
+        private final Path path;
+
+        private final int index;
+
+        private final long lastModified;
+
+        RotatedFile(Path path, String suffix) throws IOException {
+            this.path = path;
+            boolean isIndex = suffix.length() <= MAX_INDEX_LENGTH && suffix.chars().allMatch(Character::isDigit);
+            this.index = isIndex ? Integer.parseInt(suffix) : -1;
+            this.lastModified = Files.getLastModifiedTime(path).toMillis();
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        boolean isNumbered() {
+            return index >= 0;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+    }
+}
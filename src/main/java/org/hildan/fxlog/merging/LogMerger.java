@@ -0,0 +1,392 @@
+package org.hildan.fxlog.merging;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.ObservableList;
+
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.data.LogEntry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Merges the logs of several sources into a single list, ordered by date.
+ * <p>
+ * Each source is a {@link List} that its own tailing pipeline adds logs to. The logs of each source are expected to
+ * be in chronological order. The dates are the parsed values of the timestamp column of the columnizer (see {@link
+ * LogEntry#getTypedValue(String)}), and the logs without a valid date are kept right after the previous log of the
+ * same source (typically, the lines of a stack trace).
+ * <p>
+ * The merge is incremental: each time a source receives logs, the pending logs of all sources are merged with a
+ * priority queue of sources, which costs O(log k) per log for k sources. The logs are only merged up to the most
+ * recent date reached by all the active sources, so that most of them are simply appended. A source that hasn't
+ * received anything for a while (because it is idle, or its file can't be read) stops holding back the others, and
+ * its next logs may be late: all the late logs of a merge are inserted at their place in a single change.
+ * <p>
+ * As the idle sources are only detected when merging, {@link #merge()} must be called periodically. All methods,
+ * including the ones of the sources, must be called on the UI thread.
+ */
+public class LogMerger {
+
+    /**
+     * The time after which a source that doesn't receive any log stops holding back the logs of the other sources.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 2000;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ObservableList<LogEntry> mergedLogs;
+
+    private final List<Source> sources;
+
+    private final BooleanProperty limitNumberOfLogs;
+
+    private final ObjectProperty<Integer> maxNumberOfLogs;
+
+    private final LongSupplier clock;
+
+    private final long idleTimeoutMillis;
+
+    private String timestampColumnName;
+
+    private long[] mergedDates;
+
+    private int mergedDatesCount;
+
+    /**
+     * Creates a new LogMerger.
+     *
+     * @param mergedLogs
+     *         the list to add the merged logs to
+     * @param timestampColumnName
+     *         the name of the capturing group of the timestamp column of the logs, or null if there is none
+     */
+    public LogMerger(@NotNull ObservableList<LogEntry> mergedLogs, @Nullable String timestampColumnName) {
+        this(mergedLogs, timestampColumnName, System::currentTimeMillis, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a new LogMerger.
+     *
+     * @param mergedLogs
+     *         the list to add the merged logs to
+     * @param timestampColumnName
+     *         the name of the capturing group of the timestamp column of the logs, or null if there is none
+     * @param clock
+     *         gives the current time in milliseconds
+     * @param idleTimeoutMillis
+     *         the time after which a source that doesn't receive any log stops holding back the other sources
+     */
+    LogMerger(@NotNull ObservableList<LogEntry> mergedLogs, @Nullable String timestampColumnName,
+              @NotNull LongSupplier clock, long idleTimeoutMillis) {
+        this.mergedLogs = mergedLogs;
+        this.timestampColumnName = timestampColumnName;
+        this.sources = new ArrayList<>();
+        this.limitNumberOfLogs = new SimpleBooleanProperty(false);
+        this.maxNumberOfLogs = new SimpleObjectProperty<>(Integer.MAX_VALUE);
+        this.clock = clock;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.mergedDates = new long[INITIAL_CAPACITY];
+        this.mergedDatesCount = 0;
+    }
+
+    /**
+     * Adds a new source of logs to merge.
+     *
+     * @param name
+     *         the name of the source, which is set on each of its logs
+     * @return the list the source's logs must be added to, which only forwards the logs to this merger
+     */
+    @NotNull
+    public Source addSource(@NotNull String name) {
+        Source source = new Source(name);
+        sources.add(source);
+        return source;
+    }
+
+    /**
+     * Changes the column the dates of the logs are read from, for instance when the columnizer changes. The logs
+     * already merged are not moved.
+     *
+     * @param timestampColumnName
+     *         the name of the capturing group of the timestamp column of the logs, or null if there is none
+     */
+    public void setTimestampColumnName(@Nullable String timestampColumnName) {
+        this.timestampColumnName = timestampColumnName;
+    }
+
+    /**
+     * A source of logs for this merger. The logs added to this list are not kept in it, they are merged into the
+     * merged list instead, hence this list always appears empty.
+     */
+    public class Source extends AbstractList<LogEntry> {
+
+        private final String name;
+
+        private final List<LogEntry> pendingLogs;
+
+        private long[] pendingDates;
+
+        /**
+         * The index of the first log that is still pending in the pending logs and dates.
+         */
+        private int pendingStart;
+
+        private long lastDate;
+
+        private long lastReceptionTime;
+
+        private Source(String name) {
+            this.name = name;
+            this.pendingLogs = new ArrayList<>();
+            this.pendingDates = new long[INITIAL_CAPACITY];
+            this.pendingStart = 0;
+            this.lastDate = ColumnType.MISSING;
+            this.lastReceptionTime = clock.getAsLong();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends LogEntry> logs) {
+            logs.forEach(this::enqueue);
+            lastReceptionTime = clock.getAsLong();
+            merge();
+            return !logs.isEmpty();
+        }
+
+        @Override
+        public void add(int index, LogEntry log) {
+            enqueue(log);
+            lastReceptionTime = clock.getAsLong();
+            merge();
+        }
+
+        private void enqueue(LogEntry log) {
+            log.setSource(name);
+            String columnName = timestampColumnName;
+            long date = columnName == null ? ColumnType.MISSING : log.getTypedValue(columnName);
+            if (date != ColumnType.MISSING) {
+                lastDate = date;
+            }
+            if (pendingLogs.size() == pendingDates.length) {
+                pendingDates = Arrays.copyOf(pendingDates, pendingDates.length * 2);
+            }
+            // logs without date stay with the previous log of their source
+            pendingDates[pendingLogs.size()] = lastDate;
+            pendingLogs.add(log);
+        }
+
+        private boolean hasPendingLogs() {
+            return pendingStart < pendingLogs.size();
+        }
+
+        private long nextDate() {
+            return pendingDates[pendingStart];
+        }
+
+        private LogEntry removeNext() {
+            return pendingLogs.get(pendingStart++);
+        }
+
+        private void compactPendingLogs() {
+            if (pendingStart == 0) {
+                return;
+            }
+            int nbPendingLogs = pendingLogs.size() - pendingStart;
+            System.arraycopy(pendingDates, pendingStart, pendingDates, 0, nbPendingLogs);
+            pendingLogs.subList(0, pendingStart).clear();
+            pendingStart = 0;
+        }
+
+        private boolean isIdle(long now) {
+            return now - lastReceptionTime >= idleTimeoutMillis;
+        }
+
+        @Override
+        public LogEntry get(int index) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+
+    /**
+     * Moves the pending logs of the sources to the merged list, in chronological order. This is done each time a
+     * source receives logs, and must also be done periodically to release the logs held back by idle sources.
+     */
+    public void merge() {
+        syncWithExternalRemovals();
+        long watermark = getWatermark();
+        Comparator<Source> byNextDate = Comparator.comparingLong(Source::nextDate);
+        PriorityQueue<Source> queue = new PriorityQueue<>(Math.max(1, sources.size()), byNextDate);
+        sources.stream().filter(Source::hasPendingLogs).forEach(queue::add);
+        List<LogEntry> newLogs = new ArrayList<>();
+        long[] newDates = new long[INITIAL_CAPACITY];
+        boolean sorted = true;
+        while (!queue.isEmpty() && queue.peek().nextDate() <= watermark) {
+            Source source = queue.poll();
+            long date = source.nextDate();
+            if (newLogs.size() == newDates.length) {
+                newDates = Arrays.copyOf(newDates, newDates.length * 2);
+            }
+            // a source may not be perfectly chronological
+            sorted &= newLogs.isEmpty() || date >= newDates[newLogs.size() - 1];
+            newDates[newLogs.size()] = date;
+            newLogs.add(source.removeNext());
+            if (source.hasPendingLogs()) {
+                queue.add(source);
+            }
+        }
+        sources.forEach(Source::compactPendingLogs);
+        if (!newLogs.isEmpty()) {
+            if (!sorted) {
+                newDates = sortByDate(newLogs, newDates);
+            }
+            addSorted(newLogs, newDates);
+        }
+        applyLimit();
+    }
+
+    /**
+     * Gets the date up to which the logs can be merged: the logs of the active sources wait for the other active
+     * sources to reach their date, to avoid inserting most of their logs in the middle of the list.
+     */
+    private long getWatermark() {
+        long now = clock.getAsLong();
+        long watermark = Long.MAX_VALUE;
+        for (Source source : sources) {
+            if (!source.isIdle(now)) {
+                watermark = Math.min(watermark, source.lastDate);
+            }
+        }
+        return watermark;
+    }
+
+    /**
+     * Sorts the given logs by date, keeping the order of the logs with the same date.
+     *
+     * @return the sorted dates
+     */
+    private static long[] sortByDate(List<LogEntry> logs, long[] dates) {
+        Integer[] order = new Integer[logs.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> dates[i]));
+        List<LogEntry> sortedLogs = new ArrayList<>(logs.size());
+        long[] sortedDates = new long[logs.size()];
+        for (int i = 0; i < order.length; i++) {
+            sortedLogs.add(logs.get(order[i]));
+            sortedDates[i] = dates[order[i]];
+        }
+        logs.clear();
+        logs.addAll(sortedLogs);
+        return sortedDates;
+    }
+
+    /**
+     * Adds the given logs, sorted by date, to the merged list. The logs that are more recent than all the merged logs
+     * are simply appended, while the late ones are merged with the end of the list, which is replaced at once.
+     */
+    private void addSorted(List<LogEntry> newLogs, long[] newDates) {
+        // after the logs with the same date, to keep the order of the sources
+        int firstChangedIndex = upperBound(newDates[0]);
+        int nbReplacedLogs = mergedDatesCount - firstChangedIndex;
+        List<LogEntry> result = new ArrayList<>(nbReplacedLogs + newLogs.size());
+        long[] resultDates = new long[nbReplacedLogs + newLogs.size()];
+        int oldIndex = firstChangedIndex;
+        int newIndex = 0;
+        while (oldIndex < mergedDatesCount || newIndex < newLogs.size()) {
+            boolean takeOld = newIndex == newLogs.size()
+                    || oldIndex < mergedDatesCount && mergedDates[oldIndex] <= newDates[newIndex];
+            if (takeOld) {
+                resultDates[result.size()] = mergedDates[oldIndex];
+                result.add(mergedLogs.get(oldIndex++));
+            } else {
+                resultDates[result.size()] = newDates[newIndex];
+                result.add(newLogs.get(newIndex++));
+            }
+        }
+        ensureCapacity(firstChangedIndex + result.size());
+        System.arraycopy(resultDates, 0, mergedDates, firstChangedIndex, resultDates.length);
+        mergedDatesCount = firstChangedIndex + result.size();
+        if (nbReplacedLogs > 0) {
+            mergedLogs.remove(firstChangedIndex, firstChangedIndex + nbReplacedLogs);
+        }
+        mergedLogs.addAll(result);
+    }
+
+    private int upperBound(long date) {
+        int low = 0;
+        int high = mergedDatesCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mergedDates[mid] <= date) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void applyLimit() {
+        if (limitNumberOfLogs.get()) {
+            removeFirst(mergedLogs.size() - maxNumberOfLogs.get());
+        }
+    }
+
+    /**
+     * Keeps the dates in sync with the merged list if some logs were removed from it by something else than this
+     * merger, for instance when the logs are cleared.
+     */
+    private void syncWithExternalRemovals() {
+        int nbRemovedLogs = mergedDatesCount - mergedLogs.size();
+        if (nbRemovedLogs > 0) {
+            // the logs are always removed from the start, the most recent ones are kept
+            System.arraycopy(mergedDates, nbRemovedLogs, mergedDates, 0, mergedLogs.size());
+        }
+        mergedDatesCount = mergedLogs.size();
+    }
+
+    private void removeFirst(int nbLogs) {
+        if (nbLogs <= 0) {
+            return;
+        }
+        int remaining = mergedLogs.size() - nbLogs;
+        System.arraycopy(mergedDates, nbLogs, mergedDates, 0, remaining);
+        mergedLogs.remove(0, nbLogs);
+        mergedDatesCount = remaining;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mergedDates.length < capacity) {
+            mergedDates = Arrays.copyOf(mergedDates, Math.max(capacity, mergedDates.length * 2));
+        }
+    }
+
+    public BooleanProperty limitNumberOfLogsProperty() {
+        return limitNumberOfLogs;
+    }
+
+    public ObjectProperty<Integer> maxNumberOfLogsProperty() {
+        return maxNumberOfLogs;
+    }
+}
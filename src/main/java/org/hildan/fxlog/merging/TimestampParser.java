@@ -0,0 +1,164 @@
+package org.hildan.fxlog.merging;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts the date/time column values of the logs into numbers that can be compared across several log files.
+ * <p>
+ * The common log date formats are tried in turn, starting with the last one that worked, as the logs of a file usually
+ * all have the same format. The dates without time zone are all considered in the same zone, which is fine to compare
+ * the logs of machines configured the same way.
+ */
+public class TimestampParser {
+
+    /**
+     * The value returned for the dates that can't be parsed.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final List<DateTimeFormatter> FORMATTERS = Arrays.asList(
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ISO_DATE_TIME,
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm:ss,SSS a z", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm:ss a z", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("HH:mm:ss,SSS"),
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("HH:mm:ss"));
+
+    private final DateTimeFormatter explicitFormatter;
+
+    private DateTimeFormatter lastMatchingFormatter;
+
+    /**
+     * Creates a new TimestampParser that tries all the common log date formats.
+     */
+    public TimestampParser() {
+        this.explicitFormatter = null;
+    }
+
+    /**
+     * Creates a new TimestampParser that only uses the given format, if it is valid.
+     *
+     * @param format
+     *         a {@link DateTimeFormatter} pattern, or null to try all the common log date formats
+     * @throws IllegalArgumentException
+     *         if the given format is not a valid pattern
+     */
+    public TimestampParser(@Nullable String format) {
+        this.explicitFormatter = format == null ? null : DateTimeFormatter.ofPattern(format, Locale.ENGLISH);
+    }
+
+    /**
+     * Converts the given date/time into a number of milliseconds that can be compared with the other parsed dates.
+     * Numbers are considered as timestamps in milliseconds.
+     *
+     * @param dateTime
+     *         the date/time to parse
+     * @return the number of milliseconds since the epoch, or {@link #UNKNOWN} if the given value is not a known date
+     * format
+     */
+    public long parse(@Nullable String dateTime) {
+        if (dateTime == null) {
+            return UNKNOWN;
+        }
+        String value = collapseWhitespace(dateTime.trim());
+        if (value.isEmpty()) {
+            return UNKNOWN;
+        }
+        if (explicitFormatter != null) {
+            return parse(value, explicitFormatter);
+        }
+        if (value.chars().allMatch(Character::isDigit) && value.length() < 19) {
+            return Long.parseLong(value);
+        }
+        if (lastMatchingFormatter != null) {
+            long millis = parse(value, lastMatchingFormatter);
+            if (millis != UNKNOWN) {
+                return millis;
+            }
+        }
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            long millis = parse(value, formatter);
+            if (millis != UNKNOWN) {
+                lastMatchingFormatter = formatter;
+                return millis;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Replaces the runs of whitespace of the given trimmed value with single spaces. The value is returned as is in
+     * the usual case where there is nothing to replace, so that no copy is made.
+     */
+    private static String collapseWhitespace(String value) {
+        int length = value.length();
+        int firstRun = -1;
+        for (int i = 0; i < length - 1; i++) {
+            char current = value.charAt(i);
+            if (isWhitespace(current) && (current != ' ' || isWhitespace(value.charAt(i + 1)))) {
+                firstRun = i;
+                break;
+            }
+        }
+        if (firstRun < 0) {
+            return value;
+        }
+        StringBuilder collapsed = new StringBuilder(length);
+        collapsed.append(value, 0, firstRun);
+        boolean inRun = false;
+        for (int i = firstRun; i < length; i++) {
+            char current = value.charAt(i);
+            if (!isWhitespace(current)) {
+                collapsed.append(current);
+                inRun = false;
+            } else if (!inRun) {
+                collapsed.append(' ');
+                inRun = true;
+            }
+        }
+        return collapsed.toString();
+    }
+
+    /**
+     * Matches the same characters as \s in a regex, which are all removed by {@link String#trim()} at the ends.
+     */
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\t' || character == '\n' || character == '\u000B'
+                || character == '\f' || character == '\r';
+    }
+
+    private static long parse(String value, DateTimeFormatter formatter) {
+        try {
+            TemporalAccessor parsed = formatter.parse(value);
+            if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return parsed.getLong(ChronoField.INSTANT_SECONDS) * 1000 + parsed.get(ChronoField.MILLI_OF_SECOND);
+            }
+            LocalTime time = LocalTime.from(parsed);
+            // the logs with a time only are considered to be on the same day
+            LocalDate date = LocalDate.ofEpochDay(0);
+            if (parsed.isSupported(ChronoField.EPOCH_DAY)) {
+                date = LocalDate.from(parsed);
+            }
+            return LocalDateTime.of(date, time).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeException e) {
+            return UNKNOWN;
+        }
+    }
+}
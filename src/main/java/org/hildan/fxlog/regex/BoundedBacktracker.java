@@ -0,0 +1,130 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link RegexProgram} on the entire input by backtracking, like {@link java.util.regex}, but never tries the
+ * same branch or jump at the same position twice, which bounds the time by the size of the program times the length of
+ * the input.
+ * <p>
+ * A path reaching a branch at a position already tried can't succeed, otherwise the search would have stopped there.
+ * The other instructions don't need to be remembered, since the paths can only merge or loop through branches and
+ * jumps. The paths are tried in priority order, so the captures are the ones of the highest priority path, like with
+ * {@link PikeVm}. This is much faster than {@link PikeVm} on typical log lines, because there is usually a single
+ * path, but the memory needed to remember the tried positions grows with the input, so this is limited to inputs that
+ * are not too long.
+ */
+class BoundedBacktracker {
+
+    private static final int MAX_VISITED_BITS = 8 * 1024 * 1024;
+
+    private static final int EXPLORE = 0;
+
+    private static final int RESTORE_CAPTURE = 1;
+
+    private static final ThreadLocal<long[]> visitedBuffers = ThreadLocal.withInitial(() -> new long[1024]);
+
+    private final RegexProgram program;
+
+    BoundedBacktracker(RegexProgram program) {
+        this.program = program;
+    }
+
+    /**
+     * @param length
+     *         the length of an input
+     * @return true if this backtracker can run on an input of the given length
+     */
+    boolean supports(int length) {
+        return (long) program.size() * (length + 1) <= MAX_VISITED_BITS;
+    }
+
+    /**
+     * Matches the entire given input.
+     *
+     * @param input
+     *         the input to match, which must be {@link #supports(int) supported}
+     * @return the capture slots (start and end of each group, or -1), or null if the input doesn't match
+     */
+    int[] matches(CharSequence input) {
+        int length = input.length();
+        int nbPositions = length + 1;
+        long[] visited = getVisitedBuffer(program.size() * nbPositions);
+        int[] captures = new int[2 * program.nbGroups];
+        Arrays.fill(captures, -1);
+
+        // jobs of 3 ints: type, pc or capture slot, position or previous capture value
+        int[] jobs = new int[48];
+        int nbJobs = 0;
+        jobs[nbJobs++] = EXPLORE;
+        jobs[nbJobs++] = 0;
+        jobs[nbJobs++] = 0;
+        while (nbJobs > 0) {
+            int arg2 = jobs[--nbJobs];
+            int arg1 = jobs[--nbJobs];
+            if (jobs[--nbJobs] == RESTORE_CAPTURE) {
+                captures[arg1] = arg2;
+                continue;
+            }
+            int pc = arg1;
+            int pos = arg2;
+            while (true) {
+                int op = program.ops[pc];
+                if (op == RegexProgram.SPLIT || op == RegexProgram.JUMP) {
+                    int bit = pc * nbPositions + pos;
+                    if ((visited[bit >>> 6] & (1L << bit)) != 0) {
+                        break;
+                    }
+                    visited[bit >>> 6] |= 1L << bit;
+                }
+                if (op == RegexProgram.CHAR) {
+                    if (pos == length || !program.charClasses[pc].contains(input.charAt(pos))) {
+                        break;
+                    }
+                    pc++;
+                    pos++;
+                } else if (op == RegexProgram.SPLIT || op == RegexProgram.SAVE) {
+                    if (nbJobs + 3 > jobs.length) {
+                        jobs = Arrays.copyOf(jobs, jobs.length * 2);
+                    }
+                    if (op == RegexProgram.SPLIT) {
+                        // the lower priority branch is tried if the higher priority one fails
+                        jobs[nbJobs++] = EXPLORE;
+                        jobs[nbJobs++] = program.arg2[pc];
+                        jobs[nbJobs++] = pos;
+                        pc = program.arg1[pc];
+                    } else {
+                        int slot = program.arg1[pc];
+                        jobs[nbJobs++] = RESTORE_CAPTURE;
+                        jobs[nbJobs++] = slot;
+                        jobs[nbJobs++] = captures[slot];
+                        captures[slot] = pos;
+                        pc++;
+                    }
+                } else if (op == RegexProgram.JUMP) {
+                    pc = program.arg1[pc];
+                } else if (op == RegexProgram.ASSERT_BEGIN && pos == 0
+                        || op == RegexProgram.ASSERT_END && pos == length) {
+                    pc++;
+                } else if (op == RegexProgram.MATCH && pos == length) {
+                    return captures;
+                } else {
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long[] getVisitedBuffer(int nbBits) {
+        int nbLongs = (nbBits + 63) >>> 6;
+        long[] buffer = visitedBuffers.get();
+        if (buffer.length < nbLongs) {
+            buffer = new long[Math.max(nbLongs, buffer.length * 2)];
+            visitedBuffers.set(buffer);
+        } else {
+            Arrays.fill(buffer, 0, nbLongs, 0L);
+        }
+        return buffer;
+    }
+}
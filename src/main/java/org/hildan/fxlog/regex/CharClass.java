@@ -0,0 +1,158 @@
+package org.hildan.fxlog.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable set of chars, stored as sorted ranges with a lookup table for ASCII.
+ */
+class CharClass {
+
+    private static final int ASCII_SIZE = 128;
+
+    static final CharClass DIGITS = builder().addRange('0', '9').build();
+
+    static final CharClass WORD_CHARS =
+            builder().addRange('a', 'z').addRange('A', 'Z').add('_').addRange('0', '9').build();
+
+    static final CharClass SPACES = builder().add(' ').add('\t').add('\n').add('\u000B').add('\f').add('\r').build();
+
+    static final CharClass LINE_TERMINATORS =
+            builder().add('\n').add('\r').add('\u0085').add('\u2028').add('\u2029').build();
+
+    static final CharClass ALL = builder().addRange(Character.MIN_VALUE, Character.MAX_VALUE).build();
+
+    /**
+     * Sorted disjoint ranges, as pairs of inclusive bounds.
+     */
+    private final int[] ranges;
+
+    private final boolean[] asciiTable;
+
+    private CharClass(int[] ranges) {
+        this.ranges = ranges;
+        this.asciiTable = new boolean[ASCII_SIZE];
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int ch = ranges[i]; ch <= ranges[i + 1] && ch < ASCII_SIZE; ch++) {
+                asciiTable[ch] = true;
+            }
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    boolean contains(char ch) {
+        if (ch < ASCII_SIZE) {
+            return asciiTable[ch];
+        }
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ch < ranges[2 * mid]) {
+                high = mid - 1;
+            } else if (ch > ranges[2 * mid + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the complement of this class
+     */
+    CharClass negate() {
+        return builder().addAll(this).negate().build();
+    }
+
+    static class Builder {
+
+        private final List<int[]> ranges = new ArrayList<>();
+
+        private boolean negated;
+
+        Builder add(char ch) {
+            return addRange(ch, ch);
+        }
+
+        Builder addRange(char from, char to) {
+            ranges.add(new int[] {from, to});
+            return this;
+        }
+
+        Builder addAll(CharClass charClass) {
+            for (int i = 0; i < charClass.ranges.length; i += 2) {
+                ranges.add(new int[] {charClass.ranges[i], charClass.ranges[i + 1]});
+            }
+            return this;
+        }
+
+        /**
+         * Adds the other case of the ASCII letters of this class, like {@link java.util.regex.Pattern#CASE_INSENSITIVE}
+         * does without {@link java.util.regex.Pattern#UNICODE_CASE}.
+         */
+        Builder foldAsciiCase() {
+            CharClass current = new CharClass(normalize(ranges));
+            for (char ch = 'a'; ch <= 'z'; ch++) {
+                char upper = Character.toUpperCase(ch);
+                if (current.contains(ch) || current.contains(upper)) {
+                    add(ch);
+                    add(upper);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Makes the built class the complement of the chars added so far, and the chars added later.
+         */
+        Builder negate() {
+            negated = !negated;
+            return this;
+        }
+
+        CharClass build() {
+            int[] normalized = normalize(ranges);
+            return new CharClass(negated ? complement(normalized) : normalized);
+        }
+
+        private static int[] normalize(List<int[]> ranges) {
+            List<int[]> sorted = new ArrayList<>(ranges);
+            sorted.sort((r1, r2) -> Integer.compare(r1[0], r2[0]));
+            int[] result = new int[sorted.size() * 2];
+            int size = 0;
+            for (int[] range : sorted) {
+                if (size > 0 && range[0] <= result[size - 1] + 1) {
+                    result[size - 1] = Math.max(result[size - 1], range[1]);
+                } else {
+                    result[size++] = range[0];
+                    result[size++] = range[1];
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+
+        private static int[] complement(int[] ranges) {
+            int[] result = new int[ranges.length + 2];
+            int size = 0;
+            int next = Character.MIN_VALUE;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    result[size++] = next;
+                    result[size++] = ranges[i] - 1;
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_VALUE) {
+                result[size++] = next;
+                result[size++] = Character.MAX_VALUE;
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+}
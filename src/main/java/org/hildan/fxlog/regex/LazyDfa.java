@@ -0,0 +1,267 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A DFA built lazily from a {@link RegexProgram}, which tells in linear time whether an input matches, without
+ * captures.
+ * <p>
+ * Each state of the DFA is the set of NFA instructions that can be reached at the current position. The states and
+ * their transitions are computed the first time they are needed and cached, so that matching usually costs a single
+ * table lookup per char. The cache is shared by all threads: at worst, two threads compute the same transition. When
+ * there are too many states, the new ones are not cached anymore, which keeps the memory bounded and the matching
+ * linear.
+ */
+class LazyDfa {
+
+    static final int NO_MATCH = 0;
+
+    static final int MATCH = 1;
+
+    /**
+     * The input contains surrogate pairs, which {@link java.util.regex} matches as single code points.
+     */
+    static final int UNSUPPORTED_INPUT = -1;
+
+    private static final int ASCII_SIZE = 128;
+
+    private static final int MAX_CACHED_STATES = 2000;
+
+    private final RegexProgram program;
+
+    private final boolean unanchored;
+
+    private final ConcurrentMap<StateKey, State> states = new ConcurrentHashMap<>();
+
+    private final State startState;
+
+    /**
+     * Creates a new LazyDfa.
+     *
+     * @param program
+     *         the program to run
+     * @param unanchored
+     *         true to look for a match anywhere in the input, like {@link java.util.regex.Matcher#find()}, false to
+     *         match the entire input, like {@link java.util.regex.Matcher#matches()}
+     */
+    LazyDfa(RegexProgram program, boolean unanchored) {
+        this.program = program;
+        this.unanchored = unanchored;
+        IntSet startPcs = new IntSet(program.size());
+        addClosure(startPcs, 0, true);
+        this.startState = intern(startPcs);
+    }
+
+    /**
+     * Runs this DFA on the given input.
+     *
+     * @param input
+     *         the input to match, not empty
+     * @return {@link #MATCH}, {@link #NO_MATCH}, or {@link #UNSUPPORTED_INPUT}
+     */
+    int run(CharSequence input) {
+        State state = startState;
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            if (unanchored && state.matching) {
+                return MATCH;
+            }
+            if (state.pcs.length == 0) {
+                return NO_MATCH;
+            }
+            char ch = input.charAt(i);
+            State next;
+            if (ch < ASCII_SIZE) {
+                next = state.asciiTransitions[ch];
+                if (next == null) {
+                    next = computeNext(state, ch);
+                    if (next.cached) {
+                        state.asciiTransitions[ch] = next;
+                    }
+                }
+            } else {
+                if (Character.isSurrogate(ch)) {
+                    return UNSUPPORTED_INPUT;
+                }
+                next = state.otherTransitions.get(ch);
+                if (next == null) {
+                    next = computeNext(state, ch);
+                    if (next.cached) {
+                        state.otherTransitions.put(ch, next);
+                    }
+                }
+            }
+            state = next;
+        }
+        return state.matchingAtEnd ? MATCH : NO_MATCH;
+    }
+
+    private State computeNext(State state, char ch) {
+        IntSet nextPcs = new IntSet(program.size());
+        for (int pc : state.pcs) {
+            if (program.ops[pc] == RegexProgram.CHAR && program.charClasses[pc].contains(ch)) {
+                addClosure(nextPcs, pc + 1, false);
+            }
+        }
+        if (unanchored) {
+            addClosure(nextPcs, 0, false);
+        }
+        return intern(nextPcs);
+    }
+
+    private State intern(IntSet pcs) {
+        StateKey key = new StateKey(pcs.toSortedArray());
+        State state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        boolean cached = states.size() < MAX_CACHED_STATES;
+        state = new State(key.pcs, isMatching(key.pcs, false), isMatching(key.pcs, true), cached);
+        if (cached) {
+            State existing = states.putIfAbsent(key, state);
+            return existing != null ? existing : state;
+        }
+        return state;
+    }
+
+    /**
+     * Adds the instructions that consume a char, match, or assert the end of the input, and that can be reached from
+     * the given instruction without consuming any char.
+     */
+    private void addClosure(IntSet pcs, int startPc, boolean atBeginning) {
+        int[] stack = new int[program.size()];
+        boolean[] visited = new boolean[program.size()];
+        int stackSize = 0;
+        stack[stackSize++] = startPc;
+        while (stackSize > 0) {
+            int pc = stack[--stackSize];
+            if (visited[pc]) {
+                continue;
+            }
+            visited[pc] = true;
+            switch (program.ops[pc]) {
+            case RegexProgram.JUMP:
+                stack[stackSize++] = program.arg1[pc];
+                break;
+            case RegexProgram.SPLIT:
+                stack[stackSize++] = program.arg2[pc];
+                stack[stackSize++] = program.arg1[pc];
+                break;
+            case RegexProgram.SAVE:
+                stack[stackSize++] = pc + 1;
+                break;
+            case RegexProgram.ASSERT_BEGIN:
+                if (atBeginning) {
+                    stack[stackSize++] = pc + 1;
+                }
+                break;
+            default:
+                pcs.add(pc);
+                break;
+            }
+        }
+    }
+
+    private boolean isMatching(int[] pcs, boolean atEnd) {
+        for (int pc : pcs) {
+            int op = program.ops[pc];
+            if (op == RegexProgram.MATCH) {
+                return true;
+            }
+            if (atEnd && op == RegexProgram.ASSERT_END && isMatchReachableAtEnd(pc + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isMatchReachableAtEnd(int startPc) {
+        IntSet reachable = new IntSet(program.size());
+        addClosure(reachable, startPc, false);
+        for (int pc : reachable.toSortedArray()) {
+            int op = program.ops[pc];
+            if (op == RegexProgram.MATCH || (op == RegexProgram.ASSERT_END && isMatchReachableAtEnd(pc + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class State {
+
+        private final int[] pcs;
+
+        private final boolean matching;
+
+        private final boolean matchingAtEnd;
+
+        private final boolean cached;
+
+        private final State[] asciiTransitions = new State[ASCII_SIZE];
+
+        private final ConcurrentMap<Character, State> otherTransitions = new ConcurrentHashMap<>(4);
+
+        State(int[] pcs, boolean matching, boolean matchingAtEnd, boolean cached) {
+            this.pcs = pcs;
+            this.matching = matching;
+            this.matchingAtEnd = matchingAtEnd;
+            this.cached = cached;
+        }
+    }
+
+    private static class StateKey {
+
+        private final int[] pcs;
+
+        private final int hash;
+
+        StateKey(int[] pcs) {
+            this.pcs = pcs;
+            this.hash = Arrays.hashCode(pcs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(pcs, ((StateKey) o).pcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A set of instructions, which can be listed in order.
+     */
+    private static class IntSet {
+
+        private final boolean[] present;
+
+        private int size;
+
+        IntSet(int capacity) {
+            this.present = new boolean[capacity];
+        }
+
+        void add(int value) {
+            if (!present[value]) {
+                present[value] = true;
+                size++;
+            }
+        }
+
+        int[] toSortedArray() {
+            int[] values = new int[size];
+            int count = 0;
+            for (int i = 0; i < present.length && count < size; i++) {
+                if (present[i]) {
+                    values[count++] = i;
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A regex that is run in linear time: a lazy DFA tells whether the input matches, and only the matching inputs go
+ * through a second pass to extract the captures.
+ * <p>
+ * On an input known to match, {@link java.util.regex} rarely backtracks much and is the fastest way to get the
+ * captures, so it is tried first with a small time budget. If the budget is ever exceeded, the captures of this regex
+ * are extracted from then on by a {@link BoundedBacktracker}, or a {@link PikeVm} for very long inputs, which both run
+ * in linear time.
+ * <p>
+ * Only the patterns that {@link RegexCompiler} supports can be run this way, and only on inputs without surrogate
+ * pairs and without a line terminator at the end when the pattern uses {@code $}. The other cases are left to {@link
+ * java.util.regex}.
+ */
+class LinearRegex {
+
+    static final int NO_MATCH = LazyDfa.NO_MATCH;
+
+    static final int MATCH = LazyDfa.MATCH;
+
+    static final int UNSUPPORTED_INPUT = LazyDfa.UNSUPPORTED_INPUT;
+
+    private static final int MAX_CACHED_PATTERNS = 1000;
+
+    private static final long CAPTURE_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final ConcurrentMap<Pattern, Optional<LinearRegex>> compiledPatterns = new ConcurrentHashMap<>();
+
+    private final Pattern pattern;
+
+    private final RegexProgram program;
+
+    private final LazyDfa anchoredDfa;
+
+    private final LazyDfa unanchoredDfa;
+
+    private final BoundedBacktracker backtracker;
+
+    private final PikeVm pikeVm;
+
+    private volatile boolean slowWithBacktracking = false;
+
+    private LinearRegex(Pattern pattern, RegexProgram program) {
+        this.pattern = pattern;
+        this.program = program;
+        this.anchoredDfa = new LazyDfa(program, false);
+        this.unanchoredDfa = new LazyDfa(program, true);
+        this.backtracker = new BoundedBacktracker(program);
+        this.pikeVm = new PikeVm(program);
+    }
+
+    /**
+     * Gets the linear version of the given pattern, compiling it the first time.
+     *
+     * @param pattern
+     *         the pattern to run
+     * @return the linear version of the given pattern, or null if it uses features that need backtracking
+     */
+    @Nullable
+    static LinearRegex of(@NotNull Pattern pattern) {
+        Optional<LinearRegex> linearRegex = compiledPatterns.get(pattern);
+        if (linearRegex == null) {
+            if (compiledPatterns.size() >= MAX_CACHED_PATTERNS) {
+                // edited patterns are not used anymore, the ones in use will be compiled again
+                compiledPatterns.clear();
+            }
+            RegexProgram program = RegexCompiler.compile(pattern);
+            linearRegex = Optional.ofNullable(program).map(p -> new LinearRegex(pattern, p));
+            compiledPatterns.put(pattern, linearRegex);
+        }
+        return linearRegex.orElse(null);
+    }
+
+    /**
+     * Tells whether the entire given input matches.
+     *
+     * @param input
+     *         the input to match
+     * @return {@link #MATCH}, {@link #NO_MATCH}, or {@link #UNSUPPORTED_INPUT}
+     */
+    int matches(@NotNull CharSequence input) {
+        return isSupported(input) ? anchoredDfa.run(input) : UNSUPPORTED_INPUT;
+    }
+
+    /**
+     * Tells whether a subsequence of the given input matches.
+     *
+     * @param input
+     *         the input to search
+     * @return {@link #MATCH}, {@link #NO_MATCH}, or {@link #UNSUPPORTED_INPUT}
+     */
+    int find(@NotNull CharSequence input) {
+        return isSupported(input) ? unanchoredDfa.run(input) : UNSUPPORTED_INPUT;
+    }
+
+    /**
+     * @return whether {@link #capture(CharSequence)} can extract the captures of this regex
+     */
+    boolean canCapture() {
+        return program.canCapture;
+    }
+
+    /**
+     * Extracts the captures of the given input, which must match entirely. This must only be called if {@link
+     * #canCapture()} is true.
+     *
+     * @param input
+     *         an input for which {@link #matches(CharSequence)} returned {@link #MATCH}
+     * @return the captures of the match, or null if the input doesn't match
+     */
+    @Nullable
+    RegexMatch capture(@NotNull CharSequence input) {
+        if (!slowWithBacktracking) {
+            try {
+                Matcher matcher = pattern.matcher(new TimeLimitedCharSequence(input, pattern, CAPTURE_BUDGET_NANOS));
+                return matcher.matches() ? RegexMatch.of(matcher) : null;
+            } catch (RegexTimeoutException e) {
+                slowWithBacktracking = true;
+            }
+        }
+        int[] captures;
+        if (backtracker.supports(input.length())) {
+            captures = backtracker.matches(input);
+        } else {
+            captures = pikeVm.matches(input);
+        }
+        if (captures == null) {
+            return null;
+        }
+        return new Captures(program, input, captures);
+    }
+
+    private boolean isSupported(CharSequence input) {
+        int length = input.length();
+        if (length == 0) {
+            // the beginning is also the end, the DFA states don't handle it
+            return false;
+        }
+        // java.util.regex also matches $ before a final line terminator
+        return !program.hasEndAssertion || !CharClass.LINE_TERMINATORS.contains(input.charAt(length - 1));
+    }
+
+    /**
+     * The captures found by the backtracker or the Pike VM, as pairs of start and end indexes in the input.
+     */
+    private static class Captures implements RegexMatch {
+
+        private final RegexProgram program;
+
+        private final CharSequence input;
+
+        private final int[] captures;
+
+        Captures(RegexProgram program, CharSequence input, int[] captures) {
+            this.program = program;
+            this.input = input;
+            this.captures = captures;
+        }
+
+        private int groupIndex(String groupName) {
+            Integer groupIndex = program.groupIndexes.get(groupName);
+            if (groupIndex == null) {
+                throw new IllegalArgumentException("No group with name <" + groupName + ">");
+            }
+            return groupIndex;
+        }
+
+        @Override
+        public int start(@NotNull String groupName) {
+            int groupIndex = groupIndex(groupName);
+            // a group whose end is unset did not participate, even if its start was set on a failed path
+            return captures[2 * groupIndex + 1] < 0 ? -1 : captures[2 * groupIndex];
+        }
+
+        @Override
+        public int end(@NotNull String groupName) {
+            int groupIndex = groupIndex(groupName);
+            return captures[2 * groupIndex] < 0 ? -1 : captures[2 * groupIndex + 1];
+        }
+
+        @Nullable
+        @Override
+        public String group(@NotNull String groupName) {
+            int start = start(groupName);
+            return start < 0 ? null : input.subSequence(start, end(groupName)).toString();
+        }
+    }
+}
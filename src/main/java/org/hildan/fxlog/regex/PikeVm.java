@@ -0,0 +1,127 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link RegexProgram} on the entire input, following all the possible paths at once, to find the captures of
+ * the highest priority path in linear time.
+ * <p>
+ * The paths are kept in priority order, and a path reaching an instruction already reached at the same position by a
+ * path of higher priority is dropped, because it can't do better. This yields the captures that {@link
+ * java.util.regex} finds by backtracking.
+ */
+class PikeVm {
+
+    private final RegexProgram program;
+
+    PikeVm(RegexProgram program) {
+        this.program = program;
+    }
+
+    /**
+     * Matches the entire given input.
+     *
+     * @param input
+     *         the input to match
+     * @return the capture slots (start and end of each group, or -1), or null if the input doesn't match
+     */
+    int[] matches(CharSequence input) {
+        int length = input.length();
+        ThreadList current = new ThreadList(program.size());
+        ThreadList next = new ThreadList(program.size());
+        int[] initialCaptures = new int[2 * program.nbGroups];
+        Arrays.fill(initialCaptures, -1);
+        addThread(current, 0, initialCaptures, 0, length);
+        for (int pos = 0; pos <= length && current.size > 0; pos++) {
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                int pc = current.pcs[i];
+                int op = program.ops[pc];
+                if (op == RegexProgram.MATCH) {
+                    if (pos == length) {
+                        // the lower priority paths are not interesting anymore
+                        return current.captures[i];
+                    }
+                } else if (pos < length && program.charClasses[pc].contains(input.charAt(pos))) {
+                    addThread(next, pc + 1, current.captures[i], pos + 1, length);
+                }
+            }
+            ThreadList tmp = current;
+            current = next;
+            next = tmp;
+        }
+        return null;
+    }
+
+    private void addThread(ThreadList list, int pc, int[] captures, int pos, int length) {
+        if (!list.markVisited(pc)) {
+            return;
+        }
+        switch (program.ops[pc]) {
+        case RegexProgram.JUMP:
+            addThread(list, program.arg1[pc], captures, pos, length);
+            break;
+        case RegexProgram.SPLIT:
+            addThread(list, program.arg1[pc], captures, pos, length);
+            addThread(list, program.arg2[pc], captures, pos, length);
+            break;
+        case RegexProgram.SAVE:
+            // the captures are shared between paths, they are copied on write
+            int[] newCaptures = captures.clone();
+            newCaptures[program.arg1[pc]] = pos;
+            addThread(list, pc + 1, newCaptures, pos, length);
+            break;
+        case RegexProgram.ASSERT_BEGIN:
+            if (pos == 0) {
+                addThread(list, pc + 1, captures, pos, length);
+            }
+            break;
+        case RegexProgram.ASSERT_END:
+            if (pos == length) {
+                addThread(list, pc + 1, captures, pos, length);
+            }
+            break;
+        default:
+            list.add(pc, captures);
+            break;
+        }
+    }
+
+    private static class ThreadList {
+
+        private final int[] pcs;
+
+        private final int[][] captures;
+
+        private final int[] visitedGeneration;
+
+        private int generation = 1;
+
+        private int size;
+
+        ThreadList(int capacity) {
+            this.pcs = new int[capacity];
+            this.captures = new int[capacity][];
+            this.visitedGeneration = new int[capacity];
+        }
+
+        boolean markVisited(int pc) {
+            if (visitedGeneration[pc] == generation) {
+                return false;
+            }
+            visitedGeneration[pc] = generation;
+            return true;
+        }
+
+        void add(int pc, int[] threadCaptures) {
+            pcs[size] = pc;
+            captures[size] = threadCaptures;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+        }
+    }
+}
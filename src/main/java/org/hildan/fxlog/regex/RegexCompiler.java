@@ -0,0 +1,635 @@
+package org.hildan.fxlog.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiles the regexes that don't need backtracking into a {@link RegexProgram}.
+ * <p>
+ * The supported syntax is the subset of {@link Pattern} made of literals, the usual escapes, {@code .}, simple
+ * character classes, the predefined classes {@code \d \w \s} and their negations, capturing, named and non-capturing
+ * groups, alternations, greedy and lazy quantifiers, {@code ^} and {@code $}. The flags {@link
+ * Pattern#CASE_INSENSITIVE} and {@link Pattern#DOTALL} are supported.
+ * <p>
+ * Anything else (backreferences, lookarounds, possessive quantifiers, inline flags, word boundaries, unicode classes,
+ * class unions and intersections...) is not supported, nor are repetitions of expressions that can match the empty
+ * string, because {@link java.util.regex} has specific rules for them. These regexes must be run by {@link
+ * java.util.regex}.
+ * <p>
+ * The captures of groups inside repetitions can't be extracted by the program either, because {@link java.util.regex}
+ * keeps the captures of the iterations it backtracked from. These regexes are compiled for the match test only.
+ */
+class RegexCompiler {
+
+    private static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+
+    private static final int MAX_PROGRAM_SIZE = 5000;
+
+    private static final int UNBOUNDED = -1;
+
+    private final String regex;
+
+    private final boolean caseInsensitive;
+
+    private final boolean dotAll;
+
+    private int index;
+
+    private int nbGroups;
+
+    private final Map<String, Integer> groupIndexes = new HashMap<>();
+
+    private boolean groupsInRepetitions;
+
+    private RegexCompiler(String regex, int flags) {
+        this.regex = regex;
+        this.caseInsensitive = (flags & Pattern.CASE_INSENSITIVE) != 0;
+        this.dotAll = (flags & Pattern.DOTALL) != 0;
+    }
+
+    /**
+     * Compiles the given pattern if it is supported.
+     *
+     * @param pattern
+     *         the pattern to compile
+     * @return the compiled program, or null if the pattern uses unsupported features
+     */
+    @Nullable
+    static RegexProgram compile(@NotNull Pattern pattern) {
+        if ((pattern.flags() & ~SUPPORTED_FLAGS) != 0) {
+            return null;
+        }
+        try {
+            RegexCompiler compiler = new RegexCompiler(pattern.pattern(), pattern.flags());
+            Node root = compiler.parseAlternation();
+            if (compiler.index < compiler.regex.length()) {
+                return null;
+            }
+            Emitter emitter = new Emitter();
+            // the whole match is group 0
+            emitter.emit(RegexProgram.SAVE, 0, 0, null);
+            root.emit(emitter);
+            emitter.emit(RegexProgram.SAVE, 1, 0, null);
+            emitter.emit(RegexProgram.MATCH, 0, 0, null);
+            return emitter.build(compiler.nbGroups + 1, compiler.groupIndexes, !compiler.groupsInRepetitions);
+        } catch (UnsupportedRegexException e) {
+            return null;
+        }
+    }
+
+    private boolean hasMore() {
+        return index < regex.length();
+    }
+
+    private char peek() {
+        return regex.charAt(index);
+    }
+
+    private boolean consume(char expected) {
+        if (hasMore() && peek() == expected) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    private char next() {
+        if (!hasMore()) {
+            throw new UnsupportedRegexException();
+        }
+        return regex.charAt(index++);
+    }
+
+    private Node parseAlternation() {
+        List<Node> branches = new ArrayList<>();
+        branches.add(parseConcatenation());
+        while (consume('|')) {
+            branches.add(parseConcatenation());
+        }
+        return branches.size() == 1 ? branches.get(0) : new Alternation(branches);
+    }
+
+    private Node parseConcatenation() {
+        List<Node> items = new ArrayList<>();
+        while (hasMore() && peek() != '|' && peek() != ')') {
+            items.add(parseQuantifier(parseAtom()));
+        }
+        return new Concatenation(items);
+    }
+
+    private Node parseQuantifier(Node atom) {
+        if (!hasMore()) {
+            return atom;
+        }
+        int min;
+        int max;
+        char ch = peek();
+        if (ch == '*') {
+            min = 0;
+            max = UNBOUNDED;
+        } else if (ch == '+') {
+            min = 1;
+            max = UNBOUNDED;
+        } else if (ch == '?') {
+            min = 0;
+            max = 1;
+        } else if (ch == '{') {
+            index++;
+            min = parseNumber();
+            max = min;
+            if (consume(',')) {
+                max = hasMore() && peek() == '}' ? UNBOUNDED : parseNumber();
+            }
+            if (!hasMore() || peek() != '}' || (max != UNBOUNDED && max < min)) {
+                throw new UnsupportedRegexException();
+            }
+        } else {
+            return atom;
+        }
+        index++;
+        boolean greedy = !consume('?');
+        if (hasMore() && "*+?{".indexOf(peek()) >= 0) {
+            // possessive quantifiers, or stacked quantifiers
+            throw new UnsupportedRegexException();
+        }
+        if (atom.isNullable() && max != 1) {
+            // java.util.regex stops iterating on empty matches in its own way
+            throw new UnsupportedRegexException();
+        }
+        if (atom.hasGroups() && max != 1) {
+            // java.util.regex keeps the captures of the iterations it backtracks from, we can't find the same ones
+            groupsInRepetitions = true;
+        }
+        return new Repetition(atom, min, max, greedy);
+    }
+
+    private int parseNumber() {
+        int start = index;
+        while (hasMore() && Character.isDigit(peek()) && index - start < 4) {
+            index++;
+        }
+        if (start == index || (hasMore() && Character.isDigit(peek()))) {
+            throw new UnsupportedRegexException();
+        }
+        return Integer.parseInt(regex.substring(start, index));
+    }
+
+    private Node parseAtom() {
+        char ch = next();
+        switch (ch) {
+        case '(':
+            return parseGroup();
+        case '[':
+            return new CharNode(parseClass());
+        case '.':
+            return new CharNode(dotAll ? CharClass.ALL : CharClass.LINE_TERMINATORS.negate());
+        case '^':
+            return new Assertion(RegexProgram.ASSERT_BEGIN);
+        case '$':
+            return new Assertion(RegexProgram.ASSERT_END);
+        case '\\':
+            return new CharNode(parseEscape());
+        case '*':
+        case '+':
+        case '?':
+        case '{':
+            throw new UnsupportedRegexException();
+        default:
+            return new CharNode(literal(ch));
+        }
+    }
+
+    private Node parseGroup() {
+        int groupIndex = -1;
+        if (consume('?')) {
+            if (consume('<')) {
+                String name = parseGroupName();
+                groupIndex = ++nbGroups;
+                groupIndexes.put(name, groupIndex);
+            } else if (!consume(':')) {
+                // lookarounds, atomic groups, inline flags
+                throw new UnsupportedRegexException();
+            }
+        } else {
+            groupIndex = ++nbGroups;
+        }
+        Node content = parseAlternation();
+        if (!consume(')')) {
+            throw new UnsupportedRegexException();
+        }
+        return groupIndex < 0 ? content : new Group(groupIndex, content);
+    }
+
+    private String parseGroupName() {
+        int start = index;
+        while (hasMore() && Character.isLetterOrDigit(peek()) && peek() < 128) {
+            index++;
+        }
+        if (start == index || !Character.isLetter(regex.charAt(start)) || !consume('>')) {
+            // lookbehinds, or invalid names
+            throw new UnsupportedRegexException();
+        }
+        return regex.substring(start, index - 1);
+    }
+
+    private CharClass parseClass() {
+        CharClass.Builder builder = CharClass.builder();
+        boolean negated = consume('^');
+        // like java.util.regex, a ']' at the start of the class is a literal
+        boolean first = true;
+        while (first || !consume(']')) {
+            first = false;
+            char ch = next();
+            if (ch == '[' || (ch == '&' && hasMore() && peek() == '&')) {
+                // unions and intersections
+                throw new UnsupportedRegexException();
+            }
+            CharClass predefined = null;
+            char from = ch;
+            if (ch == '\\') {
+                predefined = parsePredefinedClass();
+                if (predefined == null) {
+                    from = parseEscapedChar();
+                }
+            }
+            if (predefined != null) {
+                builder.addAll(predefined);
+            } else if (hasMore() && peek() == '-' && index + 1 < regex.length() && regex.charAt(index + 1) != ']') {
+                index++;
+                char to = next();
+                if (to == '\\') {
+                    to = parseEscapedChar();
+                } else if (to == '[') {
+                    throw new UnsupportedRegexException();
+                }
+                if (to < from) {
+                    throw new UnsupportedRegexException();
+                }
+                checkNotSurrogate(from);
+                checkNotSurrogate(to);
+                builder.addRange(from, to);
+            } else {
+                checkNotSurrogate(from);
+                builder.add(from);
+            }
+        }
+        if (caseInsensitive) {
+            builder.foldAsciiCase();
+        }
+        if (negated) {
+            builder.negate();
+        }
+        return builder.build();
+    }
+
+    private CharClass parseEscape() {
+        CharClass predefined = parsePredefinedClass();
+        if (predefined != null) {
+            return predefined;
+        }
+        return literal(parseEscapedChar());
+    }
+
+    @Nullable
+    private CharClass parsePredefinedClass() {
+        if (!hasMore()) {
+            throw new UnsupportedRegexException();
+        }
+        switch (peek()) {
+        case 'd':
+            index++;
+            return CharClass.DIGITS;
+        case 'D':
+            index++;
+            return CharClass.DIGITS.negate();
+        case 'w':
+            index++;
+            return CharClass.WORD_CHARS;
+        case 'W':
+            index++;
+            return CharClass.WORD_CHARS.negate();
+        case 's':
+            index++;
+            return CharClass.SPACES;
+        case 'S':
+            index++;
+            return CharClass.SPACES.negate();
+        default:
+            return null;
+        }
+    }
+
+    private char parseEscapedChar() {
+        char ch = next();
+        switch (ch) {
+        case 't':
+            return '\t';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 'f':
+            return '\f';
+        case 'a':
+            return '\u0007';
+        case 'e':
+            return '\u001B';
+        case 'x':
+            return parseHex(2);
+        case 'u':
+            return parseHex(4);
+        default:
+            if (Character.isLetterOrDigit(ch)) {
+                // backreferences, boundaries, unicode classes, octal escapes, quotes...
+                throw new UnsupportedRegexException();
+            }
+            return ch;
+        }
+    }
+
+    private char parseHex(int nbDigits) {
+        if (index + nbDigits > regex.length()) {
+            throw new UnsupportedRegexException();
+        }
+        String digits = regex.substring(index, index + nbDigits);
+        for (char digit : digits.toCharArray()) {
+            if (Character.digit(digit, 16) < 0) {
+                throw new UnsupportedRegexException();
+            }
+        }
+        index += nbDigits;
+        char ch = (char) Integer.parseInt(digits, 16);
+        checkNotSurrogate(ch);
+        return ch;
+    }
+
+    private CharClass literal(char ch) {
+        // java.util.regex matches code points, surrogate pairs are left to it
+        checkNotSurrogate(ch);
+        CharClass.Builder builder = CharClass.builder().add(ch);
+        if (caseInsensitive) {
+            builder.foldAsciiCase();
+        }
+        return builder.build();
+    }
+
+    private static void checkNotSurrogate(char ch) {
+        if (Character.isSurrogate(ch)) {
+            throw new UnsupportedRegexException();
+        }
+    }
+
+    private static class UnsupportedRegexException extends RuntimeException {
+
+        UnsupportedRegexException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A node of the syntax tree of a regex.
+     */
+    private interface Node {
+
+        boolean isNullable();
+
+        default boolean hasGroups() {
+            return false;
+        }
+
+        void emit(Emitter emitter);
+    }
+
+    private static class CharNode implements Node {
+
+        private final CharClass charClass;
+
+        CharNode(CharClass charClass) {
+            this.charClass = charClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            emitter.emit(RegexProgram.CHAR, 0, 0, charClass);
+        }
+    }
+
+    private static class Assertion implements Node {
+
+        private final int op;
+
+        Assertion(int op) {
+            this.op = op;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return true;
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            emitter.emit(op, 0, 0, null);
+        }
+    }
+
+    private static class Concatenation implements Node {
+
+        private final List<Node> items;
+
+        Concatenation(List<Node> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return items.stream().allMatch(Node::isNullable);
+        }
+
+        @Override
+        public boolean hasGroups() {
+            return items.stream().anyMatch(Node::hasGroups);
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            items.forEach(item -> item.emit(emitter));
+        }
+    }
+
+    private static class Alternation implements Node {
+
+        private final List<Node> branches;
+
+        Alternation(List<Node> branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return branches.stream().anyMatch(Node::isNullable);
+        }
+
+        @Override
+        public boolean hasGroups() {
+            return branches.stream().anyMatch(Node::hasGroups);
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            List<Integer> jumpsToEnd = new ArrayList<>();
+            for (int i = 0; i < branches.size() - 1; i++) {
+                int split = emitter.emit(RegexProgram.SPLIT, 0, 0, null);
+                emitter.patchArg1(split, emitter.size());
+                branches.get(i).emit(emitter);
+                jumpsToEnd.add(emitter.emit(RegexProgram.JUMP, 0, 0, null));
+                emitter.patchArg2(split, emitter.size());
+            }
+            branches.get(branches.size() - 1).emit(emitter);
+            jumpsToEnd.forEach(jump -> emitter.patchArg1(jump, emitter.size()));
+        }
+    }
+
+    private static class Group implements Node {
+
+        private final int groupIndex;
+
+        private final Node content;
+
+        Group(int groupIndex, Node content) {
+            this.groupIndex = groupIndex;
+            this.content = content;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return content.isNullable();
+        }
+
+        @Override
+        public boolean hasGroups() {
+            return true;
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            emitter.emit(RegexProgram.SAVE, 2 * groupIndex, 0, null);
+            content.emit(emitter);
+            emitter.emit(RegexProgram.SAVE, 2 * groupIndex + 1, 0, null);
+        }
+    }
+
+    private static class Repetition implements Node {
+
+        private final Node content;
+
+        private final int min;
+
+        private final int max;
+
+        private final boolean greedy;
+
+        Repetition(Node content, int min, int max, boolean greedy) {
+            this.content = content;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return min == 0 || content.isNullable();
+        }
+
+        @Override
+        public boolean hasGroups() {
+            return content.hasGroups();
+        }
+
+        @Override
+        public void emit(Emitter emitter) {
+            for (int i = 0; i < min; i++) {
+                content.emit(emitter);
+            }
+            if (max == UNBOUNDED) {
+                int split = emitter.emit(RegexProgram.SPLIT, 0, 0, null);
+                content.emit(emitter);
+                emitter.emit(RegexProgram.JUMP, split, 0, null);
+                emitter.patchSplit(split, split + 1, emitter.size(), greedy);
+                return;
+            }
+            List<Integer> splits = new ArrayList<>();
+            for (int i = min; i < max; i++) {
+                splits.add(emitter.emit(RegexProgram.SPLIT, 0, 0, null));
+                content.emit(emitter);
+            }
+            // skipping an optional occurrence skips all the following ones
+            splits.forEach(split -> emitter.patchSplit(split, split + 1, emitter.size(), greedy));
+        }
+    }
+
+    private static class Emitter {
+
+        private int[] ops = new int[16];
+
+        private int[] arg1 = new int[16];
+
+        private int[] arg2 = new int[16];
+
+        private CharClass[] charClasses = new CharClass[16];
+
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int emit(int op, int a1, int a2, CharClass charClass) {
+            if (size == MAX_PROGRAM_SIZE) {
+                throw new UnsupportedRegexException();
+            }
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                arg1 = Arrays.copyOf(arg1, size * 2);
+                arg2 = Arrays.copyOf(arg2, size * 2);
+                charClasses = Arrays.copyOf(charClasses, size * 2);
+            }
+            ops[size] = op;
+            arg1[size] = a1;
+            arg2[size] = a2;
+            charClasses[size] = charClass;
+            return size++;
+        }
+
+        void patchArg1(int pc, int value) {
+            arg1[pc] = value;
+        }
+
+        void patchArg2(int pc, int value) {
+            arg2[pc] = value;
+        }
+
+        void patchSplit(int pc, int loop, int exit, boolean greedy) {
+            arg1[pc] = greedy ? loop : exit;
+            arg2[pc] = greedy ? exit : loop;
+        }
+
+        RegexProgram build(int nbGroups, Map<String, Integer> groupIndexes, boolean canCapture) {
+            return new RegexProgram(Arrays.copyOf(ops, size), Arrays.copyOf(arg1, size), Arrays.copyOf(arg2, size),
+                    Arrays.copyOf(charClasses, size), nbGroups, Collections.unmodifiableMap(groupIndexes), canCapture);
+        }
+    }
+}
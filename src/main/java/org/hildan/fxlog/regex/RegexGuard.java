@@ -0,0 +1,200 @@
+package org.hildan.fxlog.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Applies user regexes with a time budget per match, so that a regex prone to catastrophic backtracking cannot freeze
+ * the thread it runs on.
+ * <p>
+ * Most patterns don't need backtracking at all: they are run by a lazily built DFA in linear time, with a second pass
+ * on the matching inputs to extract the captures. Only the patterns using features the DFA doesn't support are run by
+ * {@link java.util.regex}, with the time budget.
+ * <p>
+ * A match that exceeds the budget is treated as a non-match, and counted for the pattern that caused it, so that the
+ * offending patterns can be reported to the user.
+ */
+public class RegexGuard {
+
+    /**
+     * The time a regex is allowed to spend on a single input, in milliseconds.
+     */
+    public static final long TIME_BUDGET_MILLIS = 50;
+
+    private static final long TIME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(TIME_BUDGET_MILLIS);
+
+    private static final ConcurrentMap<String, LongAdder> timeoutsByPattern = new ConcurrentHashMap<>();
+
+    private static final LongAdder totalTimeouts = new LongAdder();
+
+    private RegexGuard() {
+    }
+
+    /**
+     * Tells whether the given pattern runs in linear time, without backtracking and therefore without time budget.
+     *
+     * @param pattern
+     *         the pattern to check
+     * @return true if the given pattern runs in linear time on most inputs
+     */
+    public static boolean isLinear(@NotNull Pattern pattern) {
+        return LinearRegex.of(pattern) != null;
+    }
+
+    /**
+     * Matches the entire given input against the given pattern. The patterns that need backtracking are given the
+     * time budget, but the timeout is not counted, this is up to the caller.
+     *
+     * @param pattern
+     *         the pattern to apply
+     * @param input
+     *         the input to match
+     * @return the captures if the whole input matches, or null if it doesn't match
+     * @throws RegexTimeoutException
+     *         if the budget is exceeded
+     */
+    @Nullable
+    public static RegexMatch tryMatch(@NotNull Pattern pattern, @NotNull CharSequence input) throws
+            RegexTimeoutException {
+        LinearRegex linearRegex = LinearRegex.of(pattern);
+        if (linearRegex != null) {
+            int result = linearRegex.matches(input);
+            if (result == LinearRegex.NO_MATCH) {
+                return null;
+            }
+            if (result == LinearRegex.MATCH && linearRegex.canCapture()) {
+                return linearRegex.capture(input);
+            }
+        }
+        // the captures of some patterns can only be extracted by java.util.regex, even when the DFA matched
+        Matcher matcher = matcher(pattern, input);
+        return matcher.matches() ? RegexMatch.of(matcher) : null;
+    }
+
+    /**
+     * Matches the entire given input against the given pattern, within the time budget.
+     *
+     * @param pattern
+     *         the pattern to apply
+     * @param input
+     *         the input to match
+     * @return the captures if the whole input matches, or null if it doesn't match or if the budget is exceeded
+     */
+    @Nullable
+    public static RegexMatch matches(@NotNull Pattern pattern, @NotNull CharSequence input) {
+        try {
+            return tryMatch(pattern, input);
+        } catch (RegexTimeoutException e) {
+            countTimeout(pattern);
+            return null;
+        }
+    }
+
+    /**
+     * Looks for a subsequence of the given input matching the given pattern, within the time budget.
+     *
+     * @param pattern
+     *         the pattern to apply
+     * @param input
+     *         the input to search
+     * @return true if a subsequence matches, false if none matches or if the budget is exceeded
+     */
+    public static boolean find(@NotNull Pattern pattern, @NotNull CharSequence input) {
+        LinearRegex linearRegex = LinearRegex.of(pattern);
+        if (linearRegex != null) {
+            int result = linearRegex.find(input);
+            if (result != LinearRegex.UNSUPPORTED_INPUT) {
+                return result == LinearRegex.MATCH;
+            }
+        }
+        try {
+            return matcher(pattern, input).find();
+        } catch (RegexTimeoutException e) {
+            countTimeout(pattern);
+            return false;
+        }
+    }
+
+    /**
+     * Looks for all the non-empty subsequences of the given input matching the given pattern, within the time budget.
+     * The budget applies to the whole search, not to each match.
+     *
+     * @param pattern
+     *         the pattern to apply
+     * @param input
+     *         the input to search
+     * @return the bounds of the matches, in order, each as a {start, end} pair, or an empty list if none matches or if
+     * the budget is exceeded
+     */
+    @NotNull
+    public static List<int[]> findAll(@NotNull Pattern pattern, @NotNull CharSequence input) {
+        LinearRegex linearRegex = LinearRegex.of(pattern);
+        if (linearRegex != null && linearRegex.find(input) == LinearRegex.NO_MATCH) {
+            return Collections.emptyList();
+        }
+        List<int[]> matches = new ArrayList<>();
+        try {
+            Matcher matcher = matcher(pattern, input);
+            while (matcher.find()) {
+                if (matcher.end() > matcher.start()) {
+                    matches.add(new int[] {matcher.start(), matcher.end()});
+                }
+            }
+            return matches;
+        } catch (RegexTimeoutException e) {
+            countTimeout(pattern);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Creates a matcher of the given pattern on the given input, which throws a {@link RegexTimeoutException} if it
+     * reads the input for longer than the time budget. The budget starts now.
+     */
+    @NotNull
+    private static Matcher matcher(@NotNull Pattern pattern, @NotNull CharSequence input) {
+        return pattern.matcher(new TimeLimitedCharSequence(input, pattern, TIME_BUDGET_NANOS));
+    }
+
+    private static void countTimeout(@NotNull Pattern pattern) {
+        timeoutsByPattern.computeIfAbsent(pattern.pattern(), p -> new LongAdder()).increment();
+        totalTimeouts.increment();
+    }
+
+    /**
+     * @return the number of matches that exceeded the time budget since the last reset
+     */
+    public static long getTotalTimeouts() {
+        return totalTimeouts.sum();
+    }
+
+    /**
+     * @return the number of matches that exceeded the time budget since the last reset, for each offending regex
+     */
+    @NotNull
+    public static Map<String, Long> getTimeoutsByPattern() {
+        Map<String, Long> timeouts = new LinkedHashMap<>();
+        timeoutsByPattern.forEach((regex, count) -> timeouts.put(regex, count.sum()));
+        return Collections.unmodifiableMap(timeouts);
+    }
+
+    /**
+     * Forgets the timeouts counted so far, for instance after the offending regexes were fixed.
+     */
+    public static void resetTimeouts() {
+        timeoutsByPattern.clear();
+        totalTimeouts.reset();
+    }
+}
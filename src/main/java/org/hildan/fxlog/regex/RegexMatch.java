@@ -0,0 +1,74 @@
+package org.hildan.fxlog.regex;
+
+import java.util.regex.Matcher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The captures of a successful match, whichever engine found it.
+ */
+public interface RegexMatch {
+
+    /**
+     * Returns the index in the input of the first character captured by the given named group during the match.
+     *
+     * @param groupName
+     *         the name of a capturing group of the pattern
+     * @return the start index of the capture, or -1 if the group did not participate in the match
+     * @throws IllegalArgumentException
+     *         if there is no capturing group with the given name in the pattern
+     */
+    int start(@NotNull String groupName);
+
+    /**
+     * Returns the index in the input after the last character captured by the given named group during the match.
+     *
+     * @param groupName
+     *         the name of a capturing group of the pattern
+     * @return the end index of the capture, or -1 if the group did not participate in the match
+     * @throws IllegalArgumentException
+     *         if there is no capturing group with the given name in the pattern
+     */
+    int end(@NotNull String groupName);
+
+    /**
+     * Returns the input subsequence captured by the given named group during the match.
+     *
+     * @param groupName
+     *         the name of a capturing group of the pattern
+     * @return the captured subsequence, or null if the group did not participate in the match
+     * @throws IllegalArgumentException
+     *         if there is no capturing group with the given name in the pattern
+     */
+    @Nullable
+    String group(@NotNull String groupName);
+
+    /**
+     * Gives access to the captures of a {@link Matcher} that has successfully matched.
+     *
+     * @param matcher
+     *         a matcher whose last match succeeded
+     * @return the captures of the last match of the given matcher
+     */
+    @NotNull
+    static RegexMatch of(@NotNull Matcher matcher) {
+        return new RegexMatch() {
+            @Override
+            public int start(@NotNull String groupName) {
+                return matcher.start(groupName);
+            }
+
+            @Override
+            public int end(@NotNull String groupName) {
+                return matcher.end(groupName);
+            }
+
+            @Nullable
+            @Override
+            public String group(@NotNull String groupName) {
+                return matcher.group(groupName);
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Map;
+
+/**
+ * A regex compiled into instructions for a Thompson NFA, which {@link LazyDfa} and {@link PikeVm} can run in linear
+ * time.
+ * <p>
+ * The order of the branches of a {@link #SPLIT} gives their priority, so that the captures are the same as the ones
+ * {@link java.util.regex} finds by backtracking.
+ */
+class RegexProgram {
+
+    /**
+     * Consumes a char of the class {@code charClasses[pc]}.
+     */
+    static final int CHAR = 0;
+
+    /**
+     * Continues at {@code arg1[pc]} first, then at {@code arg2[pc]}.
+     */
+    static final int SPLIT = 1;
+
+    /**
+     * Continues at {@code arg1[pc]}.
+     */
+    static final int JUMP = 2;
+
+    /**
+     * Saves the current position in the capture slot {@code arg1[pc]}.
+     */
+    static final int SAVE = 3;
+
+    /**
+     * Only passes at the beginning of the input.
+     */
+    static final int ASSERT_BEGIN = 4;
+
+    /**
+     * Only passes at the end of the input.
+     */
+    static final int ASSERT_END = 5;
+
+    /**
+     * The input is matched.
+     */
+    static final int MATCH = 6;
+
+    final int[] ops;
+
+    final int[] arg1;
+
+    final int[] arg2;
+
+    final CharClass[] charClasses;
+
+    final int nbGroups;
+
+    final Map<String, Integer> groupIndexes;
+
+    final boolean hasEndAssertion;
+
+    /**
+     * Whether {@link PikeVm} finds the same captures as {@link java.util.regex} with this program.
+     */
+    final boolean canCapture;
+
+    RegexProgram(int[] ops, int[] arg1, int[] arg2, CharClass[] charClasses, int nbGroups,
+                 Map<String, Integer> groupIndexes, boolean canCapture) {
+        this.ops = ops;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.charClasses = charClasses;
+        this.nbGroups = nbGroups;
+        this.groupIndexes = groupIndexes;
+        this.canCapture = canCapture;
+        boolean endAssertion = false;
+        for (int op : ops) {
+            endAssertion |= op == ASSERT_END;
+        }
+        this.hasEndAssertion = endAssertion;
+    }
+
+    int size() {
+        return ops.length;
+    }
+}
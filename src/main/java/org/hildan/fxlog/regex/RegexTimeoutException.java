@@ -0,0 +1,36 @@
+package org.hildan.fxlog.regex;
+
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a regex takes longer than the time budget of {@link RegexGuard} to match an input.
+ */
+public class RegexTimeoutException extends RuntimeException {
+
+    private final Pattern pattern;
+
+    /**
+     * Creates a new RegexTimeoutException.
+     *
+     * @param pattern
+     *         the pattern that took too long to match
+     * @param inputLength
+     *         the length of the input the pattern was applied to
+     */
+    RegexTimeoutException(@NotNull Pattern pattern, int inputLength) {
+        // no stack trace, this is expected to happen and should be cheap
+        super("The regex '" + pattern.pattern() + "' took too long to match an input of " + inputLength + " chars",
+                null, false, false);
+        this.pattern = pattern;
+    }
+
+    /**
+     * @return the pattern that took too long to match
+     */
+    @NotNull
+    public Pattern getPattern() {
+        return pattern;
+    }
+}
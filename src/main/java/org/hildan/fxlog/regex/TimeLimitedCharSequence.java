@@ -0,0 +1,67 @@
+package org.hildan.fxlog.regex;
+
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link CharSequence} that stops a regex from reading it after a deadline, by throwing a {@link
+ * RegexTimeoutException} from {@link #charAt(int)}.
+ * <p>
+ * The regex engine reads its input one char at a time, and backtracking reads the same chars again and again, so a
+ * regex stuck in catastrophic backtracking calls {@link #charAt(int)} continuously. The clock is only read every few
+ * thousand calls to keep the overhead low on normal matches.
+ */
+class TimeLimitedCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL_MASK = 0xFFF;
+
+    private final CharSequence chars;
+
+    private final Pattern pattern;
+
+    private final long deadlineNanos;
+
+    private int nbReads;
+
+    /**
+     * Creates a new TimeLimitedCharSequence.
+     *
+     * @param chars
+     *         the input to protect
+     * @param pattern
+     *         the pattern that will read this input, to report it in case of timeout
+     * @param budgetNanos
+     *         the time allowed to read this input, starting now
+     */
+    TimeLimitedCharSequence(@NotNull CharSequence chars, @NotNull Pattern pattern, long budgetNanos) {
+        this.chars = chars;
+        this.pattern = pattern;
+        this.deadlineNanos = System.nanoTime() + budgetNanos;
+    }
+
+    @Override
+    public int length() {
+        return chars.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if ((++nbReads & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new RegexTimeoutException(pattern, chars.length());
+        }
+        return chars.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        // used to extract the groups after the match, it does not need to be protected
+        return chars.subSequence(start, end);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return chars.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package org.hildan.fxlog.search;
 
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import javafx.beans.binding.Binding;
 import javafx.beans.binding.Bindings;
@@ -9,6 +11,8 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import org.hildan.fxlog.regex.RegexGuard;
+
 public class Search {
 
     private final BooleanProperty active = new SimpleBooleanProperty();
@@ -19,24 +23,76 @@ public class Search {
 
     private final BooleanProperty regexMode = new SimpleBooleanProperty();
 
-    private final Binding<Predicate<String>> textSearcher = createTextSearcherBinding();
+    private final Binding<Pattern> pattern = createPatternBinding();
+
+    private final Binding<Predicate<CharSequence>> textSearcher = createTextSearcherBinding();
+
+    private Binding<Pattern> createPatternBinding() {
+        return Bindings.createObjectBinding(() -> {
+            return compilePattern(matchCase.get(), regexMode.get(), text.get());
+        }, matchCase, regexMode, text);
+    }
 
-    private Binding<Predicate<String>> createTextSearcherBinding() {
+    private Binding<Predicate<CharSequence>> createTextSearcherBinding() {
         return Bindings.createObjectBinding(() -> {
-            return createTextMatcher(matchCase.get(), text.get());
-        }, matchCase, text);
+            return createTextMatcher(matchCase.get(), regexMode.get(), text.get(), pattern.getValue());
+        }, matchCase, regexMode, text, pattern);
     }
 
-    private static Predicate<String> createTextMatcher(boolean matchCase, String searchText) {
-        if (searchText.isEmpty()) {
+    private static Pattern compilePattern(boolean matchCase, boolean regexMode, String searchText) {
+        if (searchText == null || searchText.isEmpty()) {
+            return null;
+        }
+        String regex = regexMode ? searchText : Pattern.quote(searchText);
+        try {
+            return Pattern.compile(regex, matchCase ? 0 : Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            // the user is probably still typing the regex
+            return null;
+        }
+    }
+
+    private static Predicate<CharSequence> createTextMatcher(boolean matchCase, boolean regexMode, String searchText,
+                                                             Pattern pattern) {
+        if (pattern == null) {
             return s -> false;
         }
-        if (matchCase) {
-            return s -> s.contains(searchText);
-        } else {
-            String searchTextLowercase = searchText.toLowerCase();
-            return s -> s.toLowerCase().contains(searchTextLowercase);
+        if (regexMode) {
+            return s -> RegexGuard.find(pattern, s);
+        }
+        // plain text is faster to find without regex
+        return s -> contains(s, searchText, !matchCase);
+    }
+
+    /**
+     * Looks for the given text in the given sequence, without converting the sequence to a string.
+     */
+    private static boolean contains(CharSequence sequence, String searchText, boolean ignoreCase) {
+        int lastStart = sequence.length() - searchText.length();
+        for (int start = 0; start <= lastStart; start++) {
+            if (regionMatches(sequence, start, searchText, ignoreCase)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence sequence, int start, String searchText, boolean ignoreCase) {
+        for (int i = 0; i < searchText.length(); i++) {
+            char c1 = sequence.charAt(start + i);
+            char c2 = searchText.charAt(i);
+            if (c1 != c2 && !(ignoreCase && equalsIgnoreCase(c1, c2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(char c1, char c2) {
+        // same rules as String.equalsIgnoreCase(), some alphabets need both checks
+        char upper1 = Character.toUpperCase(c1);
+        char upper2 = Character.toUpperCase(c2);
+        return upper1 == upper2 || Character.toLowerCase(upper1) == Character.toLowerCase(upper2);
     }
 
     public boolean isActive() {
@@ -87,11 +143,25 @@ public class Search {
         this.regexMode.set(regexMode);
     }
 
-    public Predicate<String> getTextSearcher() {
+    /**
+     * Gets the pattern matching the parts of a text that this search is looking for, for instance to highlight them.
+     * This is the searched regex in regex mode, and the quoted search text otherwise.
+     *
+     * @return the pattern of the current search, or null if the search is empty or is not a valid regex
+     */
+    public Pattern getPattern() {
+        return pattern.getValue();
+    }
+
+    public Binding<Pattern> patternProperty() {
+        return pattern;
+    }
+
+    public Predicate<CharSequence> getTextSearcher() {
         return textSearcher.getValue();
     }
 
-    public Binding<Predicate<String>> textSearcherProperty() {
+    public Binding<Predicate<CharSequence>> textSearcherProperty() {
         return textSearcher;
     }
 }
@@ -0,0 +1,127 @@
+package org.hildan.fxlog.search;
+
+import java.util.function.IntToLongFunction;
+
+import org.hildan.fxlog.columns.ColumnType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds the log closest to a point in time by binary search over the timestamps of the logs, without reading them
+ * all.
+ * <p>
+ * The logs are roughly sorted by time, but not exactly: multi-line logs such as stack traces have no timestamp, and
+ * logs written concurrently may be slightly out of order. The logs without timestamp are skipped while bisecting, and
+ * the logs around the position found by the binary search are checked to find the closest one despite small
+ * out-of-order runs.
+ */
+public class TimestampSearch {
+
+    /**
+     * The max number of consecutive logs without timestamp that are skipped to find a timestamp while bisecting.
+     */
+    private static final int MAX_SKIPPED_LOGS = 1000;
+
+    /**
+     * The number of logs checked before and after the position found by the binary search.
+     */
+    private static final int REFINEMENT_RADIUS = 256;
+
+    private TimestampSearch() {
+    }
+
+    /**
+     * Finds the log whose timestamp is the closest to the given time, in O(log n) probes.
+     *
+     * @param size
+     *         the number of logs
+     * @param timestamps
+     *         gives the timestamp of the log at a given index, or {@link ColumnType#MISSING} if it has none
+     * @param target
+     *         the time to look for, in milliseconds since the epoch
+     * @return the index of the closest log, the first one in case of tie, or -1 if no log around has a timestamp
+     */
+    public static int findNearest(int size, @NotNull IntToLongFunction timestamps, long target) {
+        int low = 0;
+        int high = size - 1;
+        // the closest probes on each side of the target, which may be out of the refinement range when there are many
+        // consecutive logs without timestamp
+        int lastBefore = -1;
+        int firstAtOrAfter = -1;
+        // looks for the first log at or after the target, considering only the logs that have a timestamp
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int probe = nextKnown(timestamps, mid, high);
+            if (probe >= 0 && timestamps.applyAsLong(probe) < target) {
+                lastBefore = probe;
+                low = probe + 1;
+            } else {
+                if (probe >= 0) {
+                    firstAtOrAfter = probe;
+                }
+                // the logs between mid and the probe have no timestamp, the first log at or after the target is
+                // either the probe or before mid
+                high = mid;
+            }
+        }
+        int nearest = refine(size, timestamps, target, low);
+        nearest = closest(timestamps, target, nearest, lastBefore);
+        return closest(timestamps, target, nearest, firstAtOrAfter);
+    }
+
+    /**
+     * Finds the first log that has a timestamp, among the first logs.
+     *
+     * @param size
+     *         the number of logs
+     * @param timestamps
+     *         gives the timestamp of the log at a given index, or {@link ColumnType#MISSING} if it has none
+     * @return the index of the first log that has a timestamp, or -1 if none of the first logs has one
+     */
+    public static int findFirst(int size, @NotNull IntToLongFunction timestamps) {
+        return nextKnown(timestamps, 0, size - 1);
+    }
+
+    private static int nextKnown(IntToLongFunction timestamps, int from, int to) {
+        int end = Math.min(to, from + MAX_SKIPPED_LOGS);
+        for (int i = from; i <= end; i++) {
+            if (timestamps.applyAsLong(i) != ColumnType.MISSING) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int refine(int size, IntToLongFunction timestamps, long target, int position) {
+        int start = Math.max(0, position - REFINEMENT_RADIUS);
+        int end = Math.min(size - 1, position + REFINEMENT_RADIUS);
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int i = start; i <= end; i++) {
+            long timestamp = timestamps.applyAsLong(i);
+            if (timestamp == ColumnType.MISSING) {
+                continue;
+            }
+            long distance = Math.abs(timestamp - target);
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the closest of the given logs to the target, the first one in case of tie. Any of them may be -1.
+     */
+    private static int closest(IntToLongFunction timestamps, long target, int index1, int index2) {
+        if (index1 < 0 || index2 < 0) {
+            return Math.max(index1, index2);
+        }
+        long distance1 = Math.abs(timestamps.applyAsLong(index1) - target);
+        long distance2 = Math.abs(timestamps.applyAsLong(index2) - target);
+        if (distance1 != distance2) {
+            return distance1 < distance2 ? index1 : index2;
+        }
+        return Math.min(index1, index2);
+    }
+}
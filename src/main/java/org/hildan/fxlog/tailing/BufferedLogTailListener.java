@@ -1,12 +1,20 @@
 package org.hildan.fxlog.tailing;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyLongProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
 import org.apache.commons.io.input.Tailer;
@@ -14,15 +22,34 @@ import org.apache.commons.io.input.TailerListener;
 import org.apache.commons.io.input.TailerListenerAdapter;
 import org.hildan.fxlog.columns.Columnizer;
 import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.filtering.Filter;
 
 /**
  * An implementation of {@link TailerListener} that columnizes logs and adds them to a list as they arrive.
+ * <p>
+ * The logs are grouped into batches, which are handed off to the UI thread through a bounded queue. When the UI does
+ * not keep up with the reader and the queue is full, the configured {@link OverloadPolicy} applies.
  */
 public class BufferedLogTailListener extends TailerListenerAdapter {
 
+    /**
+     * When the {@link OverloadPolicy#SAMPLE} policy applies, only one log out of this number is kept.
+     */
+    public static final int SAMPLING_PERIOD = 10;
+
     private static final int DEFAULT_BUF_SIZE = 1000;
 
-    private final Columnizer columnizer;
+    private static final int DEFAULT_MAX_PENDING_BATCHES = 50;
+
+    private static final ExecutorService REPARSER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Log re-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Filter ERROR_IN_RAW_LINE = Filter.findInRawLog("\\b([Ee]rror|ERROR)\\b");
+
+    private volatile Function<String, LogEntry> logParser;
 
     private final List<LogEntry> logs;
 
@@ -32,14 +59,35 @@ public class BufferedLogTailListener extends TailerListenerAdapter {
 
     private final ObjectProperty<Integer> maxNumberOfLogs;
 
-    private volatile boolean running;
+    private final ObjectProperty<OverloadPolicy> overloadPolicy;
+
+    private final LongProperty droppedLogs;
 
-    private volatile boolean clearRequested;
+    private final LongProperty sampledOutLogs;
 
-    private final List<LogEntry> buffer;
+    private volatile boolean running;
+
+    private List<LogEntry> buffer;
 
     private final int bufferMaxSize;
 
+    private final Deque<List<LogEntry>> pendingBatches;
+
+    private final int maxPendingBatches;
+
+    private boolean drainScheduled;
+
+    private long droppedCount;
+
+    private long sampledOutCount;
+
+    /**
+     * The logs read before the last parser change and not handed off to the UI yet, waiting to be parsed again.
+     */
+    private final List<LogEntry> staleLogs = new ArrayList<>();
+
+    private boolean reparsing;
+
     /**
      * Creates a new BufferedLogTailListener adding to the given log list using the given columnizer, with default
      * buffer size and timeout.
@@ -65,70 +113,323 @@ public class BufferedLogTailListener extends TailerListenerAdapter {
      *         the max number of logs in the buffer before sending them to the UI
      */
     public BufferedLogTailListener(Columnizer columnizer, List<LogEntry> logs, int logBufferSize) {
-        this.columnizer = columnizer;
+        this(columnizer, logs, logBufferSize, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /**
+     * Creates a new BufferedLogTailListener adding to the given log list using the given columnizer, with the given
+     * buffer size and hand-off queue capacity.
+     *
+     * @param columnizer
+     *         the columnizer to use to columnized the raw logs
+     * @param logs
+     *         the list of logs to add to
+     * @param logBufferSize
+     *         the max number of logs in the buffer before sending them to the UI
+     * @param maxPendingBatches
+     *         the max number of batches waiting for the UI before the overload policy applies
+     */
+    public BufferedLogTailListener(Columnizer columnizer, List<LogEntry> logs, int logBufferSize,
+                                   int maxPendingBatches) {
+        this(columnizer::parse, logs, logBufferSize, maxPendingBatches);
+    }
+
+    /**
+     * Creates a new BufferedLogTailListener adding to the given log list using the given parser, with the given buffer
+     * size and hand-off queue capacity.
+     *
+     * @param logParser
+     *         the function to use to create log entries from the raw logs
+     * @param logs
+     *         the list of logs to add to
+     * @param logBufferSize
+     *         the max number of logs in the buffer before sending them to the UI
+     * @param maxPendingBatches
+     *         the max number of batches waiting for the UI before the overload policy applies
+     */
+    public BufferedLogTailListener(Function<String, LogEntry> logParser, List<LogEntry> logs, int logBufferSize,
+                                   int maxPendingBatches) {
+        this.logParser = logParser;
         this.logs = logs;
         this.skipEmptyLogs = new SimpleBooleanProperty(false);
         this.limitNumberOfLogs = new SimpleBooleanProperty(false);
         this.maxNumberOfLogs = new SimpleObjectProperty<>(Integer.MAX_VALUE);
+        this.overloadPolicy = new SimpleObjectProperty<>(OverloadPolicy.BLOCK);
+        this.droppedLogs = new SimpleLongProperty(0);
+        this.sampledOutLogs = new SimpleLongProperty(0);
         this.buffer = new ArrayList<>(logBufferSize);
         this.bufferMaxSize = logBufferSize;
+        this.pendingBatches = new ArrayDeque<>(maxPendingBatches);
+        this.maxPendingBatches = Math.max(1, maxPendingBatches);
     }
 
     @Override
     public void init(Tailer tailer) {
+        start();
+    }
+
+    /**
+     * Allows this listener to modify the logs list. This is done by the tailers when they are created, and must be
+     * done explicitly when this listener is fed by something else, like a {@link TailingService}.
+     */
+    public void start() {
         running = true;
     }
 
     /**
      * Prevents this listener from modifying the logs list.
      */
-    public void stop() {
+    public synchronized void stop() {
         running = false;
+        // releases a reader that may be blocked on a full queue
+        notifyAll();
     }
 
     @Override
     public void handle(String line) {
         if (running && !(skipEmptyLogs.get() && line.isEmpty())) {
-            LogEntry log = columnizer.parse(line);
-            addToBuffer(log);
+            Function<String, LogEntry> parser = logParser;
+            addToBuffer(parser.apply(line), parser);
         }
     }
 
     @Override
     public synchronized void endOfFileReached() {
-        clearRequested = true;
-        // needs to run on the main thread to avoid concurrent modifications
-        Platform.runLater(() -> {
-            // we need to check again here because the listener may have been stopped in the meantime
-            if (running) {
-                dumpBufferIntoLogsList();
-            }
-        });
+        if (!buffer.isEmpty()) {
+            handOffBuffer();
+        }
     }
 
     @Override
     public synchronized void fileRotated() {
-        buffer.clear();
+        // the logs of the previous file are still part of the history, the new file simply continues it
+        if (!buffer.isEmpty()) {
+            handOffBuffer();
+        }
     }
 
-    private synchronized void addToBuffer(LogEntry log) {
+    private synchronized void addToBuffer(LogEntry log, Function<String, LogEntry> parser) {
+        if (parser != logParser) {
+            // the parser was changed while parsing this log
+            log = logParser.apply(log.rawLine());
+        }
         buffer.add(log);
         // limit batches size
-        if (buffer.size() >= bufferMaxSize && !clearRequested) {
-            endOfFileReached();
+        if (buffer.size() >= bufferMaxSize) {
+            handOffBuffer();
+        }
+    }
+
+    /**
+     * Moves the current buffer to the queue of pending batches, applying the overload policy if the queue is full.
+     * Must be called while holding this listener's lock.
+     */
+    private void handOffBuffer() {
+        List<LogEntry> batch = buffer;
+        buffer = new ArrayList<>(bufferMaxSize);
+        while (running && pendingBatches.size() >= maxPendingBatches) {
+            switch (overloadPolicy.get()) {
+            case DROP_OLDEST:
+                batch = dropOldestBatch(batch);
+                break;
+            case SAMPLE:
+                addSampleToLastBatch(batch);
+                scheduleDrain();
+                return;
+            case BLOCK:
+            default:
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // the reader is being stopped, the batch still goes to the UI, beyond the capacity of the queue
+                    Thread.currentThread().interrupt();
+                    pendingBatches.addLast(batch);
+                    scheduleDrain();
+                    return;
+                }
+                break;
+            }
+        }
+        if (running) {
+            pendingBatches.addLast(batch);
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Drops the oldest pending batch, except for its errors, which are kept in front of the next batch.
+     *
+     * @param newBatch
+     *         the batch about to be added to the queue
+     * @return the batch to add to the queue, which may contain additional errors
+     */
+    private List<LogEntry> dropOldestBatch(List<LogEntry> newBatch) {
+        List<LogEntry> oldest = pendingBatches.removeFirst();
+        List<LogEntry> keptErrors = new ArrayList<>();
+        oldest.stream().filter(BufferedLogTailListener::isError).forEach(keptErrors::add);
+        droppedCount += oldest.size() - keptErrors.size();
+        if (keptErrors.isEmpty()) {
+            return newBatch;
+        }
+        if (pendingBatches.isEmpty()) {
+            keptErrors.addAll(newBatch);
+            return keptErrors;
+        }
+        keptErrors.addAll(pendingBatches.removeFirst());
+        pendingBatches.addFirst(keptErrors);
+        return newBatch;
+    }
+
+    /**
+     * Adds a sample of the given batch to the last pending batch, which is sampled again when it gets bigger than a
+     * batch, so that the queue stays bounded. If it is still too big because of its errors, its oldest logs are
+     * dropped.
+     *
+     * @param batch
+     *         the batch that doesn't fit in the queue
+     */
+    private void addSampleToLastBatch(List<LogEntry> batch) {
+        List<LogEntry> lastBatch = pendingBatches.removeLast();
+        List<LogEntry> sample = sample(batch);
+        sampledOutCount += batch.size() - sample.size();
+        lastBatch.addAll(sample);
+        if (lastBatch.size() > bufferMaxSize) {
+            List<LogEntry> resampled = sample(lastBatch);
+            sampledOutCount += lastBatch.size() - resampled.size();
+            lastBatch = resampled;
         }
+        if (lastBatch.size() > bufferMaxSize) {
+            int nbExtraLogs = lastBatch.size() - bufferMaxSize;
+            lastBatch.subList(0, nbExtraLogs).clear();
+            droppedCount += nbExtraLogs;
+        }
+        pendingBatches.addLast(lastBatch);
+    }
+
+    private static List<LogEntry> sample(List<LogEntry> batch) {
+        List<LogEntry> sample = new ArrayList<>(batch.size() / SAMPLING_PERIOD + 1);
+        for (int i = 0; i < batch.size(); i++) {
+            LogEntry log = batch.get(i);
+            if (i % SAMPLING_PERIOD == 0 || isError(log)) {
+                sample.add(log);
+            }
+        }
+        return sample;
     }
 
-    private synchronized void dumpBufferIntoLogsList() {
+    /**
+     * Tells whether the given log is an error, which must never be dropped. The severity column is checked for the
+     * logs that are already columnized. For the logs that are columnized lazily, only an approximation on the raw line
+     * is used, so that they are not parsed while they are read: any log mentioning an error is kept.
+     */
+    private static boolean isError(LogEntry log) {
+        if (log.isLazilyColumnized()) {
+            return ERROR_IN_RAW_LINE.test(log);
+        }
+        return Filter.ERROR_SEVERITY.test(log);
+    }
+
+    /**
+     * Schedules a single drain of the pending batches on the UI thread, unless one is already scheduled. Must be
+     * called while holding this listener's lock.
+     */
+    private void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            // needs to run on the main thread to avoid concurrent modifications
+            Platform.runLater(this::drainPendingBatches);
+        }
+    }
+
+    private void drainPendingBatches() {
+        List<LogEntry> newLogs = new ArrayList<>();
+        long dropped;
+        long sampledOut;
+        synchronized (this) {
+            if (reparsing) {
+                // the logs being parsed again come first, the re-parser schedules a new drain when it is done
+                drainScheduled = false;
+                return;
+            }
+            pendingBatches.forEach(newLogs::addAll);
+            pendingBatches.clear();
+            drainScheduled = false;
+            dropped = droppedCount;
+            sampledOut = sampledOutCount;
+            // the reader may be waiting for some space in the queue
+            notifyAll();
+        }
+        // we need to check again here because the listener may have been stopped in the meantime
+        if (running) {
+            droppedLogs.set(dropped);
+            sampledOutLogs.set(sampledOut);
+            addToLogsList(newLogs);
+        }
+    }
+
+    private void addToLogsList(List<LogEntry> newLogs) {
         if (limitNumberOfLogs.get()) {
-            int nbExtraLogs = logs.size() + buffer.size() - maxNumberOfLogs.get();
+            int maxLogs = maxNumberOfLogs.get();
+            if (newLogs.size() > maxLogs) {
+                newLogs = newLogs.subList(newLogs.size() - maxLogs, newLogs.size());
+            }
+            int nbExtraLogs = logs.size() + newLogs.size() - maxLogs;
             if (nbExtraLogs > 0) {
                 logs.subList(0, nbExtraLogs).clear();
             }
         }
-        logs.addAll(buffer);
-        clearRequested = false;
+        logs.addAll(newLogs);
+    }
+
+    public Function<String, LogEntry> getLogParser() {
+        return logParser;
+    }
+
+    /**
+     * Changes the function used to create log entries from the raw logs. The logs that were read but not yet added to
+     * the logs list are parsed again with the new parser in the background, so that all the logs added to the list
+     * from now on are parsed with it. The logs read in the meantime are held back until then, to keep them in order.
+     *
+     * @param logParser
+     *         the new function to use to create log entries from the raw logs
+     */
+    public synchronized void setLogParser(Function<String, LogEntry> logParser) {
+        this.logParser = logParser;
+        pendingBatches.forEach(staleLogs::addAll);
+        pendingBatches.clear();
+        staleLogs.addAll(buffer);
         buffer.clear();
+        if (!reparsing && !staleLogs.isEmpty()) {
+            reparsing = true;
+            REPARSER.execute(this::reparseStaleLogs);
+        }
+    }
+
+    private void reparseStaleLogs() {
+        while (true) {
+            List<LogEntry> logsToParse;
+            Function<String, LogEntry> parser;
+            synchronized (this) {
+                logsToParse = new ArrayList<>(staleLogs);
+                parser = logParser;
+            }
+            List<LogEntry> parsedLogs = new ArrayList<>(logsToParse.size());
+            for (LogEntry log : logsToParse) {
+                parsedLogs.add(parser.apply(log.rawLine()));
+            }
+            synchronized (this) {
+                // the stale logs only change along with the parser, in which case they all need to be parsed again
+                if (parser == logParser) {
+                    staleLogs.clear();
+                    reparsing = false;
+                    pendingBatches.addFirst(parsedLogs);
+                    scheduleDrain();
+                    // the reader may be waiting for some space in the queue
+                    notifyAll();
+                    return;
+                }
+            }
+        }
     }
 
     @Override
@@ -174,4 +475,38 @@ public class BufferedLogTailListener extends TailerListenerAdapter {
     public void setMaxNumberOfLogs(Integer maxNumberOfLogs) {
         this.maxNumberOfLogs.set(maxNumberOfLogs);
     }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy.get();
+    }
+
+    public ObjectProperty<OverloadPolicy> overloadPolicyProperty() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy.set(overloadPolicy);
+    }
+
+    /**
+     * @return the number of logs dropped so far because of the {@link OverloadPolicy#DROP_OLDEST} policy
+     */
+    public long getDroppedLogs() {
+        return droppedLogs.get();
+    }
+
+    public ReadOnlyLongProperty droppedLogsProperty() {
+        return droppedLogs;
+    }
+
+    /**
+     * @return the number of logs skipped so far because of the {@link OverloadPolicy#SAMPLE} policy
+     */
+    public long getSampledOutLogs() {
+        return sampledOutLogs.get();
+    }
+
+    public ReadOnlyLongProperty sampledOutLogsProperty() {
+        return sampledOutLogs;
+    }
 }
@@ -0,0 +1,243 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.Compression;
+import org.hildan.fxlog.io.GzipMemberInputStream;
+import org.hildan.fxlog.io.GzipRestartIndex;
+import org.hildan.fxlog.io.GzipRestartIndex.RestartPoint;
+import org.hildan.fxlog.io.LineScanner;
+
+/**
+ * A {@link Tailer} that reads a compressed log file, without unpacking it on the disk.
+ * <p>
+ * Compressed files are usually rotated logs that don't change anymore, so the file is read once and not polled
+ * afterwards. The decompression runs in its own thread, and hands blocks of bytes to the tailer's thread, which splits
+ * them into lines for the listener. This way, the decompression of the next block overlaps with the parsing of the
+ * current one.
+ * <p>
+ * For gzip files, the restart points of the file are indexed during the first read. If only the last logs are needed,
+ * the next reads start at the last restart point before them instead of inflating the whole file.
+ */
+public class CompressedFileTailer extends Tailer {
+
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    private static final int MAX_PENDING_BLOCKS = 8;
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private static final ByteBuffer END_OF_FILE = ByteBuffer.allocate(0);
+
+    private final TailerListener listener;
+
+    private final Compression compression;
+
+    private final Charset charset;
+
+    private final long nbLastLines;
+
+    private final BlockingQueue<ByteBuffer> blocks;
+
+    private byte lastTransferredByte;
+
+    /**
+     * Creates a new CompressedFileTailer.
+     *
+     * @param file
+     *         the compressed file to read
+     * @param compression
+     *         the compression format of the file
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of the lines
+     * @param nbLastLines
+     *         the number of lines needed from the end of the file, or 0 to read all lines
+     */
+    public CompressedFileTailer(File file, Compression compression, Charset charset, TailerListener listener,
+                                long nbLastLines) {
+        super(file, charset, listener, 0, false, false, BLOCK_SIZE);
+        this.listener = listener;
+        this.compression = compression;
+        this.charset = charset;
+        this.nbLastLines = nbLastLines;
+        this.blocks = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS);
+    }
+
+    /**
+     * Creates a CompressedFileTailer and starts it in a daemon thread.
+     *
+     * @param file
+     *         the compressed file to read
+     * @param compression
+     *         the compression format of the file
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of the lines
+     * @param nbLastLines
+     *         the number of lines needed from the end of the file, or 0 to read all lines
+     * @return the started tailer
+     */
+    public static CompressedFileTailer create(File file, Compression compression, Charset charset,
+                                              TailerListener listener, long nbLastLines) {
+        CompressedFileTailer tailer = new CompressedFileTailer(file, compression, charset, listener, nbLastLines);
+        Thread thread = new Thread(tailer, "Tailer");
+        thread.setDaemon(true);
+        thread.start();
+        return tailer;
+    }
+
+    @Override
+    public void run() {
+        Thread decompressor = new Thread(this::decompress, "Decompressor");
+        decompressor.setDaemon(true);
+        decompressor.start();
+        LineScanner scanner = new LineScanner(charset, listener::handle);
+        try {
+            while (getRun()) {
+                ByteBuffer block = blocks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (block == END_OF_FILE) {
+                    scanner.flush();
+                    if (listener instanceof TailerListenerAdapter) {
+                        ((TailerListenerAdapter) listener).endOfFileReached();
+                    }
+                    return;
+                }
+                if (block != null) {
+                    scanner.scan(block);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.handle(e);
+        } finally {
+            stop();
+        }
+    }
+
+    private void decompress() {
+        Path path = getFile().toPath();
+        try {
+            if (compression == Compression.GZIP) {
+                decompressGzip(path);
+            } else {
+                decompressZip(path);
+            }
+        } catch (NoSuchFileException e) {
+            listener.fileNotFound();
+        } catch (IOException e) {
+            listener.handle(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            enqueue(END_OF_FILE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void decompressGzip(Path path) throws IOException, InterruptedException {
+        GzipRestartIndex savedIndex = GzipRestartIndex.load(path);
+        RestartPoint start = RestartPoint.ORIGIN;
+        if (savedIndex != null && nbLastLines > 0) {
+            start = savedIndex.findRestartPoint(Math.max(0, savedIndex.getLineCount() - nbLastLines));
+        }
+        GzipRestartIndex newIndex = new GzipRestartIndex();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             GzipMemberInputStream in = new GzipMemberInputStream(channel, start, newIndex::add)) {
+            if (!start.isLineStart()) {
+                skipPartialLine(in);
+            }
+            boolean complete = transferBlocks(in);
+            if (complete && savedIndex == null) {
+                newIndex.setLineCount(in.getLineCount());
+                saveIndex(path, newIndex);
+            }
+        }
+    }
+
+    private static void saveIndex(Path path, GzipRestartIndex index) {
+        try {
+            index.save(path);
+        } catch (IOException e) {
+            // the file can still be read, it will just have to be inflated entirely next time
+            System.err.println("Could not save the index of " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void skipPartialLine(InputStream in) throws IOException {
+        int nextByte = in.read();
+        while (nextByte >= 0 && nextByte != '\n') {
+            nextByte = in.read();
+        }
+    }
+
+    private void decompressZip(Path path) throws IOException, InterruptedException {
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(path))) {
+            ZipEntry entry;
+            while (getRun() && (entry = in.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    lastTransferredByte = '\n';
+                    transferBlocks(in);
+                    if (lastTransferredByte != '\n') {
+                        // the unterminated last line must not be merged with the first line of the next entry
+                        enqueue(ByteBuffer.wrap(new byte[] {'\n'}));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the given stream until its end and queues its content by blocks for the tailer's thread.
+     *
+     * @return true if the end of the stream was reached, false if the tailer was stopped before
+     */
+    private boolean transferBlocks(InputStream in) throws IOException, InterruptedException {
+        while (getRun()) {
+            byte[] block = new byte[BLOCK_SIZE];
+            int length = 0;
+            int nbRead;
+            while (length < BLOCK_SIZE && (nbRead = in.read(block, length, BLOCK_SIZE - length)) >= 0) {
+                length += nbRead;
+            }
+            if (length > 0) {
+                lastTransferredByte = block[length - 1];
+                enqueue(ByteBuffer.wrap(block, 0, length));
+            }
+            if (length < BLOCK_SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void enqueue(ByteBuffer block) throws InterruptedException {
+        while (getRun()) {
+            if (blocks.offer(block, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+}
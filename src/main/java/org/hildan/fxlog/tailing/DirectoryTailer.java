@@ -0,0 +1,141 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.hildan.fxlog.io.RotatedFileSet;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Watches a directory for log files, so that all the logs of a directory can be tailed together.
+ * <p>
+ * The directory is listed periodically on the I/O threads of a {@link TailingService}, and each new log file is
+ * reported once. All the log files present at the first scan are reported, so that the history of the directory is
+ * shown. After that, the new files that another log file of the directory was rotated into are not reported, because
+ * their logs were already read through the live file, which keeps its name. The files themselves are tailed by the
+ * service, by whoever receives the new files.
+ */
+public class DirectoryTailer {
+
+    /**
+     * The names of the files considered as logs, including the rotated and compressed ones.
+     */
+    public static final Pattern LOG_FILE_NAME = Pattern.compile(".*\\.(log|txt|out)([.\\-_].*)?");
+
+    private final TailingService service;
+
+    private final Path directory;
+
+    private final Consumer<Path> newFileHandler;
+
+    private final Set<Path> knownFiles;
+
+    /**
+     * The tests recognizing the rotated siblings of each log file currently in the directory.
+     */
+    private final Map<Path, Predicate<Path>> rotatedFilesMatchers;
+
+    private ScheduledFuture<?> scan;
+
+    private boolean firstScanDone;
+
+    /**
+     * Creates a new DirectoryTailer. The directory is not watched until {@link #start(long)} is called.
+     *
+     * @param service
+     *         the service to run the scans of the directory on
+     * @param directory
+     *         the directory to watch
+     * @param newFileHandler
+     *         a callback to notify of each log file found in the directory, called from an I/O thread
+     */
+    public DirectoryTailer(@NotNull TailingService service, @NotNull Path directory,
+                           @NotNull Consumer<Path> newFileHandler) {
+        this.service = service;
+        this.directory = directory;
+        this.newFileHandler = newFileHandler;
+        this.knownFiles = new HashSet<>();
+        this.rotatedFilesMatchers = new HashMap<>();
+    }
+
+    /**
+     * Reports the log files currently in the directory, and then keeps watching it for new files.
+     *
+     * @param periodMillis
+     *         the time between 2 scans of the directory, in milliseconds
+     */
+    public synchronized void start(long periodMillis) {
+        if (scan == null) {
+            scan = service.schedulePeriodically(this::scanDirectory, periodMillis);
+        }
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+    public synchronized void stop() {
+        if (scan != null) {
+            scan.cancel(false);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private synchronized void scanDirectory() {
+        if (scan != null && scan.isCancelled()) {
+            return;
+        }
+        List<Path> logFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (isLogFile(file)) {
+                    logFiles.add(file);
+                }
+            }
+        } catch (IOException e) {
+            // the directory may be temporarily unavailable, we'll try again at the next scan
+            System.err.println("Could not list the files of " + directory + ": " + e.getMessage());
+            return;
+        }
+        // the files that are gone are forgotten, so that they don't accumulate
+        knownFiles.retainAll(logFiles);
+        rotatedFilesMatchers.keySet().retainAll(logFiles);
+        logFiles.forEach(file -> rotatedFilesMatchers.computeIfAbsent(file, RotatedFileSet::rotatedFilesOf));
+        for (Path file : logFiles) {
+            if (!knownFiles.contains(file) && (!firstScanDone || !isRotatedFromOtherFile(file))) {
+                knownFiles.add(file);
+                newFileHandler.accept(file);
+            }
+        }
+        firstScanDone = true;
+    }
+
+    private boolean isRotatedFromOtherFile(Path file) {
+        return rotatedFilesMatchers.entrySet()
+                                   .stream()
+                                   .anyMatch(e -> !e.getKey().equals(file) && e.getValue().test(file));
+    }
+
+    private static boolean isLogFile(Path file) {
+        try {
+            return Files.isRegularFile(file) && !Files.isHidden(file)
+                    && LOG_FILE_NAME.matcher(file.getFileName().toString()).matches();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Tells whether a tailed file was truncated in place or replaced by a new file, by comparing the identity of the file
+ * at the tailed path with the identity of the file being read.
+ * <p>
+ * The identity of a file is given by {@link BasicFileAttributes#fileKey()} (the device and inode on Unix), so that a
+ * file truncated in place (copy-truncate rotation) is not mistaken for a new file. On file systems that don't provide
+ * file keys, a file at the tailed path shorter than the read position is considered a new file, as before.
+ */
+class FileRotationDetector {
+
+    /**
+     * The ways a tailed file can change, apart from growing.
+     */
+    enum Change {
+        /**
+         * The file only grew, or did not change.
+         */
+        NONE,
+
+        /**
+         * The file being read was truncated in place. Its new content starts at the beginning of the same file.
+         */
+        TRUNCATED,
+
+        /**
+         * The file was renamed or deleted, and a new file was created at the same path. The rest of the previous file
+         * can still be read through the open channel.
+         */
+        REPLACED
+    }
+
+    private final Path path;
+
+    private Object fileKey;
+
+    /**
+     * Creates a new FileRotationDetector.
+     *
+     * @param path
+     *         the tailed path
+     */
+    FileRotationDetector(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Remembers the identity of the file currently at the tailed path. This must be called right after opening the
+     * file.
+     *
+     * @throws IOException
+     *         if the attributes of the file can't be read
+     */
+    void fileOpened() throws IOException {
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    /**
+     * Checks how the tailed file changed.
+     *
+     * @param channel
+     *         the channel on the file being read
+     * @param position
+     *         the position reached in the file being read
+     * @return the change of the file since it was opened
+     * @throws IOException
+     *         if an error occurs while reading the size or attributes of the file
+     */
+    Change check(FileChannel channel, long position) throws IOException {
+        BasicFileAttributes currentAttributes;
+        try {
+            currentAttributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // in the middle of a rotation, the new file is not there yet
+            return channel.size() < position ? Change.TRUNCATED : Change.NONE;
+        }
+        Object currentKey = currentAttributes.fileKey();
+        if (fileKey != null && currentKey != null) {
+            if (!fileKey.equals(currentKey)) {
+                return Change.REPLACED;
+            }
+        } else if (currentAttributes.size() < position && channel.size() >= position) {
+            // no file keys on this file system, a shorter file at the same path must be a new one
+            return Change.REPLACED;
+        }
+        return channel.size() < position ? Change.TRUNCATED : Change.NONE;
+    }
+}
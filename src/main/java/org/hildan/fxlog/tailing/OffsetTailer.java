@@ -0,0 +1,179 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.LineScanner;
+
+/**
+ * A {@link Tailer} that starts reading the file at a given offset, instead of either the beginning or the end of the
+ * file.
+ * <p>
+ * This allows to tail a file from a known position, for instance after its last lines have been read by other means,
+ * without missing nor repeating any line. Unlike the tailers created with {@link Tailer#create}, this tailer is not
+ * started automatically, it has to be run in a thread, or created with {@link #create}.
+ * <p>
+ * The file is read in large blocks that are split into lines by a {@link LineScanner}, which decodes the lines with the
+ * given charset. The last line is only given to the listener once its terminator has been written.
+ * <p>
+ * Truncations and rotations are told apart with the identity of the file (see {@link FileRotationDetector}). When the
+ * file is truncated in place, the reading resumes at the beginning of the same file. When the file is replaced, the
+ * end of the previous file is read first, and then the listener is notified of the rotation before reading the new
+ * file. In both cases, no line is lost.
+ */
+public class OffsetTailer extends Tailer {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final TailerListener listener;
+
+    private final Charset charset;
+
+    private final long startOffset;
+
+    /**
+     * Creates a new OffsetTailer.
+     *
+     * @param file
+     *         the file to tail
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines
+     * @param delayMillis
+     *         the time to wait before checking the file for new lines, in milliseconds
+     * @param startOffset
+     *         the offset in the file to start reading from
+     */
+    public OffsetTailer(File file, Charset charset, TailerListener listener, long delayMillis, long startOffset) {
+        super(file, charset, listener, delayMillis, false, false, BUFFER_SIZE);
+        this.listener = listener;
+        this.charset = charset;
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * Creates an OffsetTailer and starts it in a daemon thread.
+     *
+     * @param file
+     *         the file to tail
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines
+     * @param delayMillis
+     *         the time to wait before checking the file for new lines, in milliseconds
+     * @param startOffset
+     *         the offset in the file to start reading from
+     * @return the started tailer
+     */
+    public static OffsetTailer create(File file, Charset charset, TailerListener listener, long delayMillis,
+                                      long startOffset) {
+        OffsetTailer tailer = new OffsetTailer(file, charset, listener, delayMillis, startOffset);
+        Thread thread = new Thread(tailer, "Tailer");
+        thread.setDaemon(true);
+        thread.start();
+        return tailer;
+    }
+
+    @Override
+    public void run() {
+        long position = startOffset;
+        LineScanner scanner = new LineScanner(charset, listener::handle);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        FileRotationDetector rotationDetector = new FileRotationDetector(getFile().toPath());
+        FileChannel channel = null;
+        try {
+            channel = openChannelWhenFileExists();
+            if (channel == null) {
+                return;
+            }
+            rotationDetector.fileOpened();
+            while (getRun()) {
+                FileRotationDetector.Change change = rotationDetector.check(channel, position);
+                if (change == FileRotationDetector.Change.TRUNCATED) {
+                    // the new content starts at the beginning of the same file, the logs read so far are still valid
+                    scanner.flush();
+                    position = 0;
+                }
+                if (channel.size() > position) {
+                    int nbRead;
+                    while (getRun() && (nbRead = channel.read(buffer, position)) > 0) {
+                        position += nbRead;
+                        buffer.flip();
+                        scanner.scan(buffer);
+                        buffer.clear();
+                    }
+                    if (listener instanceof TailerListenerAdapter) {
+                        ((TailerListenerAdapter) listener).endOfFileReached();
+                    }
+                }
+                if (change == FileRotationDetector.Change.REPLACED) {
+                    // the end of the previous file was just read, the logs continue in the new file
+                    scanner.flush();
+                    listener.fileRotated();
+                    channel.close();
+                    channel = openChannelWhenFileExists();
+                    if (channel == null) {
+                        return;
+                    }
+                    rotationDetector.fileOpened();
+                    position = 0;
+                    continue;
+                }
+                Thread.sleep(getDelay());
+            }
+        } catch (IOException e) {
+            listener.handle(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.handle(e);
+        } finally {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * @return the charset used to decode the lines
+     */
+    protected Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Opens the file, waiting for it to be created if it doesn't exist (yet), like the commons {@link Tailer} does.
+     * The listener is notified each time the file is not found.
+     *
+     * @return the opened channel, or null if this tailer was stopped before the file was created
+     */
+    private FileChannel openChannelWhenFileExists() throws IOException, InterruptedException {
+        while (getRun()) {
+            try {
+                return FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                listener.fileNotFound();
+                Thread.sleep(getDelay());
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing more we can do
+        }
+    }
+}
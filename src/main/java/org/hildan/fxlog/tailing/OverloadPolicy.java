@@ -0,0 +1,27 @@
+package org.hildan.fxlog.tailing;
+
+/**
+ * Defines what a {@link BufferedLogTailListener} does when the UI does not consume the batches of logs as fast as they
+ * are read, and the queue of pending batches is full.
+ * <p>
+ * Whatever the policy, the logs matched by {@link org.hildan.fxlog.filtering.Filter#ERROR_SEVERITY} are never
+ * discarded.
+ */
+public enum OverloadPolicy {
+
+    /**
+     * Blocks the reader until the UI has consumed some batches. No log is lost, but the view lags behind the file.
+     */
+    BLOCK,
+
+    /**
+     * Drops the oldest pending batch to make room for the new one. The view stays close to the end of the file.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Only keeps one log every {@link BufferedLogTailListener#SAMPLING_PERIOD} logs of the new batch, and merges it
+     * into the last pending batch.
+     */
+    SAMPLE
+}
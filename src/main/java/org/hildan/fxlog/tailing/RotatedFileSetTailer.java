@@ -0,0 +1,151 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.Compression;
+import org.hildan.fxlog.io.LineScanner;
+import org.hildan.fxlog.io.RotatedFileSet;
+
+/**
+ * A {@link Tailer} that reads the rotated files of a log file before tailing the live file, as one continuous log.
+ * <p>
+ * The rotated files are read from the oldest to the most recent, whether they are compressed or not. Then the live file
+ * is tailed, and its rotations are handled by {@link OffsetTailer}: the end of the previous file is read before
+ * continuing with the new file.
+ *
+ * @see RotatedFileSet
+ */
+public class RotatedFileSetTailer extends OffsetTailer {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final TailerListener listener;
+
+    private final List<Path> rotatedFiles;
+
+    private volatile Tailer compressedFileReader;
+
+    /**
+     * Creates a new RotatedFileSetTailer.
+     *
+     * @param liveFile
+     *         the file the logs are currently written to
+     * @param rotatedFiles
+     *         the rotated files of the live file, from the oldest to the most recent
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of the lines
+     * @param delayMillis
+     *         the time to wait before checking the live file for new lines, in milliseconds
+     */
+    public RotatedFileSetTailer(File liveFile, List<Path> rotatedFiles, Charset charset, TailerListener listener,
+                                long delayMillis) {
+        super(liveFile, charset, listener, delayMillis, 0);
+        this.listener = listener;
+        this.rotatedFiles = rotatedFiles;
+    }
+
+    /**
+     * Creates a RotatedFileSetTailer and starts it in a daemon thread.
+     *
+     * @param liveFile
+     *         the file the logs are currently written to
+     * @param rotatedFiles
+     *         the rotated files of the live file, from the oldest to the most recent
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of the lines
+     * @param delayMillis
+     *         the time to wait before checking the live file for new lines, in milliseconds
+     * @return the started tailer
+     */
+    public static RotatedFileSetTailer create(File liveFile, List<Path> rotatedFiles, Charset charset,
+                                              TailerListener listener, long delayMillis) {
+        RotatedFileSetTailer tailer = new RotatedFileSetTailer(liveFile, rotatedFiles, charset, listener, delayMillis);
+        Thread thread = new Thread(tailer, "Tailer");
+        thread.setDaemon(true);
+        thread.start();
+        return tailer;
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (Path rotatedFile : rotatedFiles) {
+                if (!getRun()) {
+                    return;
+                }
+                readRotatedFile(rotatedFile);
+            }
+        } catch (NoSuchFileException e) {
+            // the file was rotated again while we were listing the files, its content is in the next ones
+        } catch (IOException e) {
+            listener.handle(e);
+            return;
+        }
+        super.run();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        Tailer reader = compressedFileReader;
+        if (reader != null) {
+            reader.stop();
+        }
+    }
+
+    private void readRotatedFile(Path file) throws IOException {
+        Compression compression = Compression.detect(file);
+        if (compression == Compression.NONE) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                LineScanner scanner = new LineScanner(getCharset(), listener::handle);
+                readToEnd(channel, scanner);
+                scanner.flush();
+            }
+            return;
+        }
+        // the end of each compressed file is not the end of the log, so the listener must not know about it
+        TailerListener historyListener = new TailerListenerAdapter() {
+            @Override
+            public void handle(String line) {
+                listener.handle(line);
+            }
+
+            @Override
+            public void handle(Exception ex) {
+                listener.handle(ex);
+            }
+        };
+        compressedFileReader = new CompressedFileTailer(file.toFile(), compression, getCharset(), historyListener, 0);
+        if (getRun()) {
+            compressedFileReader.run();
+        }
+        compressedFileReader = null;
+    }
+
+    private void readToEnd(FileChannel channel, LineScanner scanner) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = 0;
+        int nbRead;
+        while (getRun() && (nbRead = channel.read(buffer, position)) > 0) {
+            position += nbRead;
+            buffer.flip();
+            scanner.scan(buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.LineScanner;
+
+/**
+ * A {@link Tailer} that receives logs from the network instead of reading a file, for the applications that send their
+ * logs to a socket (log4j/logback socket appenders with a line-based layout, syslog...).
+ * <p>
+ * It listens on a local port, both for TCP connections and UDP datagrams. A single thread serves all connections with
+ * a {@link Selector}, and each connection has its own {@link LineScanner}, so that the lines of different connections
+ * are never mixed. Each datagram is considered as a sequence of whole lines, the last one not necessarily terminated.
+ * <p>
+ * After each round of reads, the listener is notified that the end of the available data was reached, so that the
+ * received logs are handed off to the UI without waiting for more.
+ */
+public class SocketReceiver extends Tailer {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int MAX_DATAGRAMS_PER_ROUND = 1024;
+
+    private final TailerListener listener;
+
+    private final Charset charset;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel server;
+
+    private final DatagramChannel datagrams;
+
+    private SocketReceiver(int port, Charset charset, TailerListener listener, Selector selector,
+                           ServerSocketChannel server, DatagramChannel datagrams) {
+        super(new File("localhost:" + port), charset, listener, 0, false, false, BUFFER_SIZE);
+        this.listener = listener;
+        this.charset = charset;
+        this.selector = selector;
+        this.server = server;
+        this.datagrams = datagrams;
+    }
+
+    /**
+     * Creates a SocketReceiver listening on the given port of the loopback interface, and starts it in a daemon
+     * thread.
+     *
+     * @param port
+     *         the TCP and UDP port to listen on
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines
+     * @return the started receiver
+     * @throws IOException
+     *         if the port can't be listened on, for instance because it is already in use
+     */
+    public static SocketReceiver create(int port, Charset charset, TailerListener listener) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        Selector selector = Selector.open();
+        ServerSocketChannel server = null;
+        DatagramChannel datagrams = null;
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            datagrams = DatagramChannel.open();
+            datagrams.bind(address);
+            datagrams.configureBlocking(false);
+            datagrams.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeQuietly(datagrams);
+            closeQuietly(server);
+            closeQuietly(selector);
+            throw e;
+        }
+        SocketReceiver receiver = new SocketReceiver(port, charset, listener, selector, server, datagrams);
+        Thread thread = new Thread(receiver, "Socket receiver");
+        thread.setDaemon(true);
+        thread.start();
+        return receiver;
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        LineScanner datagramScanner = new LineScanner(charset, listener::handle);
+        try {
+            while (getRun()) {
+                selector.select();
+                boolean received = false;
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == datagrams) {
+                        received |= receiveDatagrams(buffer, datagramScanner);
+                    } else {
+                        received |= readConnection(key, buffer);
+                    }
+                }
+                if (received && listener instanceof TailerListenerAdapter) {
+                    ((TailerListenerAdapter) listener).endOfFileReached();
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // the receiver was stopped
+        } catch (IOException e) {
+            listener.handle(e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel connection = server.accept();
+        if (connection != null) {
+            connection.configureBlocking(false);
+            connection.register(selector, SelectionKey.OP_READ, new LineScanner(charset, listener::handle));
+        }
+    }
+
+    /**
+     * Reads the available bytes of a connection. A single read is done per round, so that all connections get their
+     * turn.
+     *
+     * @return true if some bytes were received
+     */
+    private static boolean readConnection(SelectionKey key, ByteBuffer buffer) {
+        SocketChannel connection = (SocketChannel) key.channel();
+        LineScanner scanner = (LineScanner) key.attachment();
+        try {
+            int nbRead = connection.read(buffer);
+            if (nbRead > 0) {
+                buffer.flip();
+                scanner.scan(buffer);
+                return true;
+            }
+            if (nbRead < 0) {
+                // the sender closed the connection, its last line is complete
+                scanner.flush();
+                key.cancel();
+                closeQuietly(connection);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            // the connection was reset, this should not affect the other connections
+            scanner.flush();
+            key.cancel();
+            closeQuietly(connection);
+            return true;
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private boolean receiveDatagrams(ByteBuffer buffer, LineScanner scanner) throws IOException {
+        boolean received = false;
+        for (int i = 0; i < MAX_DATAGRAMS_PER_ROUND && datagrams.receive(buffer) != null; i++) {
+            buffer.flip();
+            scanner.scan(buffer);
+            // a message never spans several datagrams
+            scanner.flush();
+            buffer.clear();
+            received = true;
+        }
+        return received;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        selector.wakeup();
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        closeQuietly(selector);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing more we can do
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.LineScanner;
+
+/**
+ * A {@link Tailer} that reads the logs from a stream instead of a regular file, such as the standard input or a named
+ * pipe.
+ * <p>
+ * The stream is read in large blocks, which are split into lines by a {@link LineScanner}. A read returns as soon as
+ * some bytes are available, and a read that doesn't fill the buffer means that the writer has nothing more for now, so
+ * the listener is then notified that the end of the available data was reached, like for a file. When the listener
+ * blocks because the UI does not keep up, the stream is not read anymore, which in turn blocks the writer.
+ * <p>
+ * The tailer stops when the writer closes the stream. A named pipe is opened again instead, to wait for the next
+ * writer.
+ */
+public class StreamTailer extends Tailer {
+
+    /**
+     * The name given to the standard input, as usual on command lines.
+     */
+    public static final String STDIN_NAME = "-";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final TailerListener listener;
+
+    private final Charset charset;
+
+    private final boolean namedPipe;
+
+    private volatile ReadableByteChannel channel;
+
+    private StreamTailer(File file, Charset charset, TailerListener listener, boolean namedPipe) {
+        super(file, charset, listener, 0, false, false, BUFFER_SIZE);
+        this.listener = listener;
+        this.charset = charset;
+        this.namedPipe = namedPipe;
+    }
+
+    /**
+     * Creates a StreamTailer reading the standard input of this process, and starts it in a daemon thread.
+     *
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines
+     * @return the started tailer
+     */
+    public static StreamTailer createForStdin(Charset charset, TailerListener listener) {
+        return start(new StreamTailer(new File(STDIN_NAME), charset, listener, false));
+    }
+
+    /**
+     * Creates a StreamTailer reading the given named pipe, and starts it in a daemon thread.
+     *
+     * @param namedPipe
+     *         the named pipe (FIFO) to read
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines
+     * @return the started tailer
+     */
+    public static StreamTailer createForNamedPipe(File namedPipe, Charset charset, TailerListener listener) {
+        return start(new StreamTailer(namedPipe, charset, listener, true));
+    }
+
+    private static StreamTailer start(StreamTailer tailer) {
+        Thread thread = new Thread(tailer, "Tailer");
+        thread.setDaemon(true);
+        thread.start();
+        return tailer;
+    }
+
+    @Override
+    public void run() {
+        LineScanner scanner = new LineScanner(charset, listener::handle);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            channel = openChannel();
+            while (getRun()) {
+                int nbRead = channel.read(buffer);
+                if (nbRead < 0) {
+                    scanner.flush();
+                    notifyEndOfAvailableData();
+                    if (!namedPipe) {
+                        return;
+                    }
+                    // the writer is gone, waiting for the next one
+                    channel.close();
+                    channel = openChannel();
+                    continue;
+                }
+                buffer.flip();
+                scanner.scan(buffer);
+                buffer.clear();
+                if (nbRead < BUFFER_SIZE) {
+                    notifyEndOfAvailableData();
+                }
+            }
+        } catch (AsynchronousCloseException e) {
+            // the tailer was stopped while waiting for data
+        } catch (NoSuchFileException e) {
+            listener.fileNotFound();
+        } catch (IOException e) {
+            listener.handle(e);
+        } finally {
+            stop();
+        }
+    }
+
+    private ReadableByteChannel openChannel() throws IOException {
+        if (namedPipe) {
+            // blocks until a writer opens the pipe
+            return FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+        }
+        return new FileInputStream(FileDescriptor.in).getChannel();
+    }
+
+    private void notifyEndOfAvailableData() {
+        if (listener instanceof TailerListenerAdapter) {
+            ((TailerListenerAdapter) listener).endOfFileReached();
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        ReadableByteChannel currentChannel = channel;
+        if (currentChannel != null) {
+            try {
+                // unblocks the reading thread
+                currentChannel.close();
+            } catch (IOException e) {
+                // nothing more we can do
+            }
+        }
+    }
+}
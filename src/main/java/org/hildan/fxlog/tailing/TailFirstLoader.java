@@ -0,0 +1,185 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.Tailer;
+import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.io.ReverseLineReader;
+
+/**
+ * Loads a file starting with its most recent logs, instead of reading it from the beginning.
+ * <p>
+ * The last lines of the file are read backwards and added to the logs first, so that they appear right away whatever
+ * the size of the file. The live tailing then starts where these lines end. Older lines can optionally be read in the
+ * background at low priority, and are added at the top of the logs until the logs limit is reached.
+ */
+public class TailFirstLoader {
+
+    /**
+     * The number of logs to load first when there is no limit on the number of logs.
+     */
+    public static final int DEFAULT_NB_INITIAL_LOGS = 10000;
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private final File file;
+
+    private final Charset charset;
+
+    private final BufferedLogTailListener listener;
+
+    private final List<LogEntry> logs;
+
+    private volatile boolean running;
+
+    private volatile boolean historyFull;
+
+    /**
+     * Creates a new TailFirstLoader.
+     *
+     * @param file
+     *         the file to load
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener that receives the live logs, and whose parser is used for the older logs
+     * @param logs
+     *         the list of logs to add to
+     */
+    public TailFirstLoader(File file, Charset charset, BufferedLogTailListener listener, List<LogEntry> logs) {
+        this.file = file;
+        this.charset = charset;
+        this.listener = listener;
+        this.logs = logs;
+    }
+
+    /**
+     * Starts loading the file in the background. The returned tailer is started as soon as the most recent logs have
+     * been added, and reads the file from where these logs end.
+     *
+     * @param nbInitialLogs
+     *         the number of logs to load from the end of the file before starting the tailer
+     * @param backfill
+     *         whether to keep loading older logs in the background after the initial logs
+     * @param delayMillis
+     *         the polling period of the tailer, in milliseconds
+     * @return the tailer of the file, which can be stopped at any time
+     * @throws IOException
+     *         if an error occurs while opening the file
+     */
+    public Tailer start(int nbInitialLogs, boolean backfill, long delayMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ReverseLineReader reader;
+        try {
+            reader = new ReverseLineReader(channel, channel.size(), charset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        Tailer tailer = new OffsetTailer(file, charset, listener, delayMillis, reader.getTailOffset());
+        running = true;
+        Thread loader = new Thread(() -> {
+            try {
+                load(reader, nbInitialLogs, backfill, tailer);
+            } catch (IOException e) {
+                listener.handle(e);
+            } finally {
+                IOUtils.closeQuietly(channel);
+            }
+        }, "Tail-first Loader");
+        loader.setDaemon(true);
+        loader.start();
+        return tailer;
+    }
+
+    private void load(ReverseLineReader reader, int nbInitialLogs, boolean backfill, Tailer tailer)
+            throws IOException {
+        int nbLoadedLogs = 0;
+        boolean tailerStarted = false;
+        while (running && !historyFull && reader.hasPreviousLine()) {
+            if (nbLoadedLogs >= nbInitialLogs) {
+                if (!backfill) {
+                    break;
+                }
+                // the most recent logs are there, the history is not urgent
+                Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+            }
+            int nbMissingInitialLogs = nbInitialLogs - nbLoadedLogs;
+            int chunkSize = nbMissingInitialLogs > 0 ? Math.min(CHUNK_SIZE, nbMissingInitialLogs) : CHUNK_SIZE;
+            List<String> lines = readPreviousLines(reader, chunkSize);
+            Function<String, LogEntry> parser = listener.getLogParser();
+            List<LogEntry> chunk = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                chunk.add(parser.apply(line));
+            }
+            nbLoadedLogs += chunk.size();
+            // needs to run on the main thread to avoid concurrent modifications
+            Platform.runLater(() -> prependToLogsList(chunk, parser));
+            if (!tailerStarted) {
+                startTailer(tailer);
+                tailerStarted = true;
+            }
+        }
+        if (!tailerStarted) {
+            startTailer(tailer);
+        }
+    }
+
+    private List<String> readPreviousLines(ReverseLineReader reader, int maxLines) throws IOException {
+        List<String> lines = new ArrayList<>(maxLines);
+        while (lines.size() < maxLines) {
+            String line = reader.readPreviousLine();
+            if (line == null) {
+                break;
+            }
+            if (!(listener.getSkipEmptyLogs() && line.isEmpty())) {
+                lines.add(line);
+            }
+        }
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    private void prependToLogsList(List<LogEntry> chunk, Function<String, LogEntry> parser) {
+        if (!running) {
+            return;
+        }
+        if (listener.getLogParser() != parser) {
+            // the columnizer changed in the meantime
+            chunk.replaceAll(log -> listener.getLogParser().apply(log.rawLine()));
+        }
+        List<LogEntry> newLogs = chunk;
+        if (listener.isLimitNumberOfLogs()) {
+            int room = Math.max(0, listener.getMaxNumberOfLogs() - logs.size());
+            if (room <= chunk.size()) {
+                historyFull = true;
+            }
+            newLogs = chunk.subList(chunk.size() - Math.min(room, chunk.size()), chunk.size());
+        }
+        logs.addAll(0, newLogs);
+    }
+
+    private static void startTailer(Tailer tailer) {
+        Thread thread = new Thread(tailer, "Tailer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops loading older logs. This doesn't stop the tailer.
+     */
+    public void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,291 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.io.LineScanner;
+
+/**
+ * Tails many files with a few shared threads, instead of a dedicated thread per file.
+ * <p>
+ * A small I/O scheduler polls the files and reads their new bytes, and a pool of parser threads splits the bytes into
+ * lines and gives them to the listeners. Each file has at most one task in flight at any time, so that its lines are
+ * given in order to its listener.
+ * <p>
+ * The scheduling is fair: a file reads at most {@link #QUANTUM_SIZE} bytes per turn, then goes back to the end of the
+ * queue if it has more to read. This way, a file that is written to very quickly cannot starve the others.
+ */
+public class TailingService {
+
+    /**
+     * The max number of bytes read from a file before giving the turn to the other files.
+     */
+    public static final int QUANTUM_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_IO_THREADS = 2;
+
+    private final ScheduledExecutorService ioScheduler;
+
+    private final ExecutorService parserPool;
+
+    /**
+     * Creates a new TailingService with 2 I/O threads, and a parser thread per available processor.
+     */
+    public TailingService() {
+        this(DEFAULT_IO_THREADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new TailingService.
+     *
+     * @param nbIoThreads
+     *         the number of threads polling and reading the files
+     * @param nbParserThreads
+     *         the number of threads splitting the lines and notifying the listeners
+     */
+    public TailingService(int nbIoThreads, int nbParserThreads) {
+        this.ioScheduler = Executors.newScheduledThreadPool(nbIoThreads, daemonThreads("Tailing I/O"));
+        this.parserPool = Executors.newFixedThreadPool(nbParserThreads, daemonThreads("Log parser"));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts tailing the given file.
+     *
+     * @param file
+     *         the file to tail
+     * @param charset
+     *         the charset to use to decode the lines
+     * @param listener
+     *         the listener to notify of new lines, which is not given any {@link Tailer} as the file does not have its
+     *         own
+     * @param delayMillis
+     *         the time to wait before checking the file for new lines, in milliseconds
+     * @param startOffset
+     *         the offset in the file to start reading from
+     * @return a handle on the tailed file, which can be used to stop tailing it
+     */
+    public TailedFile tail(File file, Charset charset, TailerListener listener, long delayMillis, long startOffset) {
+        TailedFile tailedFile = new TailedFile(file, charset, listener, delayMillis, startOffset);
+        ioScheduler.execute(tailedFile::poll);
+        return tailedFile;
+    }
+
+    /**
+     * Runs the given task periodically on the I/O threads of this service.
+     *
+     * @param task
+     *         the task to run, which must be short
+     * @param periodMillis
+     *         the time between 2 runs of the task, in milliseconds
+     * @return a handle to cancel the task
+     */
+    ScheduledFuture<?> schedulePeriodically(Runnable task, long periodMillis) {
+        return ioScheduler.scheduleWithFixedDelay(task, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the threads of this service. The files that are still tailed are not read anymore.
+     */
+    public void shutdown() {
+        ioScheduler.shutdownNow();
+        parserPool.shutdownNow();
+    }
+
+    private static void reportError(Throwable e) {
+        Thread thread = Thread.currentThread();
+        // the executors would silently swallow the exception otherwise
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    /**
+     * A file tailed by this service. Unlike a {@link Tailer}, it doesn't have its own thread: its reads are scheduled
+     * on the threads of the service.
+     */
+    public class TailedFile {
+
+        private final File file;
+
+        private final TailerListener listener;
+
+        private final LineScanner scanner;
+
+        private final long delayMillis;
+
+        private final FileRotationDetector rotationDetector;
+
+        private FileChannel channel;
+
+        private long position;
+
+        private boolean caughtUp;
+
+        private volatile boolean running;
+
+        private TailedFile(File file, Charset charset, TailerListener listener, long delayMillis, long startOffset) {
+            this.file = file;
+            this.listener = listener;
+            this.scanner = new LineScanner(charset, listener::handle);
+            this.delayMillis = delayMillis;
+            this.rotationDetector = new FileRotationDetector(file.toPath());
+            this.position = startOffset;
+            this.running = true;
+        }
+
+        /**
+         * @return the file being tailed
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Stops tailing the file. Its channel is closed at the next scheduled read.
+         */
+        public void stop() {
+            running = false;
+        }
+
+        /**
+         * Reads the next quantum of the file on an I/O thread, and hands it to the parser threads.
+         */
+        private void poll() {
+            if (!running) {
+                closeChannel();
+                return;
+            }
+            try {
+                if (channel == null) {
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                    rotationDetector.fileOpened();
+                }
+                // the previous tasks of this file are done, so the scanner can safely be used here
+                FileRotationDetector.Change change = rotationDetector.check(channel, position);
+                if (change == FileRotationDetector.Change.TRUNCATED) {
+                    // the new content starts at the beginning of the same file, the logs read so far are still valid
+                    scanner.flush();
+                    position = 0;
+                }
+                long available = channel.size() - position;
+                if (available <= 0 && change == FileRotationDetector.Change.REPLACED) {
+                    // the end of the previous file was read, the logs continue in the new file
+                    scanner.flush();
+                    listener.fileRotated();
+                    closeChannel();
+                    position = 0;
+                    ioScheduler.execute(this::poll);
+                    return;
+                }
+                if (available <= 0) {
+                    if (!caughtUp) {
+                        parserPool.execute(this::notifyEndOfFile);
+                    } else {
+                        scheduleNextPoll();
+                    }
+                    return;
+                }
+                ByteBuffer block = ByteBuffer.allocate((int) Math.min(QUANTUM_SIZE, available));
+                int nbRead = channel.read(block, position);
+                position += nbRead;
+                block.flip();
+                boolean hasMore = nbRead < available;
+                parserPool.execute(() -> parse(block, hasMore));
+            } catch (NoSuchFileException e) {
+                // the file may be between the rename and the creation of a rotation, we wait for it to come back
+                closeChannel();
+                listener.fileNotFound();
+                scheduleNextPoll();
+            } catch (IOException e) {
+                stop();
+                closeChannel();
+                handleError(e);
+            } catch (RuntimeException e) {
+                stop();
+                closeChannel();
+                reportError(e);
+            }
+        }
+
+        /**
+         * Gives the lines of the given block to the listener on a parser thread, and schedules the next read.
+         */
+        private void parse(ByteBuffer block, boolean hasMore) {
+            try {
+                scanner.scan(block);
+                if (!hasMore) {
+                    notifyEndOfFile();
+                    return;
+                }
+            } catch (RuntimeException e) {
+                stop();
+                reportError(e);
+            }
+            if (!ioScheduler.isShutdown()) {
+                // to the end of the queue, after the other files that have something to read
+                ioScheduler.execute(this::poll);
+            }
+        }
+
+        private void notifyEndOfFile() {
+            try {
+                caughtUp = true;
+                if (listener instanceof TailerListenerAdapter) {
+                    ((TailerListenerAdapter) listener).endOfFileReached();
+                }
+            } catch (RuntimeException e) {
+                stop();
+                reportError(e);
+            }
+            scheduleNextPoll();
+        }
+
+        private void scheduleNextPoll() {
+            if (!ioScheduler.isShutdown()) {
+                ioScheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void handleError(Exception e) {
+            try {
+                listener.handle(e);
+            } catch (RuntimeException re) {
+                reportError(re);
+            }
+        }
+
+        private void closeChannel() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing more we can do
+            }
+            channel = null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.hildan.fxlog.view.components;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
@@ -55,6 +56,8 @@ public class MemoryUsageInfo extends ProportionLabel<Double> {
 
     private final LongProperty refreshPeriod = new SimpleLongProperty(1000);
 
+    private final ObjectProperty<Supplier<String>> tooltipDetails = new SimpleObjectProperty<>();
+
     private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
         Thread thread = new Thread(r, "Memory Usage Tracker");
         thread.setDaemon(true);
@@ -132,10 +135,17 @@ public class MemoryUsageInfo extends ProportionLabel<Double> {
         double maxScaled = maxMemory / scale;
         double totalScaled = totalMemory / scale;
         double usedScaled = usedMemory / scale;
+        // computed on the tracker thread, the details may take a while
+        Supplier<String> detailsSupplier = tooltipDetails.get();
+        String details = detailsSupplier == null ? null : detailsSupplier.get();
         Platform.runLater(() -> {
             setCurrentCount(usedScaled);
             setTotalCount(totalScaled);
-            getTooltip().setText(String.format(effectiveTooltipTemplate.get(), usedScaled, totalScaled, maxScaled));
+            String tooltipText = String.format(effectiveTooltipTemplate.get(), usedScaled, totalScaled, maxScaled);
+            if (details != null && !details.isEmpty()) {
+                tooltipText += "\n\n" + details;
+            }
+            getTooltip().setText(tooltipText);
         });
     }
 
@@ -163,6 +173,22 @@ public class MemoryUsageInfo extends ProportionLabel<Double> {
         this.refreshPeriod.set(refreshPeriod);
     }
 
+    public Supplier<String> getTooltipDetails() {
+        return tooltipDetails.get();
+    }
+
+    /**
+     * @return the property holding a function that gives some details to add to the tooltip. It is called on a
+     * background thread at each refresh.
+     */
+    public ObjectProperty<Supplier<String>> tooltipDetailsProperty() {
+        return tooltipDetails;
+    }
+
+    public void setTooltipDetails(Supplier<String> tooltipDetails) {
+        this.tooltipDetails.set(tooltipDetails);
+    }
+
     @Override
     public String getTemplate() {
         return template.get();
@@ -1,5 +1,6 @@
 package org.hildan.fxlog.view.components;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -18,12 +19,11 @@ import javafx.scene.text.Font;
 import org.fxmisc.easybind.EasyBind;
 import org.fxmisc.easybind.Subscription;
 import org.hildan.fxlog.coloring.Style;
+import org.hildan.fxlog.regex.RegexGuard;
 import org.hildan.fxlog.search.Search;
 
 public class SearchableLabel extends HBox {
 
-    private static final String WITH_DELIMITER = "((?<=%1$s)|(?=%1$s))";
-
     private final StringProperty text = new SimpleStringProperty();
 
     private final ObjectProperty<Style> normalStyle = new SimpleObjectProperty<>(Style.DEFAULT);
@@ -50,10 +50,9 @@ public class SearchableLabel extends HBox {
         EasyBind.subscribe(normalStyle, style -> style.bindNodes(initialText));
 
         text.addListener((obs, old, val) -> refreshSearch());
-        search.textProperty().addListener((obs, old, val) -> refreshSearch());
         search.activeProperty().addListener((obs, old, val) -> refreshSearch());
-        search.matchCaseProperty().addListener((obs, old, val) -> refreshSearch());
-        search.regexModeProperty().addListener((obs, old, val) -> refreshSearch());
+        // the pattern changes with the search text, the case sensitivity and the regex mode
+        search.patternProperty().addListener((obs, old, val) -> refreshSearch());
 
         // initialize the content
         refreshSearch();
@@ -62,9 +61,8 @@ public class SearchableLabel extends HBox {
     private void refreshSearch() {
         ObservableList<Node> children = getChildren();
         String currentText = text.get();
-        String searchText = search.getText();
-        if (currentText == null || currentText.isEmpty() || searchText == null || searchText.isEmpty()
-                || !search.isActive()) {
+        Pattern pattern = search.getPattern();
+        if (currentText == null || currentText.isEmpty() || pattern == null || !search.isActive()) {
             children.setAll(initialText);
             return;
         }
@@ -73,7 +71,7 @@ public class SearchableLabel extends HBox {
             children.clear();
         }
         // separate the parts of the text that match the search and the others
-        String[] parts = splitButKeepDelimiter(currentText, Pattern.quote(searchText));
+        String[] parts = splitAroundMatches(currentText, RegexGuard.findAll(pattern, currentText));
         if (parts.length > children.size()) {
             updateAndCreateMore(parts);
         } else {
@@ -81,8 +79,9 @@ public class SearchableLabel extends HBox {
         }
     }
 
-    private boolean matchesSearch(String part) {
-        return part.equals(search.getText());
+    private static boolean matchesSearch(int partIndex) {
+        // the parts alternate between non-matching and matching, starting with a non-matching one
+        return partIndex % 2 == 1;
     }
 
     private void updateAndCreateMore(String[] parts) {
@@ -93,7 +92,7 @@ public class SearchableLabel extends HBox {
 
         // create extra labels
         for (int i = children.size(); i < parts.length; i++) {
-            Node partNode = createLabel(parts[i]);
+            Node partNode = createLabel(parts[i], matchesSearch(i));
             children.add(partNode);
         }
     }
@@ -114,11 +113,11 @@ public class SearchableLabel extends HBox {
         for (int i = 0; i < upperBoundExclusive; i++) {
             Label label = (Label) getChildren().get(i);
             label.setText(parts[i]);
-            bindStyle(label, matchesSearch(parts[i]));
+            bindStyle(label, matchesSearch(i));
         }
     }
 
-    private Label createLabel(String str) {
+    private Label createLabel(String str, boolean matchesSearch) {
         Label label = new Label(str);
         label.fontProperty().bind(font);
 
@@ -128,7 +127,7 @@ public class SearchableLabel extends HBox {
         Consumer<Style> styleChangeListener = style -> style.bindNodes(label);
         label.getProperties().put("styleListener", styleChangeListener);
 
-        bindStyle(label, matchesSearch(str));
+        bindStyle(label, matchesSearch);
 
         return label;
     }
@@ -148,9 +147,20 @@ public class SearchableLabel extends HBox {
         label.getProperties().put("subscription", subscription);
     }
 
-    private static String[] splitButKeepDelimiter(String text, String delimiterRegex) {
-        String splitRegex = String.format(WITH_DELIMITER, delimiterRegex);
-        return text.split(splitRegex);
+    /**
+     * Splits the given text around the given matches, alternating non-matching and matching parts. The first part is
+     * always a non-matching one, which may be empty, so that the matching parts are the ones at odd indices.
+     */
+    private static String[] splitAroundMatches(String text, List<int[]> matches) {
+        List<String> parts = new ArrayList<>(2 * matches.size() + 1);
+        int previousEnd = 0;
+        for (int[] match : matches) {
+            parts.add(text.substring(previousEnd, match[0]));
+            parts.add(text.substring(match[0], match[1]));
+            previousEnd = match[1];
+        }
+        parts.add(text.substring(previousEnd));
+        return parts.toArray(new String[parts.size()]);
     }
 
     public String getText() {
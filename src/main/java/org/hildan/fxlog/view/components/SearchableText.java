@@ -15,6 +15,7 @@ import javafx.scene.text.TextFlow;
 
 import org.fxmisc.easybind.EasyBind;
 import org.hildan.fxlog.coloring.Style;
+import org.hildan.fxlog.regex.RegexGuard;
 import org.hildan.fxlog.search.Search;
 
 // FIXME the size of this component goes crazy and makes it unusable
@@ -47,7 +48,8 @@ public class SearchableText extends TextFlow {
         getChildren().add(initialText);
 
         EasyBind.subscribe(text, s -> refreshSearch());
-        EasyBind.subscribe(search.textProperty(), s -> refreshSearch());
+        // the pattern changes with the search text, the case sensitivity and the regex mode
+        EasyBind.subscribe(search.patternProperty(), p -> refreshSearch());
     }
 
     private Text createNonMatchingText(String str) {
@@ -73,21 +75,29 @@ public class SearchableText extends TextFlow {
 
     private void refreshSearch() {
         String currentText = text.get();
-        String searchText = search.getText();
-        if (currentText == null || currentText.isEmpty() || searchText == null || searchText.isEmpty()) {
+        Pattern pattern = search.getPattern();
+        if (currentText == null || currentText.isEmpty() || pattern == null) {
             getChildren().setAll(initialText);
             return;
         }
         getChildren().clear();
         // separate the parts of the text that match the search and the others
-        String[] parts = splitButKeepDelimiter(currentText, Pattern.quote(searchText));
-        for (String part : parts) {
-            boolean matchesSearch = part.equals(searchText);
-            // each part
-            for (String word : splitButKeepDelimiter(part, "\\s")) {
-                Node wordNode = matchesSearch ? createNonMatchingText(word) : createMatchingTextPane(word);
-                getChildren().add(wordNode);
-            }
+        int previousEnd = 0;
+        for (int[] match : RegexGuard.findAll(pattern, currentText)) {
+            addWords(currentText.substring(previousEnd, match[0]), false);
+            addWords(currentText.substring(match[0], match[1]), true);
+            previousEnd = match[1];
+        }
+        addWords(currentText.substring(previousEnd), false);
+    }
+
+    private void addWords(String part, boolean matchesSearch) {
+        if (part.isEmpty()) {
+            return;
+        }
+        for (String word : splitButKeepDelimiter(part, "\\s")) {
+            Node wordNode = matchesSearch ? createMatchingTextPane(word) : createNonMatchingText(word);
+            getChildren().add(wordNode);
         }
     }
 
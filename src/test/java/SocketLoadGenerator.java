@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Tool to load test the socket receiver of FX Log. It sends mock log lines to a local port through several concurrent
+ * TCP connections, as fast as possible or at a given rate.
+ * <p>
+ * Usage: SocketLoadGenerator [port] [nbConnections] [linesPerSecond] [durationSeconds]
+ */
+public class SocketLoadGenerator {
+
+    private static final int DEFAULT_PORT = 4560;
+
+    private static final int DEFAULT_NB_CONNECTIONS = 50;
+
+    private static final int DEFAULT_LINES_PER_SECOND = 100_000;
+
+    private static final int DEFAULT_DURATION_SECONDS = 10;
+
+    private static final int LINES_PER_BURST = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int nbConnections = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NB_CONNECTIONS;
+        int linesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_LINES_PER_SECOND;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_DURATION_SECONDS;
+
+        AtomicLong sentLines = new AtomicLong();
+        long end = System.currentTimeMillis() + durationSeconds * 1000L;
+        double linesPerMilliPerConnection = linesPerSecond / 1000.0 / nbConnections;
+        List<Thread> senders = new ArrayList<>(nbConnections);
+        for (int i = 0; i < nbConnections; i++) {
+            String name = "sender-" + i;
+            Thread sender = new Thread(() -> send(port, name, linesPerMilliPerConnection, end, sentLines), name);
+            sender.start();
+            senders.add(sender);
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        System.out.printf("Sent %d lines in %ds through %d connections (%d lines/s)%n", sentLines.get(),
+                durationSeconds, nbConnections, sentLines.get() / Math.max(1, durationSeconds));
+    }
+
+    private static void send(int port, String name, double linesPerMilli, long end, AtomicLong sentLines) {
+        long start = System.currentTimeMillis();
+        long nbSent = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            long now = start;
+            while (now < end) {
+                long due = (long) ((now - start) * linesPerMilli);
+                if (nbSent >= due) {
+                    Thread.sleep(1);
+                } else {
+                    StringBuilder burst = new StringBuilder();
+                    for (int i = 0; i < LINES_PER_BURST; i++) {
+                        burst.append(mockLogLine(name, nbSent + i));
+                    }
+                    out.write(burst.toString().getBytes(UTF_8));
+                    nbSent += LINES_PER_BURST;
+                }
+                now = System.currentTimeMillis();
+            }
+        } catch (IOException e) {
+            System.err.println(name + " stopped: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sentLines.addAndGet(nbSent);
+    }
+
+    private static String mockLogLine(String sender, long index) {
+        return String.format("%s INFO  [%s] com.example.Service - processed request #%d%n", LocalDateTime.now(),
+                sender, index);
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListener;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.hildan.fxlog.tailing.OffsetTailer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Tool to compare the throughput of our {@link OffsetTailer} with the commons-io {@link Tailer}. It writes a file of
+ * mock logs, and measures the time each tailer takes to read all its lines from the beginning.
+ */
+public class TailerBenchmark {
+
+    private static final int DEFAULT_SIZE_MB = 200;
+
+    private static final int NB_RUNS = 3;
+
+    private static final long DELAY_MILLIS = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sizeMB = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE_MB;
+        Path path = Files.createTempFile("fxlog-benchmark", ".log");
+        try {
+            int nbLines = writeMockLogs(path, sizeMB * 1024L * 1024L);
+            File file = path.toFile();
+            System.out.printf("%d lines, %d MB%n", nbLines, sizeMB);
+            for (int i = 0; i < NB_RUNS; i++) {
+                measure("commons-io Tailer", sizeMB, nbLines, l -> new Tailer(file, UTF_8, l, DELAY_MILLIS, false,
+                        false, 4096));
+                measure("OffsetTailer     ", sizeMB, nbLines, l -> new OffsetTailer(file, UTF_8, l, DELAY_MILLIS, 0));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static int writeMockLogs(Path path, long size) throws IOException {
+        int nbLines = 0;
+        long written = 0;
+        Charset charset = UTF_8;
+        try (BufferedWriter writer = Files.newBufferedWriter(path, charset)) {
+            while (written < size) {
+                String line = String.format("####<2017-03-14 10:%02d:%02d,%03d> <Info> <com.amadeus.DataMap> "
+                        + "<The r\u00e9servation %d could not be retrieved>\r\n", nbLines / 60 % 60, nbLines % 60,
+                        nbLines % 1000, nbLines);
+                writer.write(line);
+                written += line.getBytes(charset).length;
+                nbLines++;
+            }
+        }
+        return nbLines;
+    }
+
+    private static void measure(String name, int sizeMB, int nbLines, Function<TailerListener, Tailer> tailerFactory)
+            throws InterruptedException {
+        CountingListener listener = new CountingListener(nbLines);
+        Tailer tailer = tailerFactory.apply(listener);
+        long start = System.nanoTime();
+        Thread thread = new Thread(tailer);
+        thread.setDaemon(true);
+        thread.start();
+        listener.allLinesRead.await();
+        long elapsedNanos = System.nanoTime() - start;
+        tailer.stop();
+        thread.join();
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("%s: %6d ms, %7.1f MB/s, %9.0f lines/s%n", name, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                sizeMB / seconds, nbLines / seconds);
+    }
+
+    private static class CountingListener extends TailerListenerAdapter {
+
+        private final CountDownLatch allLinesRead;
+
+        CountingListener(int nbLines) {
+            this.allLinesRead = new CountDownLatch(nbLines);
+        }
+
+        @Override
+        public void handle(String line) {
+            allLinesRead.countDown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.hildan.fxlog.columns;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+import javafx.collections.FXCollections;
+
+import org.hildan.fxlog.data.LogEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnTypeTest {
+
+    @Test
+    public void testInteger() {
+        ToLongFunction<String> parser = ColumnType.INTEGER.createParser(null);
+        Assert.assertEquals(2326, parser.applyAsLong(" 2326 "));
+        Assert.assertEquals(-12, parser.applyAsLong("-12"));
+        Assert.assertEquals(ColumnType.MISSING, parser.applyAsLong("-"));
+        Assert.assertEquals(ColumnType.MISSING, parser.applyAsLong("12kB"));
+        Assert.assertEquals(ColumnType.MISSING, parser.applyAsLong("1234567890123456789"));
+    }
+
+    @Test
+    public void testLevel() {
+        ToLongFunction<String> parser = ColumnType.LEVEL.createParser(null);
+        Assert.assertEquals(0, parser.applyAsLong("TRACE"));
+        Assert.assertEquals(parser.applyAsLong("WARN"), parser.applyAsLong("warning"));
+        Assert.assertEquals(parser.applyAsLong("ERROR"), parser.applyAsLong("core:error"));
+        Assert.assertTrue(parser.applyAsLong("SEVERE") > parser.applyAsLong("INFO"));
+        Assert.assertEquals(ColumnType.MISSING, parser.applyAsLong("VERBOSE"));
+    }
+
+    @Test
+    public void testTimestamp() {
+        ToLongFunction<String> explicit = ColumnType.TIMESTAMP.createParser("dd.MM.yyyy HH:mm");
+        Assert.assertEquals(60_000, explicit.applyAsLong("01.01.1970 00:01"));
+        Assert.assertEquals(ColumnType.MISSING, explicit.applyAsLong("1970-01-01 00:01:00"));
+
+        // an invalid format falls back to the common formats
+        ToLongFunction<String> fallback = ColumnType.TIMESTAMP.createParser("yyyy-MM-dd {");
+        Assert.assertEquals(60_000, fallback.applyAsLong("1970-01-01 00:01:00"));
+    }
+
+    @Test
+    public void testTextIsNotParsed() {
+        Assert.assertEquals(ColumnType.MISSING, ColumnType.TEXT.createParser(null).applyAsLong("42"));
+    }
+
+    @Test
+    public void testTypedValuesFollowTypeEdits() {
+        ColumnDefinition sizeColumn = new ColumnDefinition("Size", "size");
+        Columnizer columnizer = new Columnizer("test", FXCollections.observableArrayList(sizeColumn),
+                Arrays.asList("(?<size>.*)"));
+        LogEntry log = columnizer.parse("42");
+        Assert.assertEquals(ColumnType.MISSING, log.getTypedValue("size"));
+
+        sizeColumn.setType(ColumnType.INTEGER);
+        Assert.assertEquals(42, log.getTypedValue("size"));
+    }
+}
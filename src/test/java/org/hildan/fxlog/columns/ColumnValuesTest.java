@@ -0,0 +1,81 @@
+package org.hildan.fxlog.columns;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.collections.FXCollections;
+
+import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.filtering.Filter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnValuesTest {
+
+    private Columnizer columnizer;
+
+    @Before
+    public void setUp() {
+        columnizer = new Columnizer("test",
+                FXCollections.observableArrayList(new ColumnDefinition("Severity", "severity"),
+                        new ColumnDefinition("Message", "msg"), new ColumnDefinition("Message again", "msg")),
+                Arrays.asList("(?<severity>[A-Z]+) (?<msg>.*)"));
+    }
+
+    @Test
+    public void testSameContentAsMap() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("severity", "INFO");
+        expected.put("msg", "started");
+        ColumnValues values = columnizer.parseColumnValues("INFO started");
+        Assert.assertEquals(expected, values);
+        Assert.assertEquals(expected.hashCode(), values.hashCode());
+        Assert.assertNull(values.get("thread"));
+
+        // the whole line goes in the first column
+        expected.put("severity", "not matching");
+        expected.put("msg", "");
+        Assert.assertEquals(expected, columnizer.parseColumnValues("not matching"));
+    }
+
+    @Test
+    public void testLowCardinalityDetection() {
+        for (int i = 0; i < 2 * ColumnDictionary.MAX_SIZE; i++) {
+            columnizer.parseColumnValues((i % 2 == 0 ? "INFO" : "WARN") + " message " + i);
+        }
+        ColumnValues values = columnizer.parseColumnValues("WARN last message");
+        Assert.assertEquals(1, values.getCode("severity"));
+        Assert.assertEquals(ColumnDictionary.NOT_ENCODED, values.getCode("msg"));
+        Assert.assertEquals("last message", values.get("msg"));
+        Assert.assertFalse(values.getDictionary("msg").isLowCardinality());
+        Assert.assertTrue(values.getDictionary("severity").isLowCardinality());
+    }
+
+    @Test
+    public void testValuesAsOffsets() {
+        StringBuilder longMessage = new StringBuilder("long message");
+        while (longMessage.length() <= StringPool.MAX_POOLED_LENGTH) {
+            longMessage.append(" that goes on");
+        }
+        ColumnValues values = columnizer.parseColumnValues("ERROR " + longMessage);
+        CharSequence message = values.getCharSequence("msg");
+        Assert.assertFalse(message instanceof String);
+        Assert.assertEquals(longMessage.toString(), message.toString());
+        Assert.assertEquals(longMessage.toString(), values.get("msg"));
+        Assert.assertEquals("message", message.subSequence(5, 12).toString());
+        Assert.assertTrue(Filter.findInColumn("msg", "goes on$").test(columnizer.parse("ERROR " + longMessage)));
+    }
+
+    @Test
+    public void testFilterOnEncodedColumn() {
+        Filter filter = Filter.findInColumn("severity", "WARN");
+        LogEntry warn = columnizer.parse("WARN disk almost full");
+        LogEntry info = columnizer.parse("INFO disk cleaned");
+        Assert.assertTrue(filter.test(warn));
+        Assert.assertFalse(filter.test(info));
+        Assert.assertTrue(filter.test(columnizer.parse("WARN disk full")));
+        Assert.assertFalse(Filter.findInColumn("severity", "ERROR").test(warn));
+    }
+}
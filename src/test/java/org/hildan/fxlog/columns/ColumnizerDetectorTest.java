@@ -0,0 +1,66 @@
+package org.hildan.fxlog.columns;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.collections.FXCollections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ColumnizerDetectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Columnizer catchAll = new Columnizer("catch-all",
+            FXCollections.observableArrayList(new ColumnDefinition("Severity", "severity"),
+                    new ColumnDefinition("Message", "msg")),
+            Arrays.asList("(?<msg>.*)"));
+
+    private final Columnizer severity = new Columnizer("severity",
+            FXCollections.observableArrayList(new ColumnDefinition("Severity", "severity"),
+                    new ColumnDefinition("Message", "msg")),
+            Arrays.asList("(?<severity>[A-Z]+) (?<msg>.*)", "(?<msg>.*)"));
+
+    private Path createLogFile(String... lines) throws IOException {
+        Path file = folder.newFile("app.log").toPath();
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void testMostFilledColumnsWin() throws IOException {
+        Path file = createLogFile("INFO started", "WARN slow", "ERROR failed");
+        List<Columnizer> columnizers = Arrays.asList(catchAll, severity);
+        Assert.assertSame(severity, ColumnizerDetector.detect(columnizers, file, StandardCharsets.UTF_8));
+
+        // both columnizers match all the lines, but the catch-all one leaves the severity column empty
+        List<Columnizer> reversed = new ArrayList<>(columnizers);
+        Collections.reverse(reversed);
+        Assert.assertSame(severity, ColumnizerDetector.detect(reversed, file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNoColumnsMatched() throws IOException {
+        Path file = createLogFile("not matching");
+        Columnizer strict = new Columnizer("strict",
+                FXCollections.observableArrayList(new ColumnDefinition("Severity", "severity")),
+                Arrays.asList("(?<severity>[A-Z]+) .*"));
+        Assert.assertNull(ColumnizerDetector.detect(Collections.singletonList(strict), file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path file = createLogFile();
+        Assert.assertNull(ColumnizerDetector.detect(Arrays.asList(catchAll, severity), file, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,71 @@
+package org.hildan.fxlog.columns;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StringPoolTest {
+
+    private StringPool pool;
+
+    private StringPool.Statistics statistics;
+
+    @Before
+    public void setUp() {
+        pool = new StringPool(16);
+        statistics = pool.getStatistics("thread");
+    }
+
+    @Test
+    public void testHash() {
+        String line = "[main-thread] started";
+        Assert.assertEquals("main-thread".hashCode(), StringPool.hash(line, 1, 12));
+    }
+
+    @Test
+    public void testOfferedValuesArePooled() {
+        String line = "[main] started";
+        // a first miss doesn't extract the value
+        Assert.assertNull(pool.intern(line, 1, 5, statistics));
+
+        String offered = "main";
+        pool.offer(offered, statistics);
+        Assert.assertSame(offered, pool.intern(line, 1, 5, statistics));
+        Assert.assertSame(offered, pool.intern("[main] stopped", 1, 5, statistics));
+        Assert.assertNull(pool.intern("[worker] started", 1, 7, statistics));
+
+        Assert.assertEquals(4, statistics.getLookups());
+        Assert.assertEquals(0.5, statistics.getHitRate(), 0);
+        // nothing is saved until a log can drop its offsets
+        Assert.assertEquals(0, statistics.getSavedBytes());
+    }
+
+    @Test
+    public void testRepeatedValuesArePooledAtIngest() {
+        Assert.assertNull(pool.intern("[main] started", 1, 5, statistics));
+        // the second miss extracts the value so that the next ones share it
+        String pooled = pool.intern("[main] running", 1, 5, statistics);
+        Assert.assertEquals("main", pooled);
+        for (int i = 0; i < 20000; i++) {
+            Assert.assertSame(pooled, pool.intern("[main] step " + i, 1, 5, statistics));
+        }
+        Assert.assertTrue(statistics.isPooled());
+        Assert.assertTrue(statistics.getHitRate() > 0.99);
+    }
+
+    @Test
+    public void testRarelyRepeatedColumnIsNotPooled() {
+        for (int i = 0; i < 10000; i++) {
+            String value = "msg" + i;
+            Assert.assertNull(pool.intern(value, 0, value.length(), statistics));
+        }
+        Assert.assertFalse(statistics.isPooled());
+        pool.offer("msg0", statistics);
+        Assert.assertNull(pool.intern("msg0", 0, 4, statistics));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityNotPowerOf2() {
+        new StringPool(10);
+    }
+}
@@ -0,0 +1,90 @@
+package org.hildan.fxlog.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapLineStoreTest {
+
+    @Test
+    public void testAppendAndGet() {
+        OffHeapLineStore store = new OffHeapLineStore(64);
+        long first = store.append("first line");
+        long second = store.append("r\u00e9servation \u4e2d");
+        long empty = store.append("");
+        Assert.assertEquals("first line", store.getLine(first));
+        Assert.assertEquals("r\u00e9servation \u4e2d", store.getLine(second));
+        Assert.assertEquals("", store.getLine(empty));
+        Assert.assertEquals(3, store.size());
+    }
+
+    @Test
+    public void testLinesBiggerThanSegments() {
+        OffHeapLineStore store = new OffHeapLineStore(16);
+        long small = store.append("small");
+        long big = store.append("a line that does not fit in a segment");
+        long next = store.append("next");
+        Assert.assertEquals("small", store.getLine(small));
+        Assert.assertEquals("a line that does not fit in a segment", store.getLine(big));
+        Assert.assertEquals("next", store.getLine(next));
+    }
+
+    @Test
+    public void testDiscardReleasesSegments() {
+        OffHeapLineStore store = new OffHeapLineStore(16);
+        long[] ids = new long[10];
+        for (int i = 0; i < ids.length; i++) {
+            // 2 lines per segment
+            ids[i] = store.append("line " + i);
+        }
+        Assert.assertEquals(5 * 16, store.getAllocatedBytes());
+
+        // the segment of line 5 also holds line 4, which is discarded but not released
+        store.discardBefore(ids[5]);
+        Assert.assertEquals(3 * 16, store.getAllocatedBytes());
+        Assert.assertEquals(5, store.getNbLines());
+        Assert.assertEquals("line 5", store.getLine(ids[5]));
+        try {
+            store.getLine(ids[4]);
+            Assert.fail("discarded lines should not be accessible");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // discarding older lines again has no effect
+        store.discardBefore(ids[2]);
+        Assert.assertEquals("line 5", store.getLine(ids[5]));
+
+        // the current segment is kept for the next lines
+        store.discardBefore(store.size());
+        Assert.assertEquals(16, store.getAllocatedBytes());
+        Assert.assertEquals(0, store.getNbLines());
+        long newId = store.append("new line");
+        Assert.assertEquals(10, newId);
+        Assert.assertEquals("new line", store.getLine(newId));
+    }
+
+    @Test
+    public void testIndexStaysBounded() {
+        OffHeapLineStore store = new OffHeapLineStore(1024);
+        long lastId = -1;
+        for (int i = 0; i < 1000000; i++) {
+            lastId = store.append("line " + i);
+            // keeps the last 100 lines, like a limited number of logs
+            store.discardBefore(lastId - 99);
+        }
+        Assert.assertEquals(100, store.getNbLines());
+        Assert.assertTrue(store.getIndexCapacity() <= 1024);
+        Assert.assertEquals("line 999999", store.getLine(lastId));
+        Assert.assertEquals("line 999900", store.getLine(lastId - 99));
+
+        // the index shrinks once most lines are discarded
+        for (int i = 0; i < 100000; i++) {
+            lastId = store.append("line " + i);
+        }
+        Assert.assertTrue(store.getIndexCapacity() >= 100000);
+        store.discardBefore(lastId);
+        Assert.assertEquals("line 99999", store.getLine(lastId));
+        store.append("one more");
+        Assert.assertTrue(store.getIndexCapacity() < 100000);
+    }
+}
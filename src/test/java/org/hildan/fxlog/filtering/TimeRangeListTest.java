@@ -0,0 +1,104 @@
+package org.hildan.fxlog.filtering;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.columns.Columnizer;
+import org.hildan.fxlog.data.LogEntry;
+import org.hildan.fxlog.merging.TimestampParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimeRangeListTest {
+
+    private Columnizer columnizer;
+
+    private ObservableList<LogEntry> logs;
+
+    private TimeRangeList timeRangeLogs;
+
+    @Before
+    public void setUp() {
+        ColumnDefinition timeColumn = new ColumnDefinition("Time", "time");
+        timeColumn.setType(ColumnType.TIMESTAMP);
+        ColumnDefinition msgColumn = new ColumnDefinition("Message", "msg");
+        columnizer = new Columnizer("test", FXCollections.observableArrayList(timeColumn, msgColumn),
+                Arrays.asList("(?<time>\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d) (?<msg>.*)", "(?<msg>.*)"));
+        logs = FXCollections.observableArrayList();
+        timeRangeLogs = new TimeRangeList(logs);
+    }
+
+    private void add(String... lines) {
+        logs.addAll(Arrays.stream(lines).map(columnizer::parse).collect(Collectors.toList()));
+    }
+
+    private void setRange(String from, String to) {
+        TimestampParser parser = new TimestampParser();
+        timeRangeLogs.setRange("time", parser.parse(from), parser.parse(to));
+    }
+
+    private List<String> visibleLines() {
+        return timeRangeLogs.stream().map(LogEntry::rawLine).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testNoRange() {
+        add("2017-01-01 10:00:00 a", "2017-01-01 11:00:00 b");
+        Assert.assertEquals(2, timeRangeLogs.size());
+        setRange("2017-01-01 10:30:00", "2017-01-01 12:00:00");
+        timeRangeLogs.clearRange();
+        add("no timestamp");
+        Assert.assertEquals(logs, timeRangeLogs);
+    }
+
+    @Test
+    public void testRangeWithStackTraceAndRuns() {
+        add("2017-01-01 10:00:00 a", "2017-01-01 10:01:00 b", "\tat stack.trace", "2017-01-01 10:02:00 c",
+                // another file merged, or a clock change
+                "2017-01-01 09:59:00 d", "2017-01-01 10:01:30 e", "\tat other.trace", "2017-01-01 10:03:00 f");
+        setRange("2017-01-01 10:01:00", "2017-01-01 10:02:00");
+        Assert.assertEquals(Arrays.asList("2017-01-01 10:01:00 b", "\tat stack.trace", "2017-01-01 10:02:00 c",
+                "2017-01-01 10:01:30 e", "\tat other.trace"), visibleLines());
+    }
+
+    @Test
+    public void testBoundsChanges() {
+        add("2017-01-01 10:00:00 a", "2017-01-01 10:01:00 b", "2017-01-01 09:59:00 c", "2017-01-01 10:02:00 d");
+        setRange("2017-01-01 10:00:00", "2017-01-01 10:01:00");
+        Assert.assertEquals(Arrays.asList("2017-01-01 10:00:00 a", "2017-01-01 10:01:00 b"), visibleLines());
+        setRange("2017-01-01 09:59:00", "2017-01-01 10:00:00");
+        Assert.assertEquals(Arrays.asList("2017-01-01 10:00:00 a", "2017-01-01 09:59:00 c"), visibleLines());
+
+        // the runs are not maintained without range
+        timeRangeLogs.clearRange();
+        add("2017-01-01 09:58:00 e");
+        setRange("2017-01-01 09:58:00", "2017-01-01 09:59:00");
+        Assert.assertEquals(Arrays.asList("2017-01-01 09:59:00 c", "2017-01-01 09:58:00 e"), visibleLines());
+    }
+
+    @Test
+    public void testTailing() {
+        setRange("2017-01-01 10:01:00", "2017-01-01 10:02:00");
+        add("2017-01-01 10:00:00 a", "2017-01-01 10:01:00 b");
+        add("\tat stack.trace", "2017-01-01 10:03:00 c");
+        Assert.assertEquals(Arrays.asList("2017-01-01 10:01:00 b", "\tat stack.trace"), visibleLines());
+
+        logs.remove(0, 2);
+        Assert.assertEquals(Arrays.asList("\tat stack.trace"), visibleLines());
+        add("2017-01-01 10:01:59 d");
+        Assert.assertEquals(Arrays.asList("\tat stack.trace", "2017-01-01 10:01:59 d"), visibleLines());
+        Assert.assertEquals(2, timeRangeLogs.getSourceIndex(1));
+
+        logs.set(2, columnizer.parse("2017-01-01 10:01:30 e"));
+        Assert.assertEquals(Arrays.asList("\tat stack.trace", "2017-01-01 10:01:30 e"), visibleLines());
+        logs.clear();
+        Assert.assertTrue(timeRangeLogs.isEmpty());
+    }
+}
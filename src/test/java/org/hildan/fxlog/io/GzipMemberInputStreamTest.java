@@ -0,0 +1,112 @@
+package org.hildan.fxlog.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.hildan.fxlog.io.GzipRestartIndex.RestartPoint;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GzipMemberInputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path createFile(byte[]... members) throws IOException {
+        Path file = folder.newFile("test.log.gz").toPath();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] member : members) {
+            content.write(member);
+        }
+        Files.write(file, content.toByteArray());
+        return file;
+    }
+
+    private static String readAll(Path file, RestartPoint start, List<RestartPoint> restartPoints) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream in = new GzipMemberInputStream(channel, start, restartPoints::add)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[7];
+            int nbRead;
+            while ((nbRead = in.read(buffer, 0, buffer.length)) > 0) {
+                out.write(buffer, 0, nbRead);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testMultipleMembers() throws IOException {
+        byte[] first = gzip("line 1\nline 2\n");
+        byte[] second = gzip("line 3\nline ");
+        byte[] third = gzip("4\nline 5\n");
+        Path file = createFile(first, second, third);
+
+        List<RestartPoint> points = new ArrayList<>();
+        Assert.assertEquals("line 1\nline 2\nline 3\nline 4\nline 5\n", readAll(file, RestartPoint.ORIGIN, points));
+        Assert.assertEquals(3, points.size());
+        Assert.assertEquals(Arrays.asList(0L, (long) first.length, (long) first.length + second.length),
+                Arrays.asList(points.get(0).getCompressedOffset(), points.get(1).getCompressedOffset(),
+                        points.get(2).getCompressedOffset()));
+        Assert.assertEquals(2, points.get(1).getLineNumber());
+        Assert.assertTrue(points.get(1).isLineStart());
+        Assert.assertEquals(3, points.get(2).getLineNumber());
+        Assert.assertFalse(points.get(2).isLineStart());
+    }
+
+    @Test
+    public void testSeekThroughRestartIndex() throws IOException {
+        Path file = createFile(gzip("line 1\nline 2\n"), gzip("line 3\nline "), gzip("4\nline 5\n"));
+        GzipRestartIndex index = new GzipRestartIndex();
+        List<RestartPoint> points = new ArrayList<>();
+        readAll(file, RestartPoint.ORIGIN, points);
+        points.forEach(index::add);
+
+        // the line numbers are 0-based
+        Assert.assertEquals(0, index.findRestartPoint(1).getCompressedOffset());
+        RestartPoint secondMember = index.findRestartPoint(2);
+        Assert.assertEquals(2, secondMember.getLineNumber());
+        Assert.assertEquals("line 3\nline 4\nline 5\n", readAll(file, secondMember, new ArrayList<>()));
+        // "line 4" starts at the end of the second member, so it must be read from there
+        Assert.assertSame(secondMember, index.findRestartPoint(3));
+        RestartPoint thirdMember = index.findRestartPoint(4);
+        Assert.assertEquals(3, thirdMember.getLineNumber());
+        Assert.assertEquals("4\nline 5\n", readAll(file, thirdMember, new ArrayList<>()));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testCorruptCrc() throws IOException {
+        byte[] member = gzip("line 1\nline 2\n");
+        // the CRC is the first field of the trailer
+        member[member.length - 8] ^= 1;
+        readAll(createFile(gzip("line 0\n"), member), RestartPoint.ORIGIN, new ArrayList<>());
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedMember() throws IOException {
+        byte[] member = gzip("line 1\nline 2\n");
+        readAll(createFile(Arrays.copyOf(member, member.length - 3)), RestartPoint.ORIGIN, new ArrayList<>());
+    }
+}
@@ -0,0 +1,87 @@
+package org.hildan.fxlog.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class LineScannerTest {
+
+    private static List<String> scan(Charset charset, byte[] bytes, int chunkSize) {
+        List<String> lines = new ArrayList<>();
+        LineScanner scanner = new LineScanner(charset, lines::add);
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            scanner.scan(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testSplitLines() {
+        byte[] bytes = "first line\nsecond line, a bit longer\n\nafter empty\n".getBytes(UTF_8);
+        List<String> expected = Arrays.asList("first line", "second line, a bit longer", "", "after empty");
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            Assert.assertEquals("chunk size " + chunkSize, expected, scan(UTF_8, bytes, chunkSize));
+        }
+    }
+
+    @Test
+    public void testCrlf() {
+        byte[] bytes = "windows\r\nunix\nwindows again\r\n\r\n".getBytes(UTF_8);
+        List<String> expected = Arrays.asList("windows", "unix", "windows again", "");
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            Assert.assertEquals("chunk size " + chunkSize, expected, scan(UTF_8, bytes, chunkSize));
+        }
+    }
+
+    @Test
+    public void testPartialLastLine() {
+        List<String> lines = new ArrayList<>();
+        LineScanner scanner = new LineScanner(UTF_8, lines::add);
+        scanner.scan(ByteBuffer.wrap("complete\nincomp".getBytes(UTF_8)));
+        Assert.assertEquals(Arrays.asList("complete"), lines);
+        Assert.assertTrue(scanner.hasPartialLine());
+
+        scanner.scan(ByteBuffer.wrap("lete\n".getBytes(UTF_8)));
+        Assert.assertEquals(Arrays.asList("complete", "incomplete"), lines);
+        Assert.assertFalse(scanner.hasPartialLine());
+
+        scanner.scan(ByteBuffer.wrap("unterminated".getBytes(UTF_8)));
+        scanner.flush();
+        Assert.assertEquals(Arrays.asList("complete", "incomplete", "unterminated"), lines);
+    }
+
+    @Test
+    public void testMultiByteCharactersAcrossChunks() {
+        String line = "r\u00e9servation \u00e9chou\u00e9e \u2013 \u65e5\u672c\u8a9e \ud83d\ude00";
+        byte[] bytes = (line + "\n" + line + "\n").getBytes(UTF_8);
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            Assert.assertEquals("chunk size " + chunkSize, Arrays.asList(line, line), scan(UTF_8, bytes, chunkSize));
+        }
+    }
+
+    @Test
+    public void testExplicitCharset() {
+        byte[] bytes = "caf\u00e9\n".getBytes(ISO_8859_1);
+        Assert.assertEquals(Arrays.asList("caf\u00e9"), scan(ISO_8859_1, bytes, bytes.length));
+    }
+
+    @Test
+    public void testIndexOfNewline() {
+        // 0x8A and 0x0B bytes around the newline could be mistaken for it by a naive word-at-a-time search
+        byte[] bytes = {0x0B, 0x0B, (byte) 0x8A, 0x0B, 0x0A, 0x0B, 0x0B, 0x0B, 0x0B, 0x0A, 0x0B};
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(4, LineScanner.indexOfNewline(buffer, 0, bytes.length));
+        Assert.assertEquals(9, LineScanner.indexOfNewline(buffer, 5, bytes.length));
+        Assert.assertEquals(-1, LineScanner.indexOfNewline(buffer, 10, bytes.length));
+        Assert.assertEquals(-1, LineScanner.indexOfNewline(buffer, 0, 4));
+    }
+}
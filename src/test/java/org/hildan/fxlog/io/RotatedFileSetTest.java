@@ -0,0 +1,73 @@
+package org.hildan.fxlog.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RotatedFileSetTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createFile(String name, long lastModified) throws IOException {
+        Path file = folder.newFile(name).toPath();
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+        return file;
+    }
+
+    private static List<String> names(List<Path> files) {
+        return files.stream().map(f -> f.getFileName().toString()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testNumberedFiles() throws IOException {
+        Path live = createFile("app.log", 5000);
+        // the numbers prevail over the modification dates, which may have been changed by a copy
+        createFile("app.log.1", 1000);
+        createFile("app.log.2.gz", 4000);
+        createFile("app.log.10", 3000);
+        createFile("other.log.1", 2000);
+        createFile("app.logger", 2000);
+        List<String> expected = Arrays.asList("app.log.10", "app.log.2.gz", "app.log.1");
+        Assert.assertEquals(expected, names(RotatedFileSet.findRotatedFiles(live)));
+    }
+
+    @Test
+    public void testDatedFiles() throws IOException {
+        Path live = createFile("server.log", 5000);
+        createFile("server-2016-12-30.log", 1000);
+        createFile("server-2016-12-31.log.gz", 2000);
+        createFile("server.log.2017-01-01", 3000);
+        createFile("server.txt", 4000);
+        List<String> expected =
+                Arrays.asList("server-2016-12-30.log", "server-2016-12-31.log.gz", "server.log.2017-01-01");
+        Assert.assertEquals(expected, names(RotatedFileSet.findRotatedFiles(live)));
+    }
+
+    @Test
+    public void testNoRotatedFiles() throws IOException {
+        Path live = createFile("alone.log", 1000);
+        Assert.assertTrue(RotatedFileSet.findRotatedFiles(live).isEmpty());
+    }
+
+    @Test
+    public void testRotatedFilesOf() {
+        Path directory = folder.getRoot().toPath();
+        Predicate<Path> isRotated = RotatedFileSet.rotatedFilesOf(directory.resolve("app.log"));
+        Assert.assertTrue(isRotated.test(directory.resolve("app.log.1")));
+        Assert.assertTrue(isRotated.test(directory.resolve("app-2016-12-31.log.gz")));
+        Assert.assertFalse(isRotated.test(directory.resolve("app.log")));
+        Assert.assertFalse(isRotated.test(directory.resolve("other.log.1")));
+        Assert.assertFalse(isRotated.test(directory.resolve("sub").resolve("app.log.1")));
+    }
+}
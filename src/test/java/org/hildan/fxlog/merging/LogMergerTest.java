@@ -0,0 +1,133 @@
+package org.hildan.fxlog.merging;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import org.hildan.fxlog.columns.ColumnDefinition;
+import org.hildan.fxlog.columns.ColumnType;
+import org.hildan.fxlog.columns.Columnizer;
+import org.hildan.fxlog.data.LogEntry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogMergerTest {
+
+    private static final long IDLE_TIMEOUT = 1000;
+
+    private Columnizer columnizer;
+
+    private ObservableList<LogEntry> mergedLogs;
+
+    private long now;
+
+    private LogMerger merger;
+
+    @Before
+    public void setUp() {
+        ColumnDefinition dateColumn = new ColumnDefinition("Date", "date");
+        dateColumn.setType(ColumnType.TIMESTAMP);
+        columnizer = new Columnizer("test",
+                FXCollections.observableArrayList(dateColumn, new ColumnDefinition("Message", "msg")),
+                Arrays.asList("(?<date>\\d+) (?<msg>.*)"));
+        mergedLogs = FXCollections.observableArrayList();
+        now = 0;
+        merger = new LogMerger(mergedLogs, "date", () -> now, IDLE_TIMEOUT);
+    }
+
+    private void add(List<LogEntry> source, String... lines) {
+        source.addAll(Arrays.stream(lines).map(columnizer::parse).collect(Collectors.toList()));
+    }
+
+    private List<String> mergedLines() {
+        return mergedLogs.stream().map(LogEntry::rawLine).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testInterleaving() {
+        LogMerger.Source first = merger.addSource("first");
+        LogMerger.Source second = merger.addSource("second");
+        add(first, "1 a", "3 c");
+        // the second source may still have older logs
+        Assert.assertEquals(Arrays.asList(), mergedLines());
+
+        add(second, "2 b", "4 d");
+        Assert.assertEquals(Arrays.asList("1 a", "2 b", "3 c"), mergedLines());
+
+        add(first, "5 e");
+        Assert.assertEquals(Arrays.asList("1 a", "2 b", "3 c", "4 d"), mergedLines());
+        Assert.assertEquals("second", mergedLogs.get(3).getSource());
+    }
+
+    @Test
+    public void testLogsWithoutDateInheritLastDate() {
+        LogMerger.Source first = merger.addSource("first");
+        LogMerger.Source second = merger.addSource("second");
+        add(first, "1 exception", "  at some.Class", "  at other.Class", "3 after");
+        add(second, "2 other", "3 same date", "4 later");
+        List<String> expected = Arrays.asList("1 exception", "  at some.Class", "  at other.Class", "2 other",
+                "3 after", "3 same date");
+        Assert.assertEquals(expected, mergedLines());
+    }
+
+    @Test
+    public void testStalledSource() {
+        LogMerger.Source active = merger.addSource("active");
+        merger.addSource("not found");
+        add(active, "1 a", "2 b");
+        Assert.assertTrue(mergedLogs.isEmpty());
+
+        now += IDLE_TIMEOUT;
+        // the active source is also idle now, all its logs are released
+        merger.merge();
+        Assert.assertEquals(Arrays.asList("1 a", "2 b"), mergedLines());
+
+        add(active, "3 c");
+        Assert.assertEquals(Arrays.asList("1 a", "2 b", "3 c"), mergedLines());
+    }
+
+    @Test
+    public void testLateAndOutOfOrderLogs() {
+        LogMerger.Source first = merger.addSource("first");
+        LogMerger.Source second = merger.addSource("second");
+        add(first, "10 a", "30 c", "50 e");
+        now += IDLE_TIMEOUT;
+        merger.merge();
+        Assert.assertEquals(Arrays.asList("10 a", "30 c", "50 e"), mergedLines());
+
+        int[] nbChanges = {0};
+        mergedLogs.addListener((ListChangeListener<LogEntry>) change -> nbChanges[0]++);
+        // the second source wakes up with logs older than the merged ones, and not even in order
+        now += IDLE_TIMEOUT;
+        add(second, "20 b", "15 x", "40 d", "30 same");
+        Assert.assertEquals(Arrays.asList("10 a", "15 x", "20 b", "30 c", "50 e"), mergedLines());
+        // the late logs are not inserted one by one
+        Assert.assertTrue(nbChanges[0] <= 2);
+
+        now += IDLE_TIMEOUT;
+        merger.merge();
+        List<String> expected = Arrays.asList("10 a", "15 x", "20 b", "30 c", "30 same", "40 d", "50 e");
+        Assert.assertEquals(expected, mergedLines());
+    }
+
+    @Test
+    public void testLimit() {
+        LogMerger.Source first = merger.addSource("first");
+        merger.limitNumberOfLogsProperty().set(true);
+        merger.maxNumberOfLogsProperty().set(2);
+        add(first, "1 a", "2 b", "3 c");
+        now += IDLE_TIMEOUT;
+        merger.merge();
+        Assert.assertEquals(Arrays.asList("2 b", "3 c"), mergedLines());
+        mergedLogs.clear();
+        add(first, "4 d");
+        now += IDLE_TIMEOUT;
+        merger.merge();
+        Assert.assertEquals(Arrays.asList("4 d"), mergedLines());
+    }
+}
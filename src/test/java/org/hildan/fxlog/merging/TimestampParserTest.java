@@ -0,0 +1,41 @@
+package org.hildan.fxlog.merging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampParserTest {
+
+    private static final long ONE_MINUTE_AND_A_HALF = 90_500;
+
+    @Test
+    public void testCommonFormats() {
+        TimestampParser parser = new TimestampParser();
+        Assert.assertEquals(ONE_MINUTE_AND_A_HALF, parser.parse("1970-01-01 00:01:30,500"));
+        Assert.assertEquals(ONE_MINUTE_AND_A_HALF, parser.parse("1970-01-01 00:01:30.500"));
+        Assert.assertEquals(ONE_MINUTE_AND_A_HALF, parser.parse("00:01:30.500"));
+        Assert.assertEquals(90_000, parser.parse("01/Jan/1970:01:01:30 +0100"));
+        Assert.assertEquals(ONE_MINUTE_AND_A_HALF, parser.parse("90500"));
+    }
+
+    @Test
+    public void testWhitespaceIsCollapsed() {
+        TimestampParser parser = new TimestampParser();
+        Assert.assertEquals(90_000, parser.parse("  Thu Jan  1 00:01:30 1970\t"));
+        Assert.assertEquals(90_000, parser.parse("1970-01-01\t\t00:01:30"));
+    }
+
+    @Test
+    public void testUnknown() {
+        TimestampParser parser = new TimestampParser();
+        Assert.assertEquals(TimestampParser.UNKNOWN, parser.parse(null));
+        Assert.assertEquals(TimestampParser.UNKNOWN, parser.parse("   "));
+        Assert.assertEquals(TimestampParser.UNKNOWN, parser.parse("yesterday"));
+    }
+
+    @Test
+    public void testExplicitFormat() {
+        TimestampParser parser = new TimestampParser("dd.MM.yyyy HH:mm:ss");
+        Assert.assertEquals(90_000, parser.parse("01.01.1970  00:01:30"));
+        Assert.assertEquals(TimestampParser.UNKNOWN, parser.parse("1970-01-01 00:01:30"));
+    }
+}
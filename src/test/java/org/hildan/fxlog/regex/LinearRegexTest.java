@@ -0,0 +1,98 @@
+package org.hildan.fxlog.regex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinearRegexTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+            "(?<datetime>\\S+) \\[(?<thread>[^]]*?)] (?<severity>\\S+)\\s+(?<class>\\S+) - (?<msg>.*)",
+            "(?<severity>[A-Z]+)\\s*\\|\\s*(?<msg>.*)",
+            "(?<ip>\\d{1,3}(?:\\.\\d{1,3}){3}) - (?<user>\\w*|-) (?<msg>.*)",
+            "(?<a>a*?)(?<b>a*)b?",
+            "^(?<x>ab|a)(?<y>bc|c)?$",
+            "(?<word>[Ee]rror|WARN)(?<rest>.*)",
+            "(?<msg>.*)");
+
+    private static final List<String> INPUTS = Arrays.asList(
+            "2017-01-01T10:00:00.123 [main-thread-1] INFO  com.example.Service - processed request #123 ok",
+            "2017-01-01T10:00:00.123 [main] ERROR com.example.Service - ",
+            "INFO | started",
+            "WARN|",
+            "127.0.0.1 - bob GET /index.html",
+            "10.0.0.12 - - POST",
+            "aaab",
+            "aaa",
+            "abc",
+            "ab",
+            "Error: disk full",
+            "no match here \u00e9\u4e2d");
+
+    @Before
+    public void resetTimeouts() {
+        RegexGuard.resetTimeouts();
+    }
+
+    @Test
+    public void testSameResultsAsJavaRegex() {
+        for (String regex : PATTERNS) {
+            Pattern pattern = Pattern.compile(regex);
+            Assert.assertTrue(regex, RegexGuard.isLinear(pattern));
+            RegexProgram program = RegexCompiler.compile(pattern);
+            for (String input : INPUTS) {
+                String message = regex + " on " + input;
+                Matcher expected = pattern.matcher(input);
+                boolean expectedMatch = expected.matches();
+                RegexMatch match = RegexGuard.matches(pattern, input);
+                Assert.assertEquals(message, expectedMatch, match != null);
+                Assert.assertEquals(message, pattern.matcher(input).find(), RegexGuard.find(pattern, input));
+
+                int[] backtrackerCaptures = new BoundedBacktracker(program).matches(input);
+                int[] pikeCaptures = new PikeVm(program).matches(input);
+                Assert.assertEquals(message, expectedMatch, backtrackerCaptures != null);
+                Assert.assertEquals(message, expectedMatch, pikeCaptures != null);
+                if (expectedMatch) {
+                    for (int group = 0; group <= expected.groupCount(); group++) {
+                        Assert.assertEquals(message, expected.start(group), backtrackerCaptures[2 * group]);
+                        Assert.assertEquals(message, expected.end(group), backtrackerCaptures[2 * group + 1]);
+                        Assert.assertEquals(message, expected.start(group), pikeCaptures[2 * group]);
+                        Assert.assertEquals(message, expected.end(group), pikeCaptures[2 * group + 1]);
+                    }
+                    for (String groupName : program.groupIndexes.keySet()) {
+                        Assert.assertEquals(message, expected.group(groupName), match.group(groupName));
+                        Assert.assertEquals(message, expected.start(groupName), match.start(groupName));
+                        Assert.assertEquals(message, expected.end(groupName), match.end(groupName));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedFeatures() {
+        Assert.assertFalse(RegexGuard.isLinear(Pattern.compile("(a+)+\\1b")));
+        Assert.assertFalse(RegexGuard.isLinear(Pattern.compile("a(?=b)")));
+        Assert.assertFalse(RegexGuard.isLinear(Pattern.compile("\\bword\\b")));
+        Assert.assertFalse(RegexGuard.isLinear(Pattern.compile("a++b")));
+    }
+
+    @Test(timeout = 5000)
+    public void testNoCatastrophicBacktracking() {
+        // takes seconds with java.util.regex alone
+        Pattern pattern = Pattern.compile("(.*a){20}b");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            input.append('a');
+        }
+        Assert.assertTrue(RegexGuard.isLinear(pattern));
+        Assert.assertFalse(RegexGuard.find(pattern, input));
+        Assert.assertNull(RegexGuard.matches(pattern, input));
+        Assert.assertEquals(0, RegexGuard.getTotalTimeouts());
+    }
+}
@@ -0,0 +1,52 @@
+package org.hildan.fxlog.regex;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RegexGuardTest {
+
+    @Before
+    public void resetTimeouts() {
+        RegexGuard.resetTimeouts();
+    }
+
+    @Test
+    public void testMatchesWithGroups() {
+        Pattern pattern = Pattern.compile("(?<severity>\\w+) (?<msg>.*)");
+        RegexMatch matcher = RegexGuard.matches(pattern, "INFO started");
+        Assert.assertNotNull(matcher);
+        Assert.assertEquals("INFO", matcher.group("severity"));
+        Assert.assertEquals("started", matcher.group("msg"));
+        Assert.assertNull(RegexGuard.matches(pattern, "nospace"));
+        Assert.assertEquals(0, RegexGuard.getTotalTimeouts());
+    }
+
+    @Test
+    public void testFindAll() {
+        Pattern pattern = Pattern.compile("e\\d+|x*");
+        List<int[]> matches = RegexGuard.findAll(pattern, "e1 and e23");
+        Assert.assertEquals(2, matches.size());
+        Assert.assertArrayEquals(new int[] {0, 2}, matches.get(0));
+        Assert.assertArrayEquals(new int[] {7, 10}, matches.get(1));
+        Assert.assertTrue(RegexGuard.findAll(Pattern.compile("z"), "e1 and e23").isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void testCatastrophicBacktracking() {
+        // takes seconds without the guard, the backreference prevents the use of the DFA
+        Pattern pattern = Pattern.compile("(a+)+\\1b");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            input.append('a');
+        }
+        Assert.assertFalse(RegexGuard.find(pattern, input));
+        Assert.assertNull(RegexGuard.matches(pattern, input));
+        Assert.assertTrue(RegexGuard.findAll(pattern, input).isEmpty());
+        Assert.assertEquals(3, RegexGuard.getTotalTimeouts());
+        Assert.assertEquals(Long.valueOf(3), RegexGuard.getTimeoutsByPattern().get("(a+)+\\1b"));
+    }
+}
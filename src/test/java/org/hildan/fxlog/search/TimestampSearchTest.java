@@ -0,0 +1,62 @@
+package org.hildan.fxlog.search;
+
+import org.hildan.fxlog.columns.ColumnType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampSearchTest {
+
+    private static final long M = ColumnType.MISSING;
+
+    private static int findNearest(long[] timestamps, long target) {
+        return TimestampSearch.findNearest(timestamps.length, i -> timestamps[i], target);
+    }
+
+    @Test
+    public void testSortedTimestamps() {
+        long[] timestamps = {10, 20, 30, 40, 50};
+        Assert.assertEquals(0, findNearest(timestamps, 0));
+        Assert.assertEquals(0, findNearest(timestamps, 10));
+        Assert.assertEquals(1, findNearest(timestamps, 22));
+        Assert.assertEquals(2, findNearest(timestamps, 28));
+        Assert.assertEquals(4, findNearest(timestamps, 100));
+    }
+
+    @Test
+    public void testMissingTimestamps() {
+        long[] timestamps = {M, 10, M, M, M, 20, M, 30, M, M};
+        Assert.assertEquals(1, findNearest(timestamps, 10));
+        Assert.assertEquals(5, findNearest(timestamps, 19));
+        Assert.assertEquals(7, findNearest(timestamps, 31));
+        Assert.assertEquals(-1, findNearest(new long[] {M, M, M}, 10));
+        Assert.assertEquals(1, TimestampSearch.findFirst(timestamps.length, i -> timestamps[i]));
+    }
+
+    @Test
+    public void testLongRunWithoutTimestamp() {
+        long[] timestamps = new long[501];
+        for (int i = 0; i < 100; i++) {
+            timestamps[i] = i * 1000;
+        }
+        // a long stack trace, much longer than the refinement range
+        for (int i = 100; i < 500; i++) {
+            timestamps[i] = M;
+        }
+        timestamps[500] = 1000000;
+        Assert.assertEquals(500, findNearest(timestamps, 1000000));
+        Assert.assertEquals(99, findNearest(timestamps, 100000));
+    }
+
+    @Test
+    public void testSlightlyOutOfOrder() {
+        long[] timestamps = new long[10000];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = i * 10;
+        }
+        // concurrent writers
+        timestamps[5000] = 50030;
+        timestamps[5003] = 50000;
+        Assert.assertEquals(5003, findNearest(timestamps, 50001));
+        Assert.assertEquals(5000, findNearest(timestamps, 50031));
+    }
+}
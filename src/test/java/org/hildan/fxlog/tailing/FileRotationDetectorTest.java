@@ -0,0 +1,65 @@
+package org.hildan.fxlog.tailing;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.hildan.fxlog.tailing.FileRotationDetector.Change;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class FileRotationDetectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(Path file, String content, StandardOpenOption... options) throws IOException {
+        Files.write(file, content.getBytes(UTF_8), options);
+    }
+
+    @Test
+    public void testGrowth() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("app.log");
+        write(file, "first\n");
+        FileRotationDetector detector = new FileRotationDetector(file);
+        try (FileChannel channel = FileChannel.open(file)) {
+            detector.fileOpened();
+            write(file, "second\n", StandardOpenOption.APPEND);
+            Assert.assertEquals(Change.NONE, detector.check(channel, 6));
+        }
+    }
+
+    @Test
+    public void testCopyTruncate() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("app.log");
+        write(file, "first\nsecond\n");
+        FileRotationDetector detector = new FileRotationDetector(file);
+        try (FileChannel channel = FileChannel.open(file)) {
+            detector.fileOpened();
+            Files.copy(file, folder.getRoot().toPath().resolve("app.log.1"));
+            write(file, "new\n", StandardOpenOption.TRUNCATE_EXISTING);
+            Assert.assertEquals(Change.TRUNCATED, detector.check(channel, 13));
+        }
+    }
+
+    @Test
+    public void testRenameAndCreate() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("app.log");
+        write(file, "first\n");
+        FileRotationDetector detector = new FileRotationDetector(file);
+        try (FileChannel channel = FileChannel.open(file)) {
+            detector.fileOpened();
+            Files.move(file, folder.getRoot().toPath().resolve("app.log.1"));
+            Assert.assertEquals("the new file is not there yet", Change.NONE, detector.check(channel, 6));
+            // the new file is already longer than the previous one, which the length alone can't tell
+            write(file, "a longer first line in the new file\n");
+            Assert.assertEquals(Change.REPLACED, detector.check(channel, 6));
+        }
+    }
+}